@@ -0,0 +1,29 @@
+package com.example.big_bike_auto.bench;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.file.Path;
+
+
+/**
+ * state กลาง: สร้างโฟลเดอร์ข้อมูลจำลองตามขนาด แล้วชี้ bba.data.dir ไปที่นั่นก่อนเริ่มวัด
+ * (JMH แยก fork ต่อชุด @Param → ทุก fork ได้แคช/โฟลเดอร์ของตัวเอง)
+ */
+@State(Scope.Benchmark)
+public abstract class DataSizeState {
+
+    @Param({"1000", "10000", "100000"})
+    public int size;
+
+    protected Path dataDir;
+
+    @Setup(Level.Trial)
+    public void prepareData() {
+        dataDir = Fixtures.prepareDataDir(getClass().getSimpleName(), size);
+        Fixtures.generateAll(size);
+        afterDataReady();
+    }
+
+    /** ให้ benchmark สร้าง service หลังจากชี้ bba.data.dir แล้ว */
+    protected void afterDataReady() {}
+}
@@ -0,0 +1,138 @@
+package com.example.big_bike_auto.bench;
+
+import com.example.big_bike_auto.common.DataPaths;
+import com.example.big_bike_auto.common.JsonUtil;
+import com.example.big_bike_auto.model.OrderItem;
+import com.example.big_bike_auto.model.Part;
+import com.example.big_bike_auto.model.PurchaseOrder;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.stream.Stream;
+
+
+/**
+ * สร้างข้อมูลจำลอง (parts / purchase_orders / customers) ตามขนาดที่กำหนด
+ * ใช้ seed คงที่ → ทุกรอบได้ข้อมูลชุดเดิม เทียบผลข้ามเวอร์ชันได้
+ */
+public final class Fixtures {
+
+    public static final String[] SUPPLIERS = {
+            "A-Supply", "B-Motor Parts", "C-Bike Center", "D-Import", "E-Oil&Lube",
+            "F-Tire Shop", "G-Brake Pro", "H-Electric", "I-Chain Co", "J-General"
+    };
+    private static final String[] STATUSES = {"RECEIVED", "IN_PROGRESS", "WAITING_PARTS", "COMPLETED", "CANCELLED"};
+    private static final String[] PART_WORDS = {"ผ้าเบรก", "โซ่", "สเตอร์", "หัวเทียน", "น้ำมันเครื่อง",
+            "ยางนอก", "ยางใน", "ไส้กรองอากาศ", "แบตเตอรี่", "หลอดไฟ", "Brake Pad", "Chain", "Spark Plug"};
+
+    private Fixtures() {}
+
+    /** โฟลเดอร์ข้อมูลสำหรับ benchmark (ล้างของเก่าก่อน) แล้วชี้ bba.data.dir มาที่นี่ */
+    public static Path prepareDataDir(String name, int size) {
+        Path dir = Paths.get("target", "bench-data", name + "-" + size).toAbsolutePath();
+        try {
+            if (Files.exists(dir)) {
+                try (Stream<Path> files = Files.walk(dir)) {
+                    files.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+                }
+            }
+            Files.createDirectories(dir);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        System.setProperty("bba.data.dir", dir.toString());
+        return dir;
+    }
+
+    /** สร้างไฟล์ข้อมูลครบชุดในโฟลเดอร์ข้อมูลปัจจุบัน (parts = size, PO = size/10, customers = size) */
+    public static void generateAll(int size) {
+        List<Part> parts = parts(size);
+        JsonUtil.writeList(DataPaths.file(DataPaths.PARTS).toString(), parts);
+        JsonUtil.writeList(DataPaths.file(DataPaths.PURCHASE_ORDERS).toString(), purchaseOrders(Math.max(1, size / 10), parts));
+        JsonUtil.writeList(DataPaths.file(DataPaths.CUSTOMERS).toString(), customers(size));
+    }
+
+    public static List<Part> parts(int n) {
+        Random rnd = new Random(42);
+        List<Part> out = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            String word = PART_WORDS[rnd.nextInt(PART_WORDS.length)];
+            out.add(new Part(sku(i), word + " #" + i, "pcs",
+                    rnd.nextInt(60), 0, rnd.nextInt(25),
+                    BigDecimal.valueOf(50 + rnd.nextInt(5000)), SUPPLIERS[rnd.nextInt(SUPPLIERS.length)]));
+        }
+        return out;
+    }
+
+    /** PO ย้อนหลังหลายวัน: ~30% ยังไม่รับของ, ใบละ 1-8 รายการ */
+    public static List<PurchaseOrder> purchaseOrders(int n, List<Part> parts) {
+        Random rnd = new Random(7);
+        LocalDate start = LocalDate.of(2023, 1, 1);
+        List<PurchaseOrder> out = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            LocalDate day = start.plusDays(i / 20);
+            PurchaseOrder po = new PurchaseOrder(String.format("PO-%s-%03d", day.toString().replace("-", ""), i % 20 + 1),
+                    SUPPLIERS[rnd.nextInt(SUPPLIERS.length)], day);
+            int lines = 1 + rnd.nextInt(8);
+            for (int l = 0; l < lines; l++) {
+                Part p = parts.get(rnd.nextInt(parts.size()));
+                po.addItem(new OrderItem(p.getSku(), p.getName(), "pcs", 1 + rnd.nextInt(20), 100 + rnd.nextInt(900)));
+            }
+            if (rnd.nextInt(10) >= 3) po.markAsReceived();
+            out.add(po);
+        }
+        return out;
+    }
+
+    /** ลูกค้า/งานซ่อม ในรูปแบบเดียวกับที่ RegisterController/RepairDetailsController เขียน */
+    public static List<Map<String, Object>> customers(int n) {
+        Random rnd = new Random(99);
+        LocalDateTime base = LocalDateTime.of(2023, 1, 1, 8, 0);
+        List<Map<String, Object>> out = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            LocalDateTime received = base.plusMinutes(37L * i);
+            Map<String, Object> c = new LinkedHashMap<>();
+            c.put("id", new UUID(42L, i).toString());
+            c.put("customerCode", String.format("C%09d", i));
+            c.put("name", "ลูกค้า " + i);
+            c.put("phone", String.format("08%08d", i));
+            c.put("plate", "กข " + (1000 + i % 9000));
+            c.put("province", "กรุงเทพ");
+            c.put("bikeModel", "Honda Click 125i");
+            c.put("receivedDate", received.toLocalDate().toString());
+            c.put("registeredAt", received.toString());
+            c.put("status", STATUSES[rnd.nextInt(STATUSES.length)]);
+            c.put("symptom", "ตรวจเช็คระยะ");
+
+            List<Map<String, Object>> repairParts = new ArrayList<>();
+            int lines = rnd.nextInt(4);
+            for (int l = 0; l < lines; l++) {
+                Map<String, Object> rp = new LinkedHashMap<>();
+                rp.put("partName", PART_WORDS[rnd.nextInt(PART_WORDS.length)]);
+                rp.put("quantity", (double) (1 + rnd.nextInt(3)));
+                rp.put("unit", "pcs");
+                rp.put("unitPrice", (double) (100 + rnd.nextInt(900)));
+                repairParts.add(rp);
+            }
+            Map<String, Object> repair = new LinkedHashMap<>();
+            repair.put("parts", repairParts);
+            repair.put("grandTotal", 0.0);
+            repair.put("notes", "");
+            repair.put("lastUpdated", received.plusHours(rnd.nextInt(72)).toString());
+            c.put("repair", repair);
+            out.add(c);
+        }
+        return out;
+    }
+
+    public static String sku(int i) {
+        return String.format("SKU-%06d", i);
+    }
+}
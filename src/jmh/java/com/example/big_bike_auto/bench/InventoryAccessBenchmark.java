@@ -0,0 +1,106 @@
+package com.example.big_bike_auto.bench;
+
+import com.example.big_bike_auto.model.Part;
+import com.example.big_bike_auto.model.viewmodel.InventoryRow;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * เทียบต้นทุนการแปลง Part → InventoryRow
+ * - legacyReflective: วิธีเดิมของ InventoryService.PartAccessor (getMethod/invoke ไล่ชื่อทีละตัว)
+ * - direct: อ่าน getter ของ Part ตรง ๆ แบบที่ InventoryService ใช้ตอนนี้
+ * ผลเป็น ops/s โดย 1 op = 1 แถว (rows/sec)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class InventoryAccessBenchmark {
+
+    private static final int ROWS = 10_000;
+
+    private List<Part> parts;
+
+    @Setup
+    public void setup() {
+        parts = new ArrayList<>(ROWS);
+        for (int i = 0; i < ROWS; i++) {
+            parts.add(new Part(String.format("SKU-%06d", i), "Part " + i, "pcs",
+                    i % 50, 0, i % 20, BigDecimal.valueOf(i % 900), "Supplier-" + (i % 40)));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void direct(Blackhole bh) {
+        for (Part p : parts) {
+            String code = safe(p.getSku());
+            int inStock = p.getOnHand();
+            int minStock = p.getMinStock();
+            int needed = Math.max(0, minStock - inStock);
+            bh.consume(new InventoryRow(code, safe(p.getName()), safe(p.getSupplier()), "",
+                    inStock, minStock, 0, 0, needed));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void legacyReflective(Blackhole bh) {
+        for (Part p : parts) {
+            String code = (String) LegacyAccessor.readFirst(p, LegacyAccessor.CODE, String.class, "");
+            String name = (String) LegacyAccessor.readFirst(p, LegacyAccessor.NAME, String.class, "");
+            String supplier = (String) LegacyAccessor.readFirst(p, LegacyAccessor.SUPPLIER, String.class, "");
+            String category = (String) LegacyAccessor.readFirst(p, LegacyAccessor.CATEGORY, String.class, "");
+            int inStock = ((Number) LegacyAccessor.readFirst(p, LegacyAccessor.INSTOCK, Number.class, 0)).intValue();
+            int minStock = ((Number) LegacyAccessor.readFirst(p, LegacyAccessor.MINSTOCK, Number.class, 0)).intValue();
+            int needed = Math.max(0, minStock - inStock);
+            bh.consume(new InventoryRow(safe(code), safe(name), safe(supplier), safe(category),
+                    inStock, minStock, 0, 0, needed));
+        }
+    }
+
+    private static String safe(String s) { return s == null ? "" : s; }
+
+    /** สำเนาโค้ด reflection เดิม (ก่อนเปลี่ยนเป็น direct access) ไว้เป็น baseline */
+    private static final class LegacyAccessor {
+        static final String[] CODE = {"getCode","getId","getPartCode","getSku","code","id"};
+        static final String[] NAME = {"getName","getPartName","getTitle","name"};
+        static final String[] SUPPLIER = {"getSupplier","getVendor","getSupplierName","supplier"};
+        static final String[] CATEGORY = {"getCategory","getType","getGroup","category"};
+        static final String[] INSTOCK = {"getInStock","getStock","getQuantity","getQty","getOnHand","inStock","stock","quantity","qty"};
+        static final String[] MINSTOCK = {"getMinStock","getReorderPoint","getSafetyStock","minStock","reorderPoint","safetyStock"};
+
+        static Object readFirst(Object target, String[] names, Class<?> expect, Object defaultVal) {
+            Class<?> cls = target.getClass();
+            for (String name : names) {
+                try {
+                    Method m = cls.getMethod(name);
+                    m.setAccessible(true);
+                    Object val = m.invoke(target);
+                    if (val == null) return defaultVal;
+                    if (expect.isInstance(val)) return val;
+                } catch (ReflectiveOperationException ignored) {}
+            }
+            for (String name : names) {
+                try {
+                    Field f = cls.getDeclaredField(name);
+                    f.setAccessible(true);
+                    Object val = f.get(target);
+                    if (val == null) return defaultVal;
+                    if (expect.isInstance(val)) return val;
+                } catch (ReflectiveOperationException ignored) {}
+            }
+            return defaultVal;
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.big_bike_auto.bench;
+
+import com.example.big_bike_auto.model.viewmodel.InventoryRow;
+import com.example.big_bike_auto.repository.PartRepository;
+import com.example.big_bike_auto.service.InventoryService;
+import com.example.big_bike_auto.service.PartCrudService;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+
+/** งานหลักของหน้า Inventory: สร้างแถวทั้งตาราง และเพิ่มสินค้าใหม่ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class InventoryBenchmark extends DataSizeState {
+
+    private InventoryService inventoryService;
+    private PartCrudService partCrudService;
+    private PartRepository partRepo;
+
+    @Override
+    protected void afterDataReady() {
+        inventoryService = new InventoryService();
+        partCrudService = new PartCrudService();
+        partRepo = new PartRepository();
+    }
+
+    @Benchmark
+    public List<InventoryRow> buildInventoryRows() {
+        return inventoryService.buildInventoryRows();
+    }
+
+    /** รหัสที่ไม่ชนของเดิม → วัดทั้งเช็คซ้ำ + บันทึก; ลบทิ้งหลังทุกครั้ง (ข้อมูลคงขนาด size) */
+    @Benchmark
+    public void createPart(NewPartState state) {
+        partCrudService.createPart(new PartCrudService.PartData(
+                state.code, "New part", Fixtures.SUPPLIERS[0], "", 5, 10));
+    }
+
+    @State(Scope.Benchmark)
+    public static class NewPartState {
+        private InventoryBenchmark bench;
+        private String code;
+
+        @Setup(Level.Trial)
+        public void bind(InventoryBenchmark bench) {
+            this.bench = bench;
+            code = Fixtures.sku(bench.size);
+        }
+
+        @TearDown(Level.Invocation)
+        public void deleteCreated() {
+            bench.partRepo.delete(code);
+        }
+    }
+}
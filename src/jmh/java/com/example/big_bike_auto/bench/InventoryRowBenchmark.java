@@ -0,0 +1,137 @@
+package com.example.big_bike_auto.bench;
+
+import com.example.big_bike_auto.model.viewmodel.InventoryRow;
+import javafx.beans.property.*;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * เทียบแถวของตาราง inventory
+ * - compact: InventoryRow ปัจจุบัน (field ธรรมดา, ตารางห่อ ReadOnly*Wrapper เฉพาะเซลล์ที่แสดง)
+ * - properties: แบบเดิมที่ทุก field เป็น Simple*Property (แถวละ 10 object)
+ * build*: สร้างทั้งตาราง, 1 op = 1 แถว; รันด้วย -prof gc แล้วดู gc.alloc.rate.norm = byte ต่อแถว
+ *   (ข้อความเตรียมไว้ก่อนใน setup → ตัวเลขคือขนาดของแถวล้วน ๆ)
+ * visibleCells*: อ่านค่าเซลล์ที่ตารางแสดงบนจอ (VISIBLE แถว x 9 คอลัมน์) แบบที่ cell value factory ทำ
+ * รัน: mvn -Pjmh test-compile exec:exec -Djmh.args="InventoryRow -prof gc"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class InventoryRowBenchmark {
+
+    private static final int ROWS = 100_000;
+    private static final int VISIBLE = 40;
+
+    private String[] codes;
+    private String[] names;
+    private List<InventoryRow> compactRows;
+    private List<PropertyRow> propertyRows;
+
+    @Setup
+    public void setup() {
+        codes = new String[ROWS];
+        names = new String[ROWS];
+        for (int i = 0; i < ROWS; i++) {
+            codes[i] = Fixtures.sku(i);
+            names[i] = "Part " + i;
+        }
+        compactRows = new ArrayList<>(ROWS);
+        propertyRows = new ArrayList<>(ROWS);
+        for (int i = 0; i < ROWS; i++) {
+            compactRows.add(compact(i));
+            propertyRows.add(properties(i));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public List<InventoryRow> buildCompact() {
+        List<InventoryRow> rows = new ArrayList<>(ROWS);
+        for (int i = 0; i < ROWS; i++) rows.add(compact(i));
+        return rows;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public List<PropertyRow> buildProperties() {
+        List<PropertyRow> rows = new ArrayList<>(ROWS);
+        for (int i = 0; i < ROWS; i++) rows.add(properties(i));
+        return rows;
+    }
+
+    @Benchmark
+    public void visibleCellsCompact(Blackhole bh) {
+        for (int i = 0; i < VISIBLE; i++) {
+            InventoryRow r = compactRows.get(i);
+            bh.consume(new ReadOnlyStringWrapper(r.getPartCode()));
+            bh.consume(new ReadOnlyStringWrapper(r.getName()));
+            bh.consume(new ReadOnlyStringWrapper(r.getSupplier()));
+            bh.consume(new ReadOnlyStringWrapper(r.getCategory()));
+            bh.consume(new ReadOnlyIntegerWrapper(r.getInStock()));
+            bh.consume(new ReadOnlyIntegerWrapper(r.getMinStock()));
+            bh.consume(new ReadOnlyIntegerWrapper(r.getReserved()));
+            bh.consume(new ReadOnlyIntegerWrapper(r.getOnOrder()));
+            bh.consume(new ReadOnlyIntegerWrapper(r.getNeeded()));
+        }
+    }
+
+    @Benchmark
+    public void visibleCellsProperties(Blackhole bh) {
+        for (int i = 0; i < VISIBLE; i++) {
+            PropertyRow r = propertyRows.get(i);
+            bh.consume(r.partCode);
+            bh.consume(r.name);
+            bh.consume(r.supplier);
+            bh.consume(r.category);
+            bh.consume(r.inStock);
+            bh.consume(r.minStock);
+            bh.consume(r.reserved);
+            bh.consume(r.onOrder);
+            bh.consume(r.needed);
+        }
+    }
+
+    private InventoryRow compact(int i) {
+        return new InventoryRow(codes[i], names[i], Fixtures.SUPPLIERS[i % Fixtures.SUPPLIERS.length], "",
+                i % 50, i % 20, i % 3, i % 7, i % 5);
+    }
+
+    private PropertyRow properties(int i) {
+        return new PropertyRow(codes[i], names[i], Fixtures.SUPPLIERS[i % Fixtures.SUPPLIERS.length], "",
+                i % 50, i % 20, i % 3, i % 7, i % 5);
+    }
+
+    /** สำเนา InventoryRow แบบเดิม (ทุก field เป็น Property) ไว้เป็น baseline */
+    public static final class PropertyRow {
+        final StringProperty partCode = new SimpleStringProperty();
+        final StringProperty name = new SimpleStringProperty();
+        final StringProperty supplier = new SimpleStringProperty();
+        final StringProperty category = new SimpleStringProperty();
+        final IntegerProperty inStock = new SimpleIntegerProperty();
+        final IntegerProperty minStock = new SimpleIntegerProperty();
+        final IntegerProperty reserved = new SimpleIntegerProperty();
+        final IntegerProperty onOrder = new SimpleIntegerProperty();
+        final IntegerProperty needed = new SimpleIntegerProperty();
+
+        PropertyRow(String code, String name, String supplier, String category,
+                    int inStock, int minStock, int reserved, int onOrder, int needed) {
+            this.partCode.set(code);
+            this.name.set(name);
+            this.supplier.set(supplier);
+            this.category.set(category);
+            this.inStock.set(inStock);
+            this.minStock.set(minStock);
+            this.reserved.set(reserved);
+            this.onOrder.set(onOrder);
+            this.needed.set(needed);
+        }
+    }
+}
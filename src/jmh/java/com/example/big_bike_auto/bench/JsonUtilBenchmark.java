@@ -0,0 +1,47 @@
+package com.example.big_bike_auto.bench;
+
+import com.example.big_bike_auto.common.DataPaths;
+import com.example.big_bike_auto.common.JsonUtil;
+import com.example.big_bike_auto.model.Part;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+
+/** อ่าน/เขียน parts.json ทั้งไฟล์ผ่าน JsonUtil (ไม่ผ่านแคชของ repository) */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JsonUtilBenchmark extends DataSizeState {
+
+    private String partsFile;
+    private String outFile;
+    private List<Part> parts;
+
+    @Override
+    protected void afterDataReady() {
+        partsFile = DataPaths.file(DataPaths.PARTS).toString();
+        outFile = dataDir.resolve("parts-write.json").toString();
+        parts = JsonUtil.readList(partsFile, Part.class);
+    }
+
+    @Benchmark
+    public List<Part> readList() {
+        return JsonUtil.readList(partsFile, Part.class);
+    }
+
+    /** streaming: หา SKU กลางไฟล์แล้วหยุดอ่านทันที */
+    @Benchmark
+    public List<Part> readWhereFirstMatch() {
+        String target = Fixtures.sku(size / 2);
+        return JsonUtil.readWhere(partsFile, Part.class, p -> target.equals(p.getSku()), 1);
+    }
+
+    @Benchmark
+    public void writeList() {
+        JsonUtil.writeList(outFile, parts);
+    }
+}
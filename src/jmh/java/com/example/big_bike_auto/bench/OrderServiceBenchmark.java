@@ -0,0 +1,108 @@
+package com.example.big_bike_auto.bench;
+
+import com.example.big_bike_auto.model.PurchaseOrder;
+import com.example.big_bike_auto.model.viewmodel.OrderRow;
+import com.example.big_bike_auto.repository.PurchaseOrderRepository;
+import com.example.big_bike_auto.service.OrderService;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * งานหลักของหน้า Orders: ค้น PO ตามตัวกรอง และสร้าง/ต่อเติม draft PO
+ * งานเขียนแยกเป็นสองกรณี และคืนข้อมูลกลับหลังทุกครั้ง (ลบใบที่สร้าง/ตัดรายการที่เพิ่ม)
+ * → ทุกครั้งวัดบนข้อมูลขนาด size เท่าเดิม ไม่โตตามจำนวนรอบที่รัน
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OrderServiceBenchmark extends DataSizeState {
+
+    // supplier ที่ไม่มีในข้อมูลจำลอง (ไม่ปนกับ PO เดิม)
+    static final String APPEND_SUPPLIER = "Z-Bench Append";
+    static final String CREATE_SUPPLIER = "Z-Bench Create";
+
+    private OrderService orderService;
+    private PurchaseOrderRepository orderRepo;
+    private List<OrderRow> draftRows;
+
+    @Override
+    protected void afterDataReady() {
+        orderService = new OrderService();
+        orderRepo = new PurchaseOrderRepository();
+        draftRows = List.of(
+                new OrderRow(Fixtures.SUPPLIERS[0], Fixtures.sku(1), "Part 1", 3, 3),
+                new OrderRow(Fixtures.SUPPLIERS[0], Fixtures.sku(2), "Part 2", 5, 5));
+    }
+
+    @Benchmark
+    public List<PurchaseOrder> listPOsAll() {
+        return orderService.listPOs("ALL", null, null, null);
+    }
+
+    @Benchmark
+    public List<PurchaseOrder> listPOsFiltered() {
+        return orderService.listPOs("OPEN", Fixtures.SUPPLIERS[3], LocalDate.of(2023, 3, 1), LocalDate.of(2024, 3, 1));
+    }
+
+    /** supplier มี PO เปิดอยู่แล้ว → ต่อเติมรายการลงใบเดิม */
+    @Benchmark
+    public void appendDraftPO(AppendState state) {
+        orderService.createOrAppendDraftPO(APPEND_SUPPLIER, draftRows);
+    }
+
+    /** supplier ยังไม่มี PO เปิด → สร้างใบใหม่ */
+    @Benchmark
+    public void createDraftPO(CreateState state) {
+        orderService.createOrAppendDraftPO(CREATE_SUPPLIER, draftRows);
+    }
+
+    /** PO เปิดหนึ่งใบของ APPEND_SUPPLIER; หลังทุกครั้งตัดรายการกลับเหลือเท่าตอนเริ่ม */
+    @State(Scope.Benchmark)
+    public static class AppendState {
+        private OrderServiceBenchmark bench;
+        private String poId;
+        private int baseItems;
+
+        @Setup(Level.Trial)
+        public void openPO(OrderServiceBenchmark bench) {
+            this.bench = bench;
+            bench.orderService.createOrAppendDraftPO(APPEND_SUPPLIER, bench.draftRows);
+            PurchaseOrder po = bench.orderRepo.findOpenBySupplier(APPEND_SUPPLIER).get(0);
+            poId = po.getId();
+            baseItems = po.getItems().size();
+        }
+
+        @TearDown(Level.Invocation)
+        public void trimItems() {
+            bench.orderRepo.update(poId, po -> {
+                List<?> items = po.getItems();
+                items.subList(Math.min(baseItems, items.size()), items.size()).clear();
+                return po;
+            });
+        }
+    }
+
+    /** หลังทุกครั้งลบ PO ที่เพิ่งสร้างของ CREATE_SUPPLIER ทิ้ง */
+    @State(Scope.Benchmark)
+    public static class CreateState {
+        private OrderServiceBenchmark bench;
+
+        @Setup(Level.Trial)
+        public void bind(OrderServiceBenchmark bench) {
+            this.bench = bench;
+        }
+
+        @TearDown(Level.Invocation)
+        public void deleteCreated() {
+            for (PurchaseOrder po : bench.orderRepo.findOpenBySupplier(CREATE_SUPPLIER)) {
+                bench.orderRepo.delete(po.getId());
+            }
+        }
+    }
+}
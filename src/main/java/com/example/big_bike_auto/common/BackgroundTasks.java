@@ -0,0 +1,240 @@
+package com.example.big_bike_auto.common;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RunnableFuture;
+
+
+/**
+ * คิวงานเบื้องหลังกลางของทั้งแอป (แทนการ new Thread ทุกครั้งที่กดปุ่ม/โหลดหน้า)
+ * - งานรันบน virtual thread (งานส่วนใหญ่รอ I/O ไฟล์/ฐานข้อมูล) แต่จำกัดจำนวนที่รันพร้อมกัน
+ * - คิวเต็ม → ปฏิเสธงานใหม่ทันที (back-pressure: ไม่สะสมงานค้างจนเครื่องช้า)
+ * - งานเขียนส่งเข้า lane ของไฟล์ข้อมูล (เช่น {@link DataPaths#PARTS}) → งานใน lane เดียวกันรันทีละงานตามลำดับที่ส่ง
+ * - งานโหลดที่มี key เดียวกัน (เช่น "load-inventory") งานใหม่ยกเลิกงานเก่าที่ยังไม่เสร็จ
+ * รับงานเป็น {@link RunnableFuture} (javafx.concurrent.Task ก็เป็น) → ยกเลิกด้วย cancel() ตามปกติ
+ *
+ * ตั้งค่าผ่าน system property:
+ *   -Dbba.tasks.maxRunning=8     (งานที่รันพร้อมกันได้)
+ *   -Dbba.tasks.maxQueued=64     (งานที่รอคิวได้ เกินนี้ถูกปฏิเสธ)
+ *   -Dbba.tasks.slowMillis=2000  (งานที่ใช้เวลารวมเกินนี้ถูก log ลง stderr, 0 = ไม่ log)
+ */
+public final class BackgroundTasks {
+
+    private static final int MAX_RUNNING = Math.max(1, Integer.getInteger("bba.tasks.maxRunning", 8));
+    private static final int MAX_QUEUED = Math.max(1, Integer.getInteger("bba.tasks.maxQueued", 64));
+    private static final long SLOW_MILLIS = Long.getLong("bba.tasks.slowMillis", 2000L);
+
+    private static final ExecutorService THREADS =
+            Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("bba-task-", 0).factory());
+
+    // คิวและ lane ทั้งหมดแก้ภายใต้ LOCK
+    private static final Object LOCK = new Object();
+    private static final ArrayDeque<Job> READY = new ArrayDeque<>();   // งานที่รอแค่ช่องว่าง
+    private static final Map<String, Lane> LANES = new HashMap<>();   // lane ที่มีงานรัน/รออยู่
+    private static int queued;   // READY + งานที่รอใน lane
+    private static int running;
+
+    // ตัวเลขสะสม (ใต้ LOCK)
+    private static long completed;
+    private static long failed;
+    private static long cancelled;
+    private static long rejected;
+    private static long totalWaitNanos;
+    private static long totalRunNanos;
+    private static long maxRunNanos;
+
+    private static final Map<String, Future<?>> LATEST = new HashMap<>(); // งานล่าสุดของแต่ละ key (submitLatest)
+
+    private BackgroundTasks() {}
+
+    /** ตัวเลขของคิวงาน ณ ตอนเรียก (เวลาเป็น ms; เฉลี่ยจากงานที่รันจบแล้ว) */
+    public record Stats(int queued, int running, long completed, long failed, long cancelled, long rejected,
+                        double avgWaitMillis, double avgRunMillis, double maxRunMillis) {}
+
+    private static final class Job {
+        final String name;
+        final RunnableFuture<?> task;
+        final Lane lane;
+        final long submittedAt = System.nanoTime();
+
+        Job(String name, RunnableFuture<?> task, Lane lane) {
+            this.name = name;
+            this.task = task;
+            this.lane = lane;
+        }
+    }
+
+    /** งานของไฟล์เดียวกัน: รันทีละงาน งานถัดไปรอใน backlog */
+    private static final class Lane {
+        final String name;
+        final ArrayDeque<Job> backlog = new ArrayDeque<>();
+        boolean active; // มีงานของ lane อยู่ใน READY หรือกำลังรัน
+
+        Lane(String name) {
+            this.name = name;
+        }
+    }
+
+    // ---------- submit ----------
+
+    /**
+     * ส่งงานทั่วไป (อ่านข้อมูล/คำนวณ)
+     * @throws RejectedExecutionException คิวเต็ม (งานไม่ถูกรัน)
+     */
+    public static <F extends RunnableFuture<?>> F submit(String name, F task) {
+        enqueue(new Job(name, task, null));
+        return task;
+    }
+
+    /**
+     * ส่งงานโหลดที่มีแค่ผลล่าสุดที่มีความหมาย: งานก่อนหน้าที่ใช้ key เดียวกันและยังไม่เสร็จถูก cancel
+     * (ยังรอคิว → ไม่ได้รันเลย, รันอยู่ → ถูก interrupt และผลไม่ถูกส่งกลับไปที่หน้าจอ)
+     */
+    public static <F extends RunnableFuture<?>> F submitLatest(String key, F task) {
+        Future<?> previous;
+        synchronized (LOCK) {
+            previous = LATEST.put(key, task);
+            // งานเก่าที่ยังรอคิว: เอาออกเลย ไม่ต้องกินที่ในคิวจนถึงตาของมัน
+            if (previous != null && READY.removeIf(j -> j.task == previous)) {
+                queued--;
+                cancelled++;
+            }
+        }
+        // cancel นอก LOCK: Task ของ JavaFX อาจเรียก handler (ที่ส่งงานใหม่) ทันที
+        if (previous != null && previous != task) previous.cancel(true);
+        try {
+            enqueue(new Job(key, task, null));
+        } catch (RejectedExecutionException e) {
+            synchronized (LOCK) {
+                LATEST.remove(key, task);
+            }
+            throw e;
+        }
+        return task;
+    }
+
+    /**
+     * ส่งงานเขียนเข้า lane ของไฟล์ข้อมูล (เช่น {@link DataPaths#PARTS})
+     * งานใน lane เดียวกันไม่รันซ้อนกันและรันตามลำดับที่ส่ง; ต่าง lane รันขนานกันได้
+     */
+    public static <F extends RunnableFuture<?>> F submitWrite(String lane, String name, F task) {
+        synchronized (LOCK) {
+            Lane l = LANES.computeIfAbsent(lane, Lane::new);
+            Job job = new Job(lane + "/" + name, task, l);
+            if (!admit()) {
+                if (!l.active) LANES.remove(lane);
+                throw reject(job);
+            }
+            // lane ว่าง → เข้า READY ทันที; มีงานของไฟล์นี้อยู่แล้ว → รอต่อท้ายใน backlog
+            if (l.active) {
+                l.backlog.add(job);
+            } else {
+                l.active = true;
+                READY.add(job);
+            }
+            dispatch();
+        }
+        return task;
+    }
+
+    public static Stats stats() {
+        synchronized (LOCK) {
+            long ran = completed + failed;
+            return new Stats(queued, running, completed, failed, cancelled, rejected,
+                    ran == 0 ? 0 : totalWaitNanos / 1e6 / ran,
+                    ran == 0 ? 0 : totalRunNanos / 1e6 / ran,
+                    maxRunNanos / 1e6);
+        }
+    }
+
+    // ---------- scheduling (ใต้ LOCK) ----------
+
+    private static void enqueue(Job job) {
+        synchronized (LOCK) {
+            if (!admit()) throw reject(job);
+            READY.add(job);
+            dispatch();
+        }
+    }
+
+    private static boolean admit() {
+        if (queued >= MAX_QUEUED) return false;
+        queued++;
+        return true;
+    }
+
+    private static RejectedExecutionException reject(Job job) {
+        rejected++;
+        return new RejectedExecutionException(
+                "งานเบื้องหลังค้างอยู่ " + queued + " งาน (สูงสุด " + MAX_QUEUED + ") ไม่รับงาน " + job.name + " เพิ่ม ลองใหม่อีกครั้ง");
+    }
+
+    private static void dispatch() {
+        while (running < MAX_RUNNING && !READY.isEmpty()) {
+            Job job = READY.poll();
+            queued--;
+            if (job.task.isDone()) {
+                // ถูกยกเลิกระหว่างรอคิว → ข้ามไป (ไม่กินช่องรัน)
+                cancelled++;
+                advanceLane(job);
+                continue;
+            }
+            running++;
+            THREADS.execute(() -> run(job));
+        }
+    }
+
+    /** งานของ lane จบ (หรือถูกข้าม) → ส่งงานถัดไปของ lane เข้า READY */
+    private static void advanceLane(Job job) {
+        Lane l = job.lane;
+        if (l == null) return;
+        Job next = l.backlog.poll();
+        if (next != null) {
+            READY.add(next); // ยังนับอยู่ใน queued
+        } else {
+            l.active = false;
+            LANES.remove(l.name, l);
+        }
+    }
+
+    private static void run(Job job) {
+        long start = System.nanoTime();
+        job.task.run();
+        long end = System.nanoTime();
+
+        boolean ok = true;
+        boolean wasCancelled = job.task.isCancelled();
+        if (!wasCancelled) {
+            try {
+                job.task.get();
+            } catch (Exception e) {
+                ok = false; // ผู้ส่งงานจัดการ exception เอง (เช่น Task.setOnFailed)
+            }
+        }
+
+        long wait = start - job.submittedAt;
+        long took = end - start;
+        synchronized (LOCK) {
+            if (job.lane == null) LATEST.remove(job.name, job.task);
+            running--;
+            if (wasCancelled) cancelled++;
+            else if (ok) completed++;
+            else failed++;
+            if (!wasCancelled) {
+                totalWaitNanos += wait;
+                totalRunNanos += took;
+                maxRunNanos = Math.max(maxRunNanos, took);
+            }
+            advanceLane(job);
+            dispatch();
+        }
+        if (SLOW_MILLIS > 0 && (wait + took) / 1_000_000 >= SLOW_MILLIS) {
+            System.err.println("งานเบื้องหลังช้า: " + job.name + " รอคิว " + wait / 1_000_000 + " ms, รัน " + took / 1_000_000 + " ms");
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.big_bike_auto.common;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+
+/**
+ * ตำแหน่งโฟลเดอร์ข้อมูลของระบบ (ค่าเริ่มต้น data/ ใต้ working directory)
+ * เปลี่ยนได้ด้วย -Dbba.data.dir=... (เช่น benchmark/เครื่องที่แชร์โฟลเดอร์ข้อมูล)
+ */
+public final class DataPaths {
+
+    public static final String CUSTOMERS = "customers.json";
+    public static final String PARTS = "parts.json";
+    public static final String PURCHASE_ORDERS = "purchase_orders.json";
+
+    private DataPaths() {}
+
+    public static Path dir() {
+        return Paths.get(System.getProperty("bba.data.dir", "data"));
+    }
+
+    /** path ของไฟล์ในโฟลเดอร์ข้อมูล เช่น file("parts.json") */
+    public static Path file(String name) {
+        return dir().resolve(name);
+    }
+}
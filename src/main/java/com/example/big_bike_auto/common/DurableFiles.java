@@ -0,0 +1,196 @@
+package com.example.big_bike_auto.common;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Locale;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * ทางเขียนไฟล์ข้อมูลแบบทนเครื่องดับ (ใช้ร่วมกันทุกจุดที่เขียนไฟล์ใน data/)
+ * - เขียนไฟล์ทั้งไฟล์: เขียนลง temp ในโฟลเดอร์เดียวกัน → force → atomic move ทับของเดิม
+ *   (ไฟล์เดิมไม่มีทางถูกตัดครึ่ง; เลือกเก็บสำเนาเดิมไว้เป็น .bak ได้)
+ * - ต่อท้ายไฟล์ (journal): fsync ทุกครั้ง หรือรวม fsync เป็นชุด (group commit)
+ *
+ * ตั้งค่าผ่าน system property:
+ *   -Dbba.storage.durability=fsync|group   (ค่าเริ่มต้น fsync)
+ *   -Dbba.storage.groupCommitMillis=100     (รอบ fsync ของโหมด group)
+ *   -Dbba.storage.backup=true|false         (เก็บ .bak ก่อนเขียนทับ ค่าเริ่มต้น true)
+ */
+public final class DurableFiles {
+
+    /** ระดับความทนทาน: แลก latency กับความปลอดภัยของข้อมูล */
+    public enum Durability {
+        /** fsync ทุกครั้งก่อนคืนค่า: ไฟดับก็ไม่เสียข้อมูลที่บันทึกสำเร็จแล้ว */
+        FSYNC,
+        /** รวม fsync เป็นรอบ ๆ: เร็วกว่า แต่ไฟดับอาจเสียงานช่วงไม่กี่ร้อย ms ล่าสุด (ไฟล์ไม่เสียรูป) */
+        GROUP_COMMIT
+    }
+
+    private static final Durability DURABILITY = parseDurability(System.getProperty("bba.storage.durability", "fsync"));
+    private static final long GROUP_COMMIT_MILLIS = Long.getLong("bba.storage.groupCommitMillis", 100L);
+    private static final boolean BACKUP = Boolean.parseBoolean(System.getProperty("bba.storage.backup", "true"));
+
+    // ไฟล์ที่เขียนแล้วแต่ยังไม่ fsync (โหมด group commit)
+    private static final Set<Path> PENDING_SYNC = ConcurrentHashMap.newKeySet();
+    private static volatile ScheduledExecutorService flusher;
+
+    private DurableFiles() {}
+
+    public static Durability durability() { return DURABILITY; }
+
+    /** เนื้อหาที่จะเขียนลงไฟล์ (ได้ Writer แบบ UTF-8) */
+    @FunctionalInterface
+    public interface WriteBody {
+        void writeTo(Writer w) throws IOException;
+    }
+
+    /** เขียนข้อความทั้งไฟล์แบบ atomic */
+    public static void writeString(Path target, String content) throws IOException {
+        writeAtomically(target, w -> w.write(content));
+    }
+
+    /**
+     * เขียนทั้งไฟล์แบบ atomic: temp → force → (สำเนา .bak) → atomic move
+     * ถ้าพังระหว่างทาง ไฟล์เดิมยังอยู่ครบ และ temp จะถูกลบทิ้ง
+     */
+    public static void writeAtomically(Path target, WriteBody body) throws IOException {
+        Path dir = target.toAbsolutePath().getParent();
+        if (dir != null) Files.createDirectories(dir);
+
+        // สร้าง temp ด้วยสิทธิ์ปกติของระบบ (createTempFile จะได้ 0600 ซึ่งจะติดไปกับไฟล์จริงหลัง rename)
+        Path tmp = target.resolveSibling(target.getFileName() + "." + UUID.randomUUID() + ".tmp");
+        Files.createFile(tmp);
+        try {
+            try (FileChannel ch = FileChannel.open(tmp, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                Writer w = new BufferedWriter(new OutputStreamWriter(Channels.newOutputStream(ch), StandardCharsets.UTF_8));
+                body.writeTo(w);
+                w.flush();
+                // ต้อง force ก่อน rename เสมอ ไม่งั้นไฟดับแล้วอาจได้ไฟล์ว่างแทนที่ของเดิม
+                ch.force(true);
+            }
+            if (BACKUP && Files.exists(target)) backup(target);
+            move(tmp, target);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(tmp);
+            throw e;
+        }
+
+        if (DURABILITY == Durability.FSYNC) syncDirectory(dir);
+        else scheduleSync(dir);
+    }
+
+    /** ต่อท้ายไฟล์ (เช่น journal) ตามระดับ durability ที่ตั้งไว้ */
+    public static void append(Path file, byte[] bytes) throws IOException {
+        Path dir = file.toAbsolutePath().getParent();
+        if (dir != null) Files.createDirectories(dir);
+        boolean created = !Files.exists(file);
+
+        try (FileChannel ch = FileChannel.open(file,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            ByteBuffer buf = ByteBuffer.wrap(bytes);
+            while (buf.hasRemaining()) ch.write(buf);
+            if (DURABILITY == Durability.FSYNC) ch.force(false);
+        }
+
+        if (DURABILITY == Durability.FSYNC) {
+            if (created) syncDirectory(dir);
+        } else {
+            scheduleSync(file);
+            if (created) scheduleSync(dir);
+        }
+    }
+
+    /** fsync ทุกไฟล์ที่ค้างในโหมด group commit ทันที (เช่น ก่อนปิดโปรแกรม) */
+    public static void flushPending() {
+        for (Path p : PENDING_SYNC) {
+            PENDING_SYNC.remove(p);
+            if (Files.isDirectory(p)) syncDirectory(p);
+            else syncFile(p);
+        }
+    }
+
+    // ---------- internals ----------
+
+    /** เก็บสำเนาเดิมเป็น .bak ด้วย hard link (ไม่ต้องคัดลอกข้อมูล) ถ้าทำไม่ได้ค่อย copy */
+    private static void backup(Path target) throws IOException {
+        Path bak = target.resolveSibling(target.getFileName() + ".bak");
+        Files.deleteIfExists(bak);
+        try {
+            Files.createLink(bak, target);
+        } catch (UnsupportedOperationException | IOException e) {
+            Files.copy(target, bak, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private static void move(Path from, Path to) throws IOException {
+        try {
+            Files.move(from, to, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(from, to, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private static void syncFile(Path file) {
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            ch.force(false);
+        } catch (IOException ignored) {
+            // ไฟล์ถูกลบ/ย้ายไปแล้ว (เช่น journal ถูก compact) → ไม่ต้อง sync
+        }
+    }
+
+    /** fsync โฟลเดอร์ เพื่อให้การ rename/สร้างไฟล์ถาวร (ทำได้บน Linux/macOS; Windows ข้าม) */
+    private static void syncDirectory(Path dir) {
+        if (dir == null) return;
+        try (FileChannel ch = FileChannel.open(dir, StandardOpenOption.READ)) {
+            ch.force(true);
+        } catch (IOException ignored) {
+            // บางระบบเปิดโฟลเดอร์เป็น channel ไม่ได้ → rename ของระบบไฟล์นั้นถาวรเองอยู่แล้ว
+        }
+    }
+
+    private static void scheduleSync(Path p) {
+        if (p == null) return;
+        PENDING_SYNC.add(p);
+        ensureFlusher();
+    }
+
+    private static void ensureFlusher() {
+        if (flusher != null) return;
+        synchronized (DurableFiles.class) {
+            if (flusher != null) return;
+            ScheduledExecutorService ex = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread t = new Thread(r, "durable-group-commit");
+                t.setDaemon(true);
+                return t;
+            });
+            ex.scheduleWithFixedDelay(DurableFiles::flushPending,
+                    GROUP_COMMIT_MILLIS, GROUP_COMMIT_MILLIS, TimeUnit.MILLISECONDS);
+            Runtime.getRuntime().addShutdownHook(new Thread(DurableFiles::flushPending, "durable-flush-on-exit"));
+            flusher = ex;
+        }
+    }
+
+    private static Durability parseDurability(String s) {
+        return switch (s == null ? "" : s.trim().toLowerCase(Locale.ROOT)) {
+            case "group", "group_commit", "group-commit" -> Durability.GROUP_COMMIT;
+            default -> Durability.FSYNC;
+        };
+    }
+}
@@ -0,0 +1,508 @@
+package com.example.big_bike_auto.common;
+
+import com.example.big_bike_auto.model.Customer;
+import com.example.big_bike_auto.model.OrderItem;
+import com.example.big_bike_auto.model.Part;
+import com.example.big_bike_auto.model.PurchaseOrder;
+import com.example.big_bike_auto.model.Repair;
+import com.example.big_bike_auto.model.RepairPart;
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+
+/**
+ * TypeAdapter ที่เขียนเองของ model หลัก (ไม่ใช้ reflection ทั้งตอนอ่านและเขียน)
+ * ชื่อ field ตรงกับไฟล์เดิมทุกตัว; null ของชนิด primitive คงค่าเริ่มต้นไว้
+ * field ที่ไม่รู้จัก: model ของ customers.json (Customer/Repair/RepairPart) เก็บไว้ใน extras แล้วเขียนกลับ
+ * (ไฟล์นี้เคยอ่าน/เขียนผ่าน Map จึงมี field จากเครื่องมืออื่นได้); model อื่นข้ามไป
+ * เพิ่ม field ใน model เมื่อไร ต้องเพิ่มทั้ง read และ write ของ adapter นั้นด้วย
+ */
+final class JsonAdapters {
+
+    private JsonAdapters() {}
+
+    static final DateTimeFormatter DATE_FMT = DateTimeFormatter.ISO_LOCAL_DATE;
+
+    // อ่าน/เขียนค่า JSON ใด ๆ ตามที่เป็น (ใช้กับ extras)
+    private static final TypeAdapter<JsonElement> JSON_ELEMENT = new Gson().getAdapter(JsonElement.class);
+
+    // ---------- LocalDate: "YYYY-MM-DD" ----------
+
+    static final TypeAdapter<LocalDate> LOCAL_DATE = new TypeAdapter<>() {
+        @Override
+        public void write(JsonWriter out, LocalDate value) throws IOException {
+            if (value == null) out.nullValue();
+            else out.value(DATE_FMT.format(value));
+        }
+
+        @Override
+        public LocalDate read(JsonReader in) throws IOException {
+            String s = nextString(in);
+            if (s == null) return null;
+            try {
+                return LocalDate.parse(s, DATE_FMT);
+            } catch (DateTimeParseException ex) {
+                // ข้อมูลเก่าที่ไม่ใช่ ISO: เก็บเป็น null แล้ว log ไว้ (ไม่ให้ record เดียวทำให้ทั้งไฟล์อ่านไม่ได้)
+                System.err.println("วันที่ไม่ถูกรูปแบบ YYYY-MM-DD ใช้ null แทน: \"" + s + "\" (" + in.getPreviousPath() + ")");
+                return null;
+            }
+        }
+    };
+
+    // ---------- Part ----------
+
+    static final TypeAdapter<Part> PART = new TypeAdapter<>() {
+        @Override
+        public void write(JsonWriter out, Part p) throws IOException {
+            if (p == null) {
+                out.nullValue();
+                return;
+            }
+            out.beginObject();
+            out.name("sku").value(p.getSku());
+            out.name("name").value(p.getName());
+            out.name("unit").value(p.getUnit());
+            out.name("onHand").value(p.getOnHand());
+            out.name("reserved").value(p.getReserved());
+            out.name("minStock").value(p.getMinStock());
+            out.name("lastCost").value(p.getLastCost());
+            out.name("supplier").value(p.getSupplier());
+            out.name("version").value(p.getVersion());
+            out.endObject();
+        }
+
+        @Override
+        public Part read(JsonReader in) throws IOException {
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                return null;
+            }
+            Part p = new Part();
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "sku" -> p.setSku(nextString(in));
+                    case "name" -> p.setName(nextString(in));
+                    case "unit" -> p.setUnit(nextString(in));
+                    case "onHand" -> p.setOnHand(nextInt(in, p.getOnHand()));
+                    case "reserved" -> p.setReserved(nextInt(in, p.getReserved()));
+                    case "minStock" -> p.setMinStock(nextInt(in, p.getMinStock()));
+                    case "lastCost" -> p.setLastCost(nextDecimal(in));
+                    case "supplier" -> p.setSupplier(nextString(in));
+                    case "version" -> p.setVersion(nextLong(in, p.getVersion()));
+                    default -> in.skipValue();
+                }
+            }
+            in.endObject();
+            return p;
+        }
+    };
+
+    // ---------- OrderItem ----------
+
+    static final TypeAdapter<OrderItem> ORDER_ITEM = new TypeAdapter<>() {
+        @Override
+        public void write(JsonWriter out, OrderItem item) throws IOException {
+            if (item == null) {
+                out.nullValue();
+                return;
+            }
+            out.beginObject();
+            out.name("sku").value(item.getSku());
+            out.name("name").value(item.getName());
+            out.name("unit").value(item.getUnit());
+            out.name("quantity").value(item.getQuantity());
+            out.name("unitPrice").value(item.getUnitPrice());
+            out.endObject();
+        }
+
+        @Override
+        public OrderItem read(JsonReader in) throws IOException {
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                return null;
+            }
+            String sku = null, name = null, unit = null;
+            int quantity = 0;
+            double unitPrice = 0;
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "sku" -> sku = nextString(in);
+                    case "name" -> name = nextString(in);
+                    case "unit" -> unit = nextString(in);
+                    case "quantity" -> quantity = nextInt(in, quantity);
+                    case "unitPrice" -> unitPrice = nextDouble(in, unitPrice);
+                    default -> in.skipValue();
+                }
+            }
+            in.endObject();
+            return new OrderItem(sku, name, unit, quantity, unitPrice);
+        }
+    };
+
+    // ---------- PurchaseOrder ----------
+
+    static final TypeAdapter<PurchaseOrder> PURCHASE_ORDER = new TypeAdapter<>() {
+        @Override
+        public void write(JsonWriter out, PurchaseOrder po) throws IOException {
+            if (po == null) {
+                out.nullValue();
+                return;
+            }
+            out.beginObject();
+            out.name("id").value(po.getId());
+            out.name("supplier").value(po.getSupplier());
+            out.name("orderDate");
+            LOCAL_DATE.write(out, po.getOrderDate());
+            out.name("received").value(po.isReceived());
+            out.name("items");
+            writeList(out, po.getItems(), ORDER_ITEM);
+            out.name("version").value(po.getVersion());
+            out.endObject();
+        }
+
+        @Override
+        public PurchaseOrder read(JsonReader in) throws IOException {
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                return null;
+            }
+            String id = null, supplier = null;
+            LocalDate orderDate = null;
+            boolean received = false;
+            List<OrderItem> items = null;
+            long version = 0;
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "id" -> id = nextString(in);
+                    case "supplier" -> supplier = nextString(in);
+                    case "orderDate" -> orderDate = LOCAL_DATE.read(in);
+                    case "received" -> received = nextBoolean(in, received);
+                    case "items" -> items = readList(in, ORDER_ITEM);
+                    case "version" -> version = nextLong(in, version);
+                    default -> in.skipValue();
+                }
+            }
+            in.endObject();
+            PurchaseOrder po = new PurchaseOrder(id, supplier, orderDate);
+            if (received) po.markAsReceived();
+            if (items != null) {
+                for (OrderItem item : items) {
+                    if (item != null) po.addItem(item);
+                }
+            }
+            po.setVersion(version);
+            return po;
+        }
+    };
+
+    // ---------- LocalDateTime: ISO "YYYY-MM-DDTHH:mm:ss[.fraction]" ----------
+
+    /**
+     * อ่านได้ทั้งวันที่ล้วน (= ต้นวัน) และแบบมี offset (ข้อมูลเก่าบางส่วน) แต่เขียนเป็น LocalDateTime เสมอ
+     * รูปแบบอื่น → null + log
+     */
+    static final TypeAdapter<LocalDateTime> LOCAL_DATE_TIME = new TypeAdapter<>() {
+        @Override
+        public void write(JsonWriter out, LocalDateTime value) throws IOException {
+            if (value == null) out.nullValue();
+            else out.value(value.toString());
+        }
+
+        @Override
+        public LocalDateTime read(JsonReader in) throws IOException {
+            String s = nextString(in);
+            if (s == null || s.isBlank()) return null;
+            try {
+                if (s.length() == 10) return LocalDate.parse(s, DATE_FMT).atStartOfDay();
+                return LocalDateTime.parse(s);
+            } catch (DateTimeParseException ex) {
+                try {
+                    return OffsetDateTime.parse(s).toLocalDateTime();
+                } catch (DateTimeParseException ignored) {
+                    // เหมือน LOCAL_DATE: ค่าเดียวที่อ่านไม่ได้ต้องไม่ทำให้ทั้งไฟล์โหลดไม่ขึ้น (หรือถูกกู้จาก .bak ที่เก่ากว่า)
+                    System.err.println("วันเวลาไม่ถูกรูปแบบ ISO ใช้ null แทน: \"" + s + "\" (" + in.getPreviousPath() + ")");
+                    return null;
+                }
+            }
+        }
+    };
+
+    // ---------- RepairPart / Repair / Customer (รูปแบบของ customers.json) ----------
+
+    static final TypeAdapter<RepairPart> REPAIR_PART = new TypeAdapter<>() {
+        @Override
+        public void write(JsonWriter out, RepairPart line) throws IOException {
+            if (line == null) {
+                out.nullValue();
+                return;
+            }
+            out.beginObject();
+            out.name("partName").value(line.getPartName());
+            out.name("quantity").value(line.getQuantity());
+            out.name("unit").value(line.getUnit());
+            out.name("unitPrice").value(line.getUnitPrice());
+            writeExtras(out, line.getExtras());
+            out.endObject();
+        }
+
+        @Override
+        public RepairPart read(JsonReader in) throws IOException {
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                return null;
+            }
+            String partName = null, name = null, unit = null;
+            double quantity = 0, unitPrice = 0;
+            JsonObject extras = null;
+            in.beginObject();
+            while (in.hasNext()) {
+                String field = in.nextName();
+                switch (field) {
+                    case "partName" -> partName = nextString(in);
+                    case "name" -> name = nextString(in); // ประวัติ repairs เก่าเก็บเป็น Part (มีแค่ name)
+                    case "quantity" -> quantity = nextDouble(in, quantity);
+                    case "unit" -> unit = nextString(in);
+                    case "unitPrice" -> unitPrice = nextDouble(in, unitPrice);
+                    default -> extras = readExtra(in, field, extras);
+                }
+            }
+            in.endObject();
+            RepairPart line = new RepairPart(partName != null ? partName : name, quantity, unit, unitPrice);
+            line.setExtras(extras);
+            return line;
+        }
+    };
+
+    /** symptom/status เขียนเฉพาะเมื่อมีค่า: งานปัจจุบัน (customer.repair) เก็บสองค่านี้ไว้ที่ตัวลูกค้า */
+    static final TypeAdapter<Repair> REPAIR = new TypeAdapter<>() {
+        @Override
+        public void write(JsonWriter out, Repair r) throws IOException {
+            if (r == null) {
+                out.nullValue();
+                return;
+            }
+            out.beginObject();
+            if (r.getSymptom() != null) out.name("symptom").value(r.getSymptom());
+            if (r.getStatus() != null) out.name("status").value(r.getStatus());
+            out.name("parts");
+            writeList(out, r.getParts(), REPAIR_PART);
+            out.name("grandTotal").value(r.getGrandTotal());
+            out.name("notes").value(r.getNotes());
+            out.name("lastUpdated");
+            LOCAL_DATE_TIME.write(out, r.getLastUpdated());
+            writeExtras(out, r.getExtras());
+            out.endObject();
+        }
+
+        @Override
+        public Repair read(JsonReader in) throws IOException {
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                return null;
+            }
+            Repair r = new Repair();
+            in.beginObject();
+            while (in.hasNext()) {
+                String field = in.nextName();
+                switch (field) {
+                    case "symptom" -> r.setSymptom(nextString(in));
+                    case "status" -> r.setStatus(nextString(in));
+                    case "notes" -> r.setNotes(nextString(in));
+                    case "parts" -> r.setParts(readList(in, REPAIR_PART));
+                    case "grandTotal" -> r.setGrandTotal(nextDouble(in, r.getGrandTotal()));
+                    case "lastUpdated" -> r.setLastUpdated(LOCAL_DATE_TIME.read(in));
+                    default -> r.setExtras(readExtra(in, field, r.getExtras()));
+                }
+            }
+            in.endObject();
+            r.getParts().removeIf(Objects::isNull);
+            return r;
+        }
+    };
+
+    /** repairs (ประวัติ) เขียนเฉพาะเมื่อมีรายการ เพื่อให้ record ทั่วไปหน้าตาเหมือนที่หน้าลงทะเบียนสร้าง */
+    static final TypeAdapter<Customer> CUSTOMER = new TypeAdapter<>() {
+        @Override
+        public void write(JsonWriter out, Customer c) throws IOException {
+            if (c == null) {
+                out.nullValue();
+                return;
+            }
+            out.beginObject();
+            out.name("id").value(c.getId());
+            out.name("customerCode").value(c.getCustomerCode());
+            out.name("name").value(c.getName());
+            out.name("phone").value(c.getPhone());
+            out.name("plate").value(c.getPlate());
+            out.name("province").value(c.getProvince());
+            out.name("bikeModel").value(c.getBikeModel());
+            out.name("receivedDate");
+            LOCAL_DATE.write(out, c.getReceivedDate());
+            out.name("registeredAt");
+            LOCAL_DATE_TIME.write(out, c.getRegisteredAt());
+            out.name("status").value(c.getStatus());
+            out.name("symptom").value(c.getSymptom());
+            out.name("repair");
+            REPAIR.write(out, c.getRepair());
+            if (!c.getRepairs().isEmpty()) {
+                out.name("repairs");
+                writeList(out, c.getRepairs(), REPAIR);
+            }
+            out.name("version").value(c.getVersion());
+            writeExtras(out, c.getExtras());
+            out.endObject();
+        }
+
+        @Override
+        public Customer read(JsonReader in) throws IOException {
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                return null;
+            }
+            Customer c = new Customer();
+            in.beginObject();
+            while (in.hasNext()) {
+                String field = in.nextName();
+                switch (field) {
+                    case "id" -> c.setId(nextString(in));
+                    case "customerCode" -> c.setCustomerCode(nextString(in));
+                    case "name" -> c.setName(nextString(in));
+                    case "phone" -> c.setPhone(nextString(in));
+                    case "plate" -> c.setPlate(nextString(in));
+                    case "province" -> c.setProvince(nextString(in));
+                    case "bikeModel" -> c.setBikeModel(nextString(in));
+                    case "receivedDate" -> c.setReceivedDate(LOCAL_DATE.read(in));
+                    case "registeredAt" -> c.setRegisteredAt(LOCAL_DATE_TIME.read(in));
+                    case "status" -> c.setStatus(nextString(in));
+                    case "symptom" -> c.setSymptom(nextString(in));
+                    case "repair" -> c.setRepair(REPAIR.read(in));
+                    case "repairs" -> {
+                        List<Repair> repairs = readList(in, REPAIR);
+                        if (repairs != null) {
+                            for (Repair r : repairs) {
+                                if (r != null) c.addRepair(r);
+                            }
+                        }
+                    }
+                    case "version" -> c.setVersion(nextLong(in, c.getVersion()));
+                    default -> c.setExtras(readExtra(in, field, c.getExtras()));
+                }
+            }
+            in.endObject();
+            return c;
+        }
+    };
+
+    // ---------- helpers (null → ค่าเดิม/ null ตามชนิด เหมือน Gson แบบ reflection) ----------
+
+    private static String nextString(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        return in.nextString();
+    }
+
+    private static int nextInt(JsonReader in, int fallback) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return fallback;
+        }
+        return in.nextInt();
+    }
+
+    private static long nextLong(JsonReader in, long fallback) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return fallback;
+        }
+        return in.nextLong();
+    }
+
+    private static double nextDouble(JsonReader in, double fallback) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return fallback;
+        }
+        return in.nextDouble();
+    }
+
+    private static boolean nextBoolean(JsonReader in, boolean fallback) throws IOException {
+        JsonToken t = in.peek();
+        if (t == JsonToken.NULL) {
+            in.nextNull();
+            return fallback;
+        }
+        // รองรับ "true"/"false" แบบข้อความเหมือน adapter มาตรฐานของ Gson
+        return t == JsonToken.STRING ? Boolean.parseBoolean(in.nextString()) : in.nextBoolean();
+    }
+
+    private static BigDecimal nextDecimal(JsonReader in) throws IOException {
+        String s = nextString(in);
+        if (s == null) return null;
+        try {
+            return new BigDecimal(s);
+        } catch (NumberFormatException e) {
+            throw new JsonParseException("ไม่สามารถ parse ตัวเลขจาก: " + s + " (" + in.getPreviousPath() + ")", e);
+        }
+    }
+
+    /** เก็บ field ที่ model ไม่รู้จักลง extras (สร้างเมื่อเจอตัวแรก) */
+    private static JsonObject readExtra(JsonReader in, String field, JsonObject extras) throws IOException {
+        if (extras == null) extras = new JsonObject();
+        extras.add(field, JSON_ELEMENT.read(in));
+        return extras;
+    }
+
+    /** เขียน extras กลับตามเดิม (ต่อท้าย field ที่รู้จัก) */
+    private static void writeExtras(JsonWriter out, JsonObject extras) throws IOException {
+        if (extras == null) return;
+        for (Map.Entry<String, JsonElement> e : extras.entrySet()) {
+            out.name(e.getKey());
+            JSON_ELEMENT.write(out, e.getValue());
+        }
+    }
+
+    private static <E> List<E> readList(JsonReader in, TypeAdapter<E> element) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        List<E> list = new ArrayList<>();
+        in.beginArray();
+        while (in.hasNext()) list.add(element.read(in));
+        in.endArray();
+        return list;
+    }
+
+    private static <E> void writeList(JsonWriter out, List<E> list, TypeAdapter<E> element) throws IOException {
+        if (list == null) {
+            out.nullValue();
+            return;
+        }
+        out.beginArray();
+        for (E e : list) element.write(out, e);
+        out.endArray();
+    }
+}
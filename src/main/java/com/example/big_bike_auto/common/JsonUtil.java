@@ -1,50 +1,64 @@
 package com.example.big_bike_auto.common;
 
+import com.example.big_bike_auto.model.Customer;
+import com.example.big_bike_auto.model.OrderItem;
+import com.example.big_bike_auto.model.Part;
+import com.example.big_bike_auto.model.PurchaseOrder;
+import com.example.big_bike_auto.model.Repair;
+import com.example.big_bike_auto.model.RepairPart;
 import com.google.gson.*;
 import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import com.google.gson.stream.MalformedJsonException;
 
 import java.io.*;
 import java.lang.reflect.Type;
 import java.nio.charset.StandardCharsets;
-import java.nio.file.Files;
+import java.nio.file.Paths;
 import java.time.LocalDate;
-import java.time.format.DateTimeFormatter;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Predicate;
 
 
 public final class JsonUtil {
 
     private JsonUtil() {}
 
-    // --- กำหนดรูปแบบวันที่กลางของระบบ (ปรับได้ตามต้องการ) ---
-    private static final DateTimeFormatter DATE_FMT = DateTimeFormatter.ISO_LOCAL_DATE;
-
-    // --- ลงทะเบียน TypeAdapter สำหรับ LocalDate ---
+    /**
+     * Gson ตัวเดียวของทั้งระบบ: model หลักใช้ TypeAdapter ที่เขียนเอง ({@link JsonAdapters}) ไม่ผ่าน reflection
+     * ตัวมันเองเขียนแบบบรรทัดเดียวเสมอ (journal/ฐานข้อมูลใช้ได้ตรง ๆ); ไฟล์หลักเลือก pretty ได้ตอนเขียนด้วย {@link #PRETTY}
+     */
     private static final Gson GSON = new GsonBuilder()
-            .registerTypeAdapter(LocalDate.class, new JsonSerializer<LocalDate>() {
-                @Override
-                public JsonElement serialize(LocalDate src, Type typeOfSrc, JsonSerializationContext context) {
-                    // แปลง LocalDate -> "YYYY-MM-DD"
-                    return src == null ? JsonNull.INSTANCE : new JsonPrimitive(DATE_FMT.format(src));
-                }
-            })
-            .registerTypeAdapter(LocalDate.class, new JsonDeserializer<LocalDate>() {
-                @Override
-                public LocalDate deserialize(JsonElement json, Type typeOfT, JsonDeserializationContext context) throws JsonParseException {
-                    if (json == null || json.isJsonNull()) return null;
-                    // รับทั้งรูปแบบ String ISO และตัวเลข epoch(ถ้ามีการใช้ในอนาคต, ที่นี่เราโฟกัส String)
-                    try {
-                        return LocalDate.parse(json.getAsString(), DATE_FMT);
-                    } catch (Exception ex) {
-                        // เผื่อข้อมูลเก่าๆ ที่ไม่ใช่ ISO ให้ error ชัดเจน
-                        throw new JsonParseException("ไม่สามารถ parse LocalDate จาก: " + json, ex);
-                    }
-                }
-            })
+            .registerTypeAdapter(LocalDate.class, JsonAdapters.LOCAL_DATE.nullSafe())
+            .registerTypeAdapter(LocalDateTime.class, JsonAdapters.LOCAL_DATE_TIME.nullSafe())
+            .registerTypeAdapter(Part.class, JsonAdapters.PART)
+            .registerTypeAdapter(OrderItem.class, JsonAdapters.ORDER_ITEM)
+            .registerTypeAdapter(PurchaseOrder.class, JsonAdapters.PURCHASE_ORDER)
+            .registerTypeAdapter(RepairPart.class, JsonAdapters.REPAIR_PART)
+            .registerTypeAdapter(Repair.class, JsonAdapters.REPAIR)
+            .registerTypeAdapter(Customer.class, JsonAdapters.CUSTOMER)
             .serializeNulls() // เก็บ null ตามจริง (แล้วแต่ policy ของโปรเจกต์)
-            .setPrettyPrinting()
+            .disableHtmlEscaping() // ไม่ escape < > & ' = เป็นรหัส unicode (ไฟล์เล็กลงและอ่านง่าย)
             .create();
 
+    /**
+     * รูปแบบไฟล์ข้อมูลหลัก: ค่าเริ่มต้นแบบ compact (ไฟล์เล็กและเขียนเร็วกว่า)
+     * -Dbba.json.pretty=true → เยื้องบรรทัดให้อ่าน/diff ง่าย (อ่านได้ทั้งสองแบบเสมอ)
+     */
+    private static final boolean PRETTY = Boolean.getBoolean("bba.json.pretty");
+
+    /**
+     * ไฟล์ที่ใหญ่ตั้งแต่ค่านี้ (byte) อ่านผ่าน memory map ({@link MappedUtf8Reader}) แทน stream
+     * ตั้งด้วย -Dbba.json.mmapThreshold (0 = ใช้กับทุกไฟล์, -1 = ปิด)
+     * Windows ปิดไว้เป็นค่าเริ่มต้น: ไฟล์ที่ยัง map อยู่ถูก rename ทับไม่ได้จนกว่า GC จะเก็บ buffer (บันทึกไฟล์จะล้ม)
+     */
+    private static final long MMAP_THRESHOLD = Long.getLong("bba.json.mmapThreshold",
+            System.getProperty("os.name", "").startsWith("Windows") ? -1L : 8L << 20);
+
 
     public static <T> List<T> readList(String filePath, Class<T> elementType) {
         try {
@@ -58,10 +72,14 @@ public final class JsonUtil {
                 return List.of();
             }
 
-            try (Reader r = new BufferedReader(new InputStreamReader(new FileInputStream(f), StandardCharsets.UTF_8))) {
-                Type listType = TypeToken.getParameterized(List.class, elementType).getType();
-                List<T> list = GSON.fromJson(r, listType);
-                return list != null ? list : List.of();
+            try {
+                return parseListFile(f, elementType);
+            } catch (JsonParseException corrupt) {
+                // ไฟล์หลักเสีย (เช่นเขียนค้างจากเวอร์ชันเก่า) → ลองกู้จาก .bak ก่อนยอมแพ้
+                File bak = new File(filePath + ".bak");
+                if (!bak.exists() || bak.length() == 0) throw corrupt;
+                System.err.println("ไฟล์ " + filePath + " เสีย ใช้ข้อมูลจาก " + bak.getName() + " แทน: " + corrupt.getMessage());
+                return parseListFile(bak, elementType);
             }
         } catch (Exception e) {
             // ห่อเป็น RuntimeException พร้อมข้อความชัดเจน
@@ -70,22 +88,117 @@ public final class JsonUtil {
     }
 
 
+    private static <T> List<T> parseListFile(File f, Class<T> elementType) throws IOException {
+        try (Reader r = openReader(f)) {
+            Type listType = TypeToken.getParameterized(List.class, elementType).getType();
+            List<T> list = GSON.fromJson(r, listType);
+            return list != null ? list : List.of();
+        }
+    }
+
+
+    /** ไฟล์ใหญ่ → decode จาก memory map ตรง ๆ; ไฟล์เล็ก → stream ปกติ (map มีต้นทุนคงที่สูงกว่า) */
+    private static Reader openReader(File f) throws IOException {
+        if (MMAP_THRESHOLD >= 0 && f.length() >= MMAP_THRESHOLD) return new MappedUtf8Reader(f.toPath());
+        return new BufferedReader(new InputStreamReader(new FileInputStream(f), StandardCharsets.UTF_8));
+    }
+
+    /**
+     * อ่าน JSON array ทีละ element แบบ streaming (ไม่โหลดทั้งไฟล์เป็น String/ลิสต์)
+     * visitor คืน false เพื่อหยุดอ่านทันที (ส่วนที่เหลือของไฟล์ไม่ถูก parse)
+     * ไฟล์เสีย/ขาดกลางคัน/ไม่ใช่ array → JsonSyntaxException (ไม่กู้จาก .bak ให้ เพราะ visitor อาจทำงานไปแล้วบางส่วน)
+     * อ่านไฟล์ไม่ได้ (I/O) → RuntimeException
+     */
+    public static <T> void forEach(String filePath, Class<T> elementType, Predicate<? super T> visitor) {
+        File f = new File(filePath);
+        if (!f.exists() || f.length() == 0) return;
+        try (JsonReader r = GSON.newJsonReader(openReader(f))) {
+            JsonToken top = r.peek();
+            if (top == JsonToken.NULL) return;
+            if (top != JsonToken.BEGIN_ARRAY) throw new JsonSyntaxException("ไฟล์ " + filePath + " ไม่ใช่ JSON array (" + top + ")");
+            r.beginArray();
+            while (r.hasNext()) {
+                T item = GSON.fromJson(r, elementType);
+                if (!visitor.test(item)) return;
+            }
+            r.endArray();
+        } catch (EOFException | MalformedJsonException e) {
+            // ไฟล์ถูกตัดระหว่าง element (เช่น "[{...},") หรือไวยากรณ์ผิด: reader โยน IOException ไม่ใช่ JsonParseException
+            throw new JsonSyntaxException("ไฟล์ JSON เสีย: " + filePath, e);
+        } catch (IOException e) {
+            throw new RuntimeException("Error reading JSON file: " + filePath, e);
+        }
+    }
+
+    /** อ่านเฉพาะ element ที่ตรงเงื่อนไข ครบ limit ตัวแล้วหยุดอ่าน (limit <= 0 = ไม่จำกัด) */
+    public static <T> List<T> readWhere(String filePath, Class<T> elementType, Predicate<? super T> filter, int limit) {
+        List<T> out = new ArrayList<>();
+        forEach(filePath, elementType, item -> {
+            if (item != null && filter.test(item)) out.add(item);
+            return limit <= 0 || out.size() < limit;
+        });
+        return out;
+    }
+
+
+    /** เขียนทั้งไฟล์แบบ atomic (temp → force → rename) ผ่าน DurableFiles */
     public static <T> void writeList(String filePath, List<T> list) {
         try {
-            File f = new File(filePath);
-            File parent = f.getParentFile();
-            if (parent != null && !parent.exists() && !parent.mkdirs()) {
-                throw new IOException("ไม่สามารถสร้างโฟลเดอร์: " + parent.getAbsolutePath());
-            }
-            try (Writer w = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(f), StandardCharsets.UTF_8))) {
-                GSON.toJson(list != null ? list : List.of(), w);
-            }
+            DurableFiles.writeAtomically(Paths.get(filePath), w -> writeArray(w, list != null ? list : List.of()));
         } catch (Exception e) {
             throw new RuntimeException("Error writing JSON file: " + filePath, e);
         }
     }
 
 
+    /** เขียน array ทีละ element ลง Writer ตรง ๆ (ไม่สร้าง String/tree ของทั้งไฟล์) */
+    private static void writeArray(Writer w, List<?> list) throws IOException {
+        JsonWriter out = GSON.newJsonWriter(w);
+        if (PRETTY) out.setIndent("  ");
+        out.beginArray();
+        Class<?> lastType = null;
+        TypeAdapter<Object> adapter = null;
+        for (Object item : list) {
+            if (item == null) {
+                out.nullValue();
+                continue;
+            }
+            if (item.getClass() != lastType) {
+                lastType = item.getClass();
+                adapter = adapterFor(lastType);
+            }
+            adapter.write(out, item);
+        }
+        out.endArray();
+        out.flush(); // ไม่ close: DurableFiles เป็นเจ้าของ Writer
+    }
+
+    @SuppressWarnings("unchecked")
+    private static TypeAdapter<Object> adapterFor(Class<?> type) {
+        return (TypeAdapter<Object>) GSON.getAdapter(type);
+    }
+
+    /** แปลง object เป็น JsonElement ด้วย adapter กลางของระบบ */
+    public static JsonElement toJsonTree(Object value) {
+        return GSON.toJsonTree(value);
+    }
+
+    /** แปลง JsonElement กลับเป็น object ตามชนิดที่ระบุ */
+    public static <T> T fromJsonTree(JsonElement json, Class<T> type) {
+        return GSON.fromJson(json, type);
+    }
+
+    /** JSON บรรทัดเดียว (ไม่มี pretty print/ขึ้นบรรทัดใหม่) */
+    public static String toJsonLine(JsonElement json) {
+        return GSON.toJson(json);
+    }
+
+    /** parse ข้อความ JSON หนึ่งบรรทัด (ข้อมูลเสีย → JsonParseException) */
+    public static JsonElement parseLine(String line) {
+        return JsonParser.parseString(line);
+    }
+
+
     public static void ensureJsonArrayFile(String filePath) {
         try {
             File f = new File(filePath);
@@ -94,7 +207,7 @@ public final class JsonUtil {
                 throw new IOException("ไม่สามารถสร้างโฟลเดอร์: " + parent.getAbsolutePath());
             }
             if (!f.exists()) {
-                Files.writeString(f.toPath(), "[]", StandardCharsets.UTF_8);
+                DurableFiles.writeString(f.toPath(), "[]");
             }
         } catch (Exception e) {
             throw new RuntimeException("เตรียมไฟล์ JSON ไม่สำเร็จ: " + filePath, e);
@@ -0,0 +1,112 @@
+package com.example.big_bike_auto.common;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+
+/**
+ * Reader ที่ decode UTF-8 จากไฟล์ที่ map เข้าหน่วยความจำ (FileChannel.map) ลง char[] ของผู้อ่านโดยตรง
+ * ไม่มี byte[] ของ InputStream/BufferedReader คั่นกลาง → ลดการคัดลอกและขยะเมื่ออ่านไฟล์ใหญ่
+ * map ทีละช่วง (WINDOW) จึงอ่านไฟล์ที่ใหญ่กว่า 2GB ได้; หน้าที่อ่านแล้ว OS คืนหน่วยความจำเองได้
+ */
+final class MappedUtf8Reader extends Reader {
+
+    private static final long WINDOW = 64L << 20; // 64MB ต่อการ map หนึ่งครั้ง
+
+    private final FileChannel channel;
+    private final long size;
+    private final long windowSize;
+    private final CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder()
+            .onMalformedInput(CodingErrorAction.REPORT)
+            .onUnmappableCharacter(CodingErrorAction.REPORT);
+
+    private MappedByteBuffer window;
+    private long windowStart;
+    private boolean flushed;
+    private char pendingLow;     // ครึ่งหลังของ surrogate pair ที่ยังไม่ได้ส่ง (ผู้อ่านขอทีละ 1 char)
+    private boolean hasPending;
+
+    MappedUtf8Reader(Path file) throws IOException {
+        this(file, WINDOW);
+    }
+
+    /** windowSize เล็ก ๆ ใช้ทดสอบกรณีตัวอักษรหลาย byte คร่อมรอยต่อ window */
+    MappedUtf8Reader(Path file, long windowSize) throws IOException {
+        this.windowSize = Math.max(4, windowSize); // ต้องจุดตัวอักษร UTF-8 ที่ยาวที่สุด (4 byte) ได้ ไม่งั้น map ซ้ำที่เดิมไม่จบ
+        this.channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            this.size = channel.size();
+            map(0);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    @Override
+    public int read(char[] cbuf, int off, int len) throws IOException {
+        if (len == 0) return 0;
+        if (hasPending) {
+            cbuf[off] = pendingLow;
+            hasPending = false;
+            return 1;
+        }
+        if (flushed) return -1;
+        CharBuffer out = CharBuffer.wrap(cbuf, off, len);
+        while (out.position() == off) {
+            boolean last = windowStart + window.limit() >= size;
+            CoderResult r = decoder.decode(window, out, last);
+            if (r.isError()) {
+                try {
+                    r.throwException();
+                } catch (CharacterCodingException e) {
+                    throw new IOException("UTF-8 ไม่ถูกต้องที่ตำแหน่ง " + (windowStart + window.position()), e);
+                }
+            }
+            if (r.isUnderflow()) {
+                if (!last) {
+                    // ตัวอักษรคร่อมรอยต่อ window → map ช่วงถัดไปเริ่มจาก byte ที่ยังไม่ได้ decode
+                    map(windowStart + window.position());
+                    continue;
+                }
+                decoder.flush(out);
+                flushed = true;
+                return out.position() == off ? -1 : out.position() - off;
+            }
+            if (r.isOverflow() && out.position() == off) {
+                // ที่ว่างเหลือ 1 char แต่ตัวถัดไปเป็น surrogate pair (เช่น emoji) → decode ลงที่พักแล้วส่งทีละครึ่ง
+                char[] pair = new char[2];
+                int n = read(pair, 0, 2);
+                if (n <= 0) return n;
+                cbuf[off] = pair[0];
+                if (n == 2) {
+                    pendingLow = pair[1];
+                    hasPending = true;
+                }
+                return 1;
+            }
+        }
+        return out.position() - off;
+    }
+
+    @Override
+    public void close() throws IOException {
+        window = null; // unmap เมื่อ GC เก็บ buffer (Java ไม่มี API unmap ทันที)
+        channel.close();
+    }
+
+    private void map(long start) throws IOException {
+        windowStart = start;
+        window = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(windowSize, size - start));
+    }
+}
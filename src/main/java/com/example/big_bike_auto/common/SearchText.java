@@ -0,0 +1,106 @@
+package com.example.big_bike_auto.common;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+
+/**
+ * normalize ข้อความสำหรับค้นหา (ใช้ทั้งตอนสร้าง index และตอนแปลงคำค้น ให้ได้รูปเดียวกัน)
+ * - NFKC + ตัวพิมพ์เล็ก (ตัวอักษรเต็มความกว้าง/ตัวพิมพ์ใหญ่ → รูปปกติ)
+ * - ภาษาไทย: นิคหิต+สระอา (ํา) → สระอำ, เลขไทย → เลขอารบิก, วรรณยุกต์ที่พิมพ์ก่อนสระบน/ล่าง → สลับเป็นลำดับมาตรฐาน,
+ *   ตัดอักขระความกว้างศูนย์ (ZWSP ที่ใช้ตัดคำไทย)
+ * - ขีด/จุด/ทับ/ขีดล่างถูกตัดทิ้ง ("BP-001" = "bp001"), เครื่องหมายอื่นเป็นช่องว่าง, ช่องว่างซ้อนเหลือช่องเดียว
+ *
+ * รูปแบบคำค้น: คั่นด้วย , หรือ | = "หรือ", คำที่คั่นด้วยช่องว่างในกลุ่มเดียวกัน = "และ"
+ * เช่น "ผ้าเบรก หน้า, หัวเทียน" = (ผ้าเบรก และ หน้า) หรือ หัวเทียน
+ */
+public final class SearchText {
+
+    private SearchText() {}
+
+    public static String normalize(String s) {
+        if (s == null || s.isEmpty()) return "";
+        String n = Normalizer.normalize(s, Normalizer.Form.NFKC).toLowerCase(Locale.ROOT);
+        StringBuilder sb = new StringBuilder(n.length());
+        boolean space = true; // ตัดช่องว่างหัวข้อความ
+        for (int i = 0; i < n.length(); i++) {
+            char c = n.charAt(i);
+            if (c == '\u0E4D' && i + 1 < n.length() && n.charAt(i + 1) == '\u0E32') {
+                // NFKC แตกสระอำเป็น ํ + า → ประกอบกลับ (ผู้ใช้พิมพ์ได้ทั้งสองแบบ)
+                c = '\u0E33';
+                i++;
+            } else if (isToneMark(c) && i + 1 < n.length() && isUpperOrLowerVowel(n.charAt(i + 1))) {
+                // พิมพ์วรรณยุกต์ก่อนสระ (เช่น ก + ่ + ี) → เก็บเป็น ก + ี + ่ ให้ตรงกับที่พิมพ์ถูกลำดับ
+                sb.append(n.charAt(i + 1));
+                sb.append(c);
+                space = false;
+                i++;
+                continue;
+            } else if (c >= '\u0E50' && c <= '\u0E59') {
+                c = (char) ('0' + (c - '\u0E50'));
+            }
+
+            if (c == '\u200B' || c == '\u200C' || c == '\u200D' || c == '\uFEFF' || c == '\u00AD'
+                    || c == '-' || c == '.' || c == '/' || c == '_') {
+                continue;
+            }
+            if (Character.isLetterOrDigit(c) || isMark(c)) {
+                sb.append(c);
+                space = false;
+            } else if (!space) {
+                sb.append(' ');
+                space = true;
+            }
+        }
+        int len = sb.length();
+        if (len > 0 && sb.charAt(len - 1) == ' ') sb.setLength(len - 1);
+        return sb.toString();
+    }
+
+    /**
+     * แยกคำค้นเป็นกลุ่ม "หรือ" ของคำ "และ" (normalize แล้ว; ไม่มีกลุ่ม/คำว่าง)
+     * คำค้นว่างหรือมีแต่เครื่องหมาย → list ว่าง
+     */
+    public static List<List<String>> parseQuery(String query) {
+        List<List<String>> groups = new ArrayList<>();
+        if (query == null) return groups;
+        for (String part : query.split("[,|]")) {
+            String n = normalize(part);
+            if (n.isEmpty()) continue;
+            List<String> terms = List.of(n.split(" "));
+            if (!groups.contains(terms)) groups.add(terms);
+        }
+        return groups;
+    }
+
+    /** text (normalize แล้ว) ตรงกับคำค้นที่ parse แล้วหรือไม่: มีกลุ่มใดที่ทุกคำเป็น substring ของ text */
+    public static boolean matches(String text, List<List<String>> groups) {
+        for (List<String> terms : groups) {
+            boolean all = true;
+            for (String t : terms) {
+                if (!text.contains(t)) {
+                    all = false;
+                    break;
+                }
+            }
+            if (all) return true;
+        }
+        return false;
+    }
+
+    private static boolean isToneMark(char c) {
+        return c >= '\u0E48' && c <= '\u0E4B';
+    }
+
+    // ไม้หันอากาศ, สระอิ-อือ, สระอุ-อู, ไม้ไต่คู้
+    private static boolean isUpperOrLowerVowel(char c) {
+        return c == '\u0E31' || (c >= '\u0E34' && c <= '\u0E39') || c == '\u0E47';
+    }
+
+    private static boolean isMark(char c) {
+        int t = Character.getType(c);
+        return t == Character.NON_SPACING_MARK || t == Character.COMBINING_SPACING_MARK;
+    }
+}
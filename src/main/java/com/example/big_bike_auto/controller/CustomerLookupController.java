@@ -1,24 +1,24 @@
 package com.example.big_bike_auto.controller;
 
-import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
-import com.google.gson.reflect.TypeToken;
+import com.example.big_bike_auto.model.Customer;
+import com.example.big_bike_auto.model.Repair;
+import com.example.big_bike_auto.model.RepairPart;
+import com.example.big_bike_auto.repository.CustomerRepository;
+import com.example.big_bike_auto.router.ViewLifecycle;
 import javafx.beans.property.*;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.fxml.FXML;
 import javafx.scene.control.*;
 
-import java.nio.charset.StandardCharsets;
-import java.nio.file.*;
 import java.text.NumberFormat;
 import java.time.LocalDate;
-import java.time.OffsetDateTime;
-import java.time.format.DateTimeParseException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
 import java.util.*;
 
 
-public class CustomerLookupController {
+public class CustomerLookupController implements ViewLifecycle {
 
     // input
     @FXML private TextField tfCode;
@@ -36,9 +36,9 @@ public class CustomerLookupController {
     // total
     @FXML private Label lbGrandTotal;
 
-    private static final Path CUSTOMERS = Paths.get("data", "customers.json");
+    private final CustomerRepository customerRepo = new CustomerRepository();
     private final ObservableList<PartRow> parts = FXCollections.observableArrayList();
-    private final Gson gson = new GsonBuilder().setPrettyPrinting().create();
+    private static final DateTimeFormatter WHEN_FMT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
     private final NumberFormat moneyFmt = NumberFormat.getNumberInstance(new Locale("th","TH"));
 
     @FXML
@@ -59,6 +59,12 @@ public class CustomerLookupController {
         clearUI();
     }
 
+    /** กลับมาที่หน้านี้ (view ถูกเก็บไว้ใช้ซ้ำ) → เริ่มที่ช่องค้นว่างเหมือนเปิดหน้าใหม่ ไม่แสดงผลค้นครั้งก่อนที่อาจเก่าแล้ว */
+    @Override
+    public void onShow() {
+        onClear();
+    }
+
     @FXML
     private void onSearch() {
         String code = tfCode.getText() == null ? "" : tfCode.getText().trim();
@@ -66,7 +72,15 @@ public class CustomerLookupController {
             warn("กรุณากรอกโค้ดลูกค้า", "ใส่รหัส 10 หลัก เช่น CLCXWSI89B");
             return;
         }
-        Map<String, Object> found = findByCustomerCode(code);
+        Customer found;
+        try {
+            found = customerRepo.findByCustomerCode(code).orElse(null);
+        } catch (RuntimeException e) {
+            // อ่านข้อมูลไม่ได้ (เช่นไฟล์เสีย) ≠ ไม่พบ → แจ้งสาเหตุจริง
+            clearUI();
+            error("อ่านข้อมูลลูกค้าไม่สำเร็จ", rootMessage(e));
+            return;
+        }
         if (found == null) {
             clearUI();
             warn("ไม่พบข้อมูล", "ไม่มีรายการที่ customerCode = " + code);
@@ -82,37 +96,6 @@ public class CustomerLookupController {
         tfCode.requestFocus();
     }
 
-    // ----------------- core logic -----------------
-
-    /** อ่าน customers.json แล้วหา record ที่ customerCode ตรง */
-    private Map<String, Object> findByCustomerCode(String code) {
-        List<Map<String, Object>> list = readCustomers();
-        for (Map<String, Object> m : list) {
-            String c = str(m.get("customerCode"));
-            if (!c.isEmpty() && c.equalsIgnoreCase(code)) return m;
-        }
-        return null;
-    }
-
-    private List<Map<String, Object>> readCustomers() {
-        try {
-            ensureArrayFile(CUSTOMERS);
-            String json = Files.readString(CUSTOMERS, StandardCharsets.UTF_8).trim();
-            if (json.isEmpty()) return List.of();
-            var type = new TypeToken<List<Map<String, Object>>>(){}.getType();
-            List<Map<String, Object>> list = gson.fromJson(json, type);
-            return list != null ? list : List.of();
-        } catch (Exception e) {
-            // ไม่ให้ล้มทั้งหน้า
-            return List.of();
-        }
-    }
-
-    private void ensureArrayFile(Path p) throws java.io.IOException {
-        if (p.getParent() != null && !Files.exists(p.getParent())) Files.createDirectories(p.getParent());
-        if (!Files.exists(p)) Files.writeString(p, "[]", StandardCharsets.UTF_8, StandardOpenOption.CREATE);
-    }
-
     // ----------------- UI helpers -----------------
 
     private void clearUI() {
@@ -128,34 +111,27 @@ public class CustomerLookupController {
         lbGrandTotal.setText("0");
     }
 
-    @SuppressWarnings("unchecked")
-    private void fillUI(Map<String, Object> m) {
-        lbCode.setText(str(m.get("customerCode")));
-        lbName.setText(str(m.get("name")));
-        lbPlate.setText(str(m.get("plate")));
-        lbStatus.setText(str(m.get("status")));
-        lbReceived.setText(prettyDate(str(m.get("receivedDate"))));
-        lbBike.setText(str(m.get("bikeModel")));
+    private void fillUI(Customer c) {
+        lbCode.setText(str(c.getCustomerCode()));
+        lbName.setText(str(c.getName()));
+        lbPlate.setText(str(c.getPlate()));
+        lbStatus.setText(str(c.getStatus()));
+        lbReceived.setText(prettyDate(c.getReceivedDate()));
+        lbBike.setText(str(c.getBikeModel()));
 
-        Map<String, Object> repair = (m.get("repair") instanceof Map) ? (Map<String, Object>) m.get("repair") : null;
-        String updated = repair != null ? str(repair.get("lastUpdated")) : "";
-        lbUpdated.setText(prettyDateTime(updated));
+        Repair repair = c.getRepair();
+        lbUpdated.setText(prettyDateTime(repair != null ? repair.getLastUpdated() : null));
 
-        taNotes.setText(repair != null ? str(repair.get("notes")) : "");
+        taNotes.setText(repair != null ? str(repair.getNotes()) : "");
 
         parts.clear();
         double sum = 0;
-        if (repair != null && repair.get("parts") instanceof List<?> list) {
-            for (Object o : list) {
-                if (o instanceof Map<?,?> pm) {
-                    String name = str(pm.get("partName"));
-                    double qty = toDouble(pm.get("quantity"));
-                    String unit = str(pm.get("unit"));
-                    double price = toDouble(pm.get("unitPrice"));
-                    if (!name.isEmpty()) {
-                        parts.add(new PartRow(name, qty, unit, price));
-                        sum += qty * price;
-                    }
+        if (repair != null) {
+            for (RepairPart line : repair.getParts()) {
+                String name = str(line.getPartName());
+                if (!name.isEmpty()) {
+                    parts.add(new PartRow(name, line.getQuantity(), str(line.getUnit()), line.getUnitPrice()));
+                    sum += line.getTotal();
                 }
             }
         }
@@ -164,7 +140,7 @@ public class CustomerLookupController {
 
     // ----------------- utils -----------------
 
-    private String str(Object o) { return o == null ? "" : String.valueOf(o).trim(); }
+    private String str(String s) { return s == null ? "" : s.trim(); }
 
     private String formatMoney(double v) { return moneyFmt.format(v); }
 
@@ -173,36 +149,15 @@ public class CustomerLookupController {
         return formatMoney(v);
     }
 
-    private double toDouble(Object o) {
-        if (o == null) return 0;
-        try { return Double.parseDouble(String.valueOf(o)); } catch (Exception e) { return 0; }
+    /** วันที่ -> dd/MM/yyyy ; ไม่มีค่า -> "-" */
+    private String prettyDate(LocalDate d) {
+        if (d == null) return "-";
+        return String.format("%02d/%02d/%04d", d.getDayOfMonth(), d.getMonthValue(), d.getYear());
     }
 
-    /** yyyy-MM-dd -> dd/MM/yyyy ; ไม่ได้ก็คืนเดิม/ "-" */
-    private String prettyDate(String s) {
-        if (s == null || s.isBlank()) return "-";
-        try {
-            LocalDate d = LocalDate.parse(s);
-            return String.format("%02d/%02d/%04d", d.getDayOfMonth(), d.getMonthValue(), d.getYear());
-        } catch (Exception e) {
-            return s;
-        }
-    }
-
-    /** ISO date-time หรือ yyyy-MM-dd -> รูปแบบอ่านง่าย */
-    private String prettyDateTime(String s) {
-        if (s == null || s.isBlank()) return "-";
-        // กรณีเป็น date อย่างเดียว
-        if (s.length() == 10) return prettyDate(s) + " 00:00:00";
-        try {
-            return OffsetDateTime.parse(s).toLocalDateTime().toString().replace('T',' ').split("\\.")[0];
-        } catch (DateTimeParseException e) {
-            try {
-                return java.time.LocalDateTime.parse(s).toString().replace('T',' ').split("\\.")[0];
-            } catch (DateTimeParseException ex) {
-                return s;
-            }
-        }
+    /** วันเวลา -> yyyy-MM-dd HH:mm:ss (ตัดเศษวินาที) ; ไม่มีค่า -> "-" */
+    private String prettyDateTime(LocalDateTime t) {
+        return t == null ? "-" : WHEN_FMT.format(t);
     }
 
     private void warn(String header, String msg) {
@@ -211,6 +166,20 @@ public class CustomerLookupController {
         a.showAndWait();
     }
 
+    private void error(String header, String msg) {
+        Alert a = new Alert(Alert.AlertType.ERROR, msg, ButtonType.OK);
+        a.setHeaderText(header);
+        a.showAndWait();
+    }
+
+    /** ข้อความของสาเหตุชั้นในสุด (ข้อความชั้นนอกมักเป็นแค่ "Error reading JSON file") */
+    private static String rootMessage(Throwable e) {
+        Throwable t = e;
+        while (t.getCause() != null && t.getCause() != t) t = t.getCause();
+        String msg = t.getMessage() != null ? t.getMessage() : t.getClass().getSimpleName();
+        return e.getMessage() != null && e != t ? e.getMessage() + "\n" + msg : msg;
+    }
+
     // Table model
     public static class PartRow {
         private final StringProperty partName = new SimpleStringProperty();
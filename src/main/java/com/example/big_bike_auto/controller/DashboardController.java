@@ -1,34 +1,46 @@
 package com.example.big_bike_auto.controller;
 
+import com.example.big_bike_auto.common.BackgroundTasks;
+import com.example.big_bike_auto.model.Customer;
+import com.example.big_bike_auto.repository.CustomerRepository;
 import com.example.big_bike_auto.router.RouterHub;
+import com.example.big_bike_auto.router.ViewLifecycle;
+import com.example.big_bike_auto.service.DashboardService;
 import javafx.application.Platform;
 import javafx.beans.property.ReadOnlyStringWrapper;
+import javafx.concurrent.Task;
 import javafx.fxml.FXML;
 import javafx.scene.control.*;
 import javafx.scene.input.MouseButton;
 
-import java.nio.charset.StandardCharsets;
-import java.nio.file.*;
-import java.time.LocalDate;
-import java.time.OffsetDateTime;
-import java.time.format.DateTimeParseException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.concurrent.RejectedExecutionException;
 
-public class DashboardController {
+public class DashboardController implements ViewLifecycle {
 
     @FXML private Label lblTotalRepairs;
     @FXML private Label lblPendingRepairs;
     @FXML private Label lblInventoryItems;
 
-    @FXML private TableView<Map<String, Object>> tblRecent;
-    @FXML private TableColumn<Map<String, Object>, String> colType;
-    @FXML private TableColumn<Map<String, Object>, String> colTitle;
-    @FXML private TableColumn<Map<String, Object>, String> colWhen;
+    @FXML private TableView<Customer> tblRecent;
+    @FXML private TableColumn<Customer, String> colType;
+    @FXML private TableColumn<Customer, String> colTitle;
+    @FXML private TableColumn<Customer, String> colWhen;
 
-    private static final Path CUSTOMERS = Paths.get("data", "customers.json");
-    private static final Path PARTS     = Paths.get("data", "parts.json");
-    private static final Set<String> PENDING = Set.of("RECEIVED", "IN_PROGRESS");
+    private static final DateTimeFormatter WHEN_FMT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    private static final int RECENT_LIMIT = 50;
+
+    private final DashboardService dashboardService = new DashboardService();
+    private final CustomerRepository customerRepo = new CustomerRepository();
+
+    // งานโหลดที่กำลังทำอยู่ (แตะเฉพาะบน FX thread) + มีคำขอ refresh ซ้ำระหว่างโหลดหรือไม่
+    private Task<Loaded> loading;
+    private boolean refreshAgain;
+    private long loadedRevision = -1; // revision ของข้อมูลที่แสดงอยู่ (-1 = ยังไม่เคยโหลด)
+
+    private record Loaded(long revision, List<Customer> recent) {}
 
     @FXML
     public void initialize() {
@@ -41,18 +53,15 @@ public class DashboardController {
         assert colWhen           != null;
 
         setupRecentTable();
-
-        refresh();
-        Platform.runLater(this::refresh);
+        // โหลดข้อมูลใน onShow (Router เรียกทุกครั้งที่หน้านี้ถูกแสดง รวมครั้งแรก)
 
         tblRecent.setRowFactory(tv -> {
-            TableRow<Map<String, Object>> row = new TableRow<>();
+            TableRow<Customer> row = new TableRow<>();
             row.setOnMouseClicked(evt -> {
                 if (!row.isEmpty()
                         && evt.getButton() == MouseButton.PRIMARY
                         && evt.getClickCount() == 2) {
-                    Map<String, Object> data = row.getItem();
-                    String customerId = asStr(data.get("id"));
+                    String customerId = asStr(row.getItem().getId());
                     if (!customerId.isBlank()) {
                         Map<String, Object> params = new HashMap<>();
                         params.put("customerId", customerId);
@@ -69,10 +78,10 @@ public class DashboardController {
     private void setupRecentTable() {
         colType.setCellValueFactory(row -> new ReadOnlyStringWrapper("งานซ่อม"));
         colTitle.setCellValueFactory(row -> {
-            Map<String, Object> m = row.getValue();
-            String name  = asStr(m.get("name"));
-            String plate = asStr(m.get("plate"));
-            String sym   = asStr(m.get("symptom"));
+            Customer c = row.getValue();
+            String name  = asStr(c.getName());
+            String plate = asStr(c.getPlate());
+            String sym   = asStr(c.getSymptom());
             String text = String.format("%s | %s : %s",
                     name.isBlank() ? "-" : name,
                     plate.isBlank() ? "-" : plate,
@@ -83,95 +92,97 @@ public class DashboardController {
         colWhen.setCellValueFactory(row -> new ReadOnlyStringWrapper(pickWhen(row.getValue())));
     }
 
-    private void refresh() {
-        List<Map<String, Object>> customers = readJsonArrayAsMap(CUSTOMERS);
-        int totalRepairs = customers.size();
-        int pendingRepairs = (int) customers.stream()
-                .map(m -> asStr(m.get("status")).toUpperCase(Locale.ROOT))
-                .filter(PENDING::contains)
-                .count();
-        int inventoryItems = readJsonArrayAsMap(PARTS).size();
-
-        lblTotalRepairs.setText(String.valueOf(totalRepairs));
-        lblPendingRepairs.setText(String.valueOf(pendingRepairs));
-        lblInventoryItems.setText(String.valueOf(inventoryItems));
-
-        List<Map<String, Object>> recent = customers.stream()
-                .sorted(Comparator.comparing(this::extractInstantForSort,
-                        Comparator.nullsLast(Comparator.naturalOrder())).reversed())
-                .limit(50)
-                .collect(Collectors.toList());
-        tblRecent.getItems().setAll(recent);
+    @Override
+    public void onShow() {
+        refresh();
     }
 
-    // ------------------- JSON utils -------------------
-    private List<Map<String, Object>> readJsonArrayAsMap(Path file) {
+    /** ออกจากหน้านี้ → ยกเลิกงานโหลดที่ค้างอยู่ (ไม่แสดงผลลงหน้าที่ไม่ได้อยู่บนจอ) */
+    @Override
+    public void onHide() {
+        cancelLoading();
+    }
+
+    /**
+     * โหลดข้อมูลใน background แล้วแสดงทีละส่วน: ตัวเลข KPI ก่อน ตามด้วยรายการล่าสุด
+     * ข้อมูลไม่เปลี่ยนจากที่แสดงอยู่ (revision เท่าเดิม) → ไม่โหลดซ้ำ
+     * เรียกซ้ำระหว่างที่ยังโหลดอยู่ → รวมเป็นการโหลดอีกรอบเดียวหลังรอบปัจจุบันเสร็จ
+     */
+    private void refresh() {
+        if (loading != null) {
+            refreshAgain = true;
+            return;
+        }
+        final long shown = loadedRevision;
+        Task<Loaded> task = new Task<>() {
+            @Override protected Loaded call() {
+                long revision = dashboardService.dataRevision();
+                if (revision == shown) return null;
+                // ตัวเลขจากตัวนับที่อัปเดตตอนบันทึก (ไม่ไล่ทุก record)
+                DashboardService.Summary summary = dashboardService.summary();
+                Platform.runLater(() -> {
+                    if (!isCancelled()) showSummary(summary);
+                });
+                if (isCancelled()) return null;
+                return new Loaded(revision, readRecent());
+            }
+        };
+        task.setOnSucceeded(e -> {
+            Loaded d = task.getValue();
+            if (d != null) {
+                loadedRevision = d.revision();
+                tblRecent.getItems().setAll(d.recent());
+            }
+            loadFinished();
+        });
+        task.setOnFailed(e -> {
+            loadFinished();
+            Throwable ex = task.getException();
+            showWarn("โหลดข้อมูลไม่สำเร็จ", ex == null ? "-" : String.valueOf(ex.getMessage()));
+        });
+        task.setOnCancelled(e -> loadFinished());
+
+        refreshAgain = false;
         try {
-            ensureArrayFile(file);
-            String json = Files.readString(file, StandardCharsets.UTF_8).trim();
-            if (json.isEmpty()) return List.of();
-            com.google.gson.Gson gson = new com.google.gson.Gson();
-            java.lang.reflect.Type type = new com.google.gson.reflect.TypeToken<List<Map<String, Object>>>(){}.getType();
-            List<Map<String, Object>> list = gson.fromJson(json, type);
-            return list != null ? list : List.of();
-        } catch (Exception ex) {
-            return List.of();
+            loading = BackgroundTasks.submitLatest("load-dashboard", task);
+        } catch (RejectedExecutionException ex) {
+            // คิวงานเต็ม: ข้ามรอบนี้ กลับมาที่หน้านี้อีกครั้งก็โหลดใหม่
+            showWarn("โหลดข้อมูลไม่สำเร็จ", ex.getMessage());
         }
     }
 
-    private void ensureArrayFile(Path file) throws java.io.IOException {
-        Path dir = file.getParent();
-        if (dir != null && !Files.exists(dir)) Files.createDirectories(dir);
-        if (!Files.exists(file)) Files.writeString(file, "[]", StandardCharsets.UTF_8, StandardOpenOption.CREATE);
+    private void showSummary(DashboardService.Summary summary) {
+        lblTotalRepairs.setText(String.valueOf(summary.totalRepairs()));
+        lblPendingRepairs.setText(String.valueOf(summary.pendingRepairs()));
+        lblInventoryItems.setText(String.valueOf(summary.inventoryItems()));
     }
 
-    private String asStr(Object o) { return o == null ? "" : String.valueOf(o).trim(); }
-
-    private String pickWhen(Map<String, Object> m) {
-        Object repairObj = m.get("repair");
-        if (repairObj instanceof Map) {
-            String s = asStr(((Map<?, ?>) repairObj).get("lastUpdated"));
-            if (!s.isBlank()) return prettyWhen(s);
-        }
-        String received = asStr(m.get("receivedDate"));
-        return received.isBlank() ? "-" : prettyWhen(received);
+    private void loadFinished() {
+        loading = null;
+        if (refreshAgain) refresh();
     }
 
-    private String extractInstantForSort(Map<String, Object> m) {
-        Object repairObj = m.get("repair");
-        if (repairObj instanceof Map) {
-            String s = asStr(((Map<?, ?>) repairObj).get("lastUpdated"));
-            String k = isoKey(s);
-            if (k != null) return k;
-        }
-        return isoKey(asStr(m.get("receivedDate")));
+    private void cancelLoading() {
+        refreshAgain = false;
+        if (loading != null) loading.cancel();
     }
 
-    private String isoKey(String s) {
-        if (s == null || s.isBlank()) return null;
+    // ------------------- JSON utils -------------------
+    /** งานล่าสุด RECENT_LIMIT รายการจากแคชของ repository (รวมรายการที่ค้างใน journal) */
+    private List<Customer> readRecent() {
         try {
-            if (s.length() == 10) { LocalDate.parse(s); return s + "T00:00:00"; }
-            else { OffsetDateTime.parse(s); return s; }
-        } catch (DateTimeParseException e1) {
-            try { java.time.LocalDateTime.parse(s); return s; }
-            catch (DateTimeParseException e2) { return null; }
+            return customerRepo.findRecent(RECENT_LIMIT);
+        } catch (Exception ex) {
+            return List.of();
         }
     }
 
-    private String prettyWhen(String s) {
-        try {
-            if (s.length() == 10) {
-                LocalDate d = LocalDate.parse(s);
-                return String.format("%04d-%02d-%02d 00:00:00", d.getYear(), d.getMonthValue(), d.getDayOfMonth());
-            } else {
-                try {
-                    java.time.LocalDateTime ldt = OffsetDateTime.parse(s).toLocalDateTime();
-                    return ldt.toString().replace('T', ' ').split("\\.")[0];
-                } catch (DateTimeParseException e) {
-                    return java.time.LocalDateTime.parse(s).toString().replace('T', ' ').split("\\.")[0];
-                }
-            }
-        } catch (Exception ignore) { return s; }
+    private String asStr(String s) { return s == null ? "" : s.trim(); }
+
+    /** repair.lastUpdated หรือวันที่รับรถ เป็น yyyy-MM-dd HH:mm:ss */
+    private String pickWhen(Customer c) {
+        LocalDateTime when = c.getLastActivity();
+        return when == null ? "-" : WHEN_FMT.format(when);
     }
 
     private void showWarn(String title, String msg) {
@@ -1,26 +1,36 @@
 package com.example.big_bike_auto.controller;
 
+import com.example.big_bike_auto.common.BackgroundTasks;
+import com.example.big_bike_auto.common.DataPaths;
+import com.example.big_bike_auto.model.viewmodel.InventoryFilter;
 import com.example.big_bike_auto.model.viewmodel.InventoryRow;
 import com.example.big_bike_auto.router.ReceivesParams;
 import com.example.big_bike_auto.router.Router;
 import com.example.big_bike_auto.router.RouterHub;
+import com.example.big_bike_auto.router.ViewLifecycle;
 import com.example.big_bike_auto.service.InventoryService;
 import com.example.big_bike_auto.service.PartCrudService;
+import javafx.animation.PauseTransition;
 import javafx.beans.binding.Bindings;
+import javafx.beans.property.ReadOnlyIntegerWrapper;
+import javafx.beans.property.ReadOnlyStringWrapper;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
+import javafx.collections.transformation.FilteredList;
+import javafx.collections.transformation.SortedList;
 import javafx.concurrent.Task;
 import javafx.fxml.FXML;
 import javafx.geometry.Insets;
 import javafx.scene.control.*;
 import javafx.scene.layout.GridPane;
+import javafx.util.Duration;
 
 import java.util.*;
-import java.util.function.Predicate;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.stream.Collectors;
 
 
-public class InventoryPageController implements ReceivesParams {
+public class InventoryPageController implements ReceivesParams, ViewLifecycle {
 
     // UI
     @FXML private TextField txtSearch;
@@ -48,51 +58,93 @@ public class InventoryPageController implements ReceivesParams {
 
     // Data
     private final ObservableList<InventoryRow> master = FXCollections.observableArrayList();
-    private final ObservableList<InventoryRow> filtered = FXCollections.observableArrayList();
+    // master → กรอง → เรียงตามความตรงของคำค้น → เรียงตามคอลัมน์ที่กด (ทุกชั้นเป็น view ไม่คัดลอกแถว)
+    private final FilteredList<InventoryRow> filtered = new FilteredList<>(master);
+    private final SortedList<InventoryRow> ranked = new SortedList<>(filtered);
+    private final SortedList<InventoryRow> sorted = new SortedList<>(ranked);
+
+    // Filter: พิมพ์ค้นหารอให้หยุดพิมพ์ก่อน (debounce) แล้วกรองใน background
+    private static final long SEARCH_DEBOUNCE_MS = Long.getLong("bba.ui.searchDebounceMillis", 150L);
+    private final PauseTransition searchDebounce = new PauseTransition(Duration.millis(SEARCH_DEBOUNCE_MS));
+    private long filterSeq; // รอบล่าสุดที่สั่งกรอง (FX thread) กันผลของรอบเก่าทับรอบใหม่
+    private boolean settingFilters; // กำลังตั้งตัวกรองหลายช่องพร้อมกัน → กรองครั้งเดียวตอนจบ
+    private boolean paramsReceived; // navigate ครั้งนี้มี params (onParams ถูกเรียกก่อน onShow)
 
     // Services
     private final InventoryService inventoryService = new InventoryService();
     private final PartCrudService partCrudService = new PartCrudService();
+    private final InventoryFilter filter = new InventoryFilter(inventoryService::searchPartCodes);
     private Router router;
+    private long loadedRevision = -1; // revision ของข้อมูลที่แสดงอยู่ (-1 = ยังไม่เคยโหลด)
 
     @FXML
     private void initialize() {
         router = RouterHub.getRouter();
 
-        // ตั้งค่า columns
-        colCode.setCellValueFactory(c -> c.getValue().partCodeProperty());
-        colName.setCellValueFactory(c -> c.getValue().nameProperty());
-        colSupplier.setCellValueFactory(c -> c.getValue().supplierProperty());
-        colCategory.setCellValueFactory(c -> c.getValue().categoryProperty());
-        colInStock.setCellValueFactory(c -> c.getValue().inStockProperty());
-        colMinStock.setCellValueFactory(c -> c.getValue().minStockProperty());
-        colReserved.setCellValueFactory(c -> c.getValue().reservedProperty());
-        colOnOrder.setCellValueFactory(c -> c.getValue().onOrderProperty());
-        colNeeded.setCellValueFactory(c -> c.getValue().neededProperty());
+        // ตั้งค่า columns (แถวเป็น field ธรรมดา → ห่อเป็น ObservableValue เฉพาะเซลล์ที่ตารางกำลังแสดง)
+        colCode.setCellValueFactory(c -> new ReadOnlyStringWrapper(c.getValue().getPartCode()));
+        colName.setCellValueFactory(c -> new ReadOnlyStringWrapper(c.getValue().getName()));
+        colSupplier.setCellValueFactory(c -> new ReadOnlyStringWrapper(c.getValue().getSupplier()));
+        colCategory.setCellValueFactory(c -> new ReadOnlyStringWrapper(c.getValue().getCategory()));
+        colInStock.setCellValueFactory(c -> new ReadOnlyIntegerWrapper(c.getValue().getInStock()));
+        colMinStock.setCellValueFactory(c -> new ReadOnlyIntegerWrapper(c.getValue().getMinStock()));
+        colReserved.setCellValueFactory(c -> new ReadOnlyIntegerWrapper(c.getValue().getReserved()));
+        colOnOrder.setCellValueFactory(c -> new ReadOnlyIntegerWrapper(c.getValue().getOnOrder()));
+        colNeeded.setCellValueFactory(c -> new ReadOnlyIntegerWrapper(c.getValue().getNeeded()));
 
-        tvInventory.setItems(filtered);
+        tvInventory.setItems(sorted);
+        sorted.comparatorProperty().bind(tvInventory.comparatorProperty());
 
         // ✅ ให้ผู้ใช้เลือกได้หลายแถว (ใช้กับการส่งไป Draft)
         tvInventory.getSelectionModel().setSelectionMode(SelectionMode.MULTIPLE);
 
         // Filter listeners
-        txtSearch.textProperty().addListener((obs, oldV, newV) -> applyFilter());
-        cbSupplier.valueProperty().addListener((obs, o, n) -> applyFilter());
-        cbCategory.valueProperty().addListener((obs, o, n) -> applyFilter());
-        chkOnlyShortage.selectedProperty().addListener((obs, o, n) -> applyFilter());
+        searchDebounce.setOnFinished(e -> applyFilter());
+        txtSearch.textProperty().addListener((obs, oldV, newV) -> searchDebounce.playFromStart());
+        cbSupplier.valueProperty().addListener((obs, o, n) -> { if (!settingFilters) applyFilter(); });
+        cbCategory.valueProperty().addListener((obs, o, n) -> { if (!settingFilters) applyFilter(); });
+        chkOnlyShortage.selectedProperty().addListener((obs, o, n) -> { if (!settingFilters) applyFilter(); });
 
         lblTotalParts.textProperty().bind(Bindings.size(filtered).asString("Parts: %d"));
+        // โหลดข้อมูลครั้งแรกใน onShow (Router เรียกทุกครั้งที่หน้านี้ถูกแสดง)
+    }
 
-        loadDataAsync();
+    /**
+     * แสดงครั้งแรก/กลับมาที่หน้านี้: โหลดใหม่เฉพาะเมื่อข้อมูลเปลี่ยนไปจากที่แสดงอยู่
+     * มาโดยไม่มี params → ล้างตัวกรองที่ค้างจากครั้งก่อน (เหมือนเปิดหน้าใหม่)
+     */
+    @Override
+    public void onShow() {
+        if (!paramsReceived) setFilters(null, null);
+        paramsReceived = false;
+        loadDataAsync(true);
     }
 
+    /** ตัวกรองที่ไม่ได้ส่งมากลับเป็นค่าเริ่มต้น (ไม่ใช้ค่าที่ค้างจากการเปิดครั้งก่อน) */
     @Override
     public void onParams(Map<String, Object> params) {
         if (params == null) return;
+        paramsReceived = true;
         Object supplier = params.get("supplier");
-        if (supplier instanceof String s) cbSupplier.setValue(s);
         Object keyword = params.get("q");
-        if (keyword instanceof String q) txtSearch.setText(q);
+        setFilters(keyword instanceof String q ? q : null, supplier instanceof String s ? s : null);
+    }
+
+    /** ตั้งคำค้น/supplier และล้างตัวกรองอื่น แล้วกรองครั้งเดียว (ไม่มีอะไรเปลี่ยน → ไม่กรองใหม่) */
+    private void setFilters(String keyword, String supplier) {
+        String text = keyword != null ? keyword : "";
+        if (text.equals(txtSearch.getText()) && Objects.equals(supplier, cbSupplier.getValue())
+                && cbCategory.getValue() == null && !chkOnlyShortage.isSelected()) return;
+        settingFilters = true;
+        try {
+            txtSearch.setText(text);
+            cbSupplier.setValue(supplier);
+            cbCategory.setValue(null);
+            chkOnlyShortage.setSelected(false);
+        } finally {
+            settingFilters = false;
+        }
+        applyFilter(); // หยุด debounce ของ txtSearch ด้วย
     }
 
     @FXML
@@ -148,7 +200,7 @@ public class InventoryPageController implements ReceivesParams {
                 loadDataAsync();
             });
             saveTask.setOnFailed(e -> { afterTask(); showError(saveTask.getException()); });
-            new Thread(saveTask, "adjust-stock").start();
+            start(() -> BackgroundTasks.submitWrite(DataPaths.PARTS, "adjust-stock", saveTask));
         } catch (NumberFormatException ex) {
             showError("จำนวนไม่ถูกต้อง");
         }
@@ -157,7 +209,7 @@ public class InventoryPageController implements ReceivesParams {
     @FXML
     private void onExportCsv() {
         try {
-            inventoryService.exportInventoryCsv(new ArrayList<>(filtered));
+            inventoryService.exportInventoryCsv(new ArrayList<>(sorted));
             showInfo("Export CSV สำเร็จ (ดูที่โฟลเดอร์ export/)");
         } catch (Exception e) {
             showError(e);
@@ -189,7 +241,7 @@ public class InventoryPageController implements ReceivesParams {
             afterTask();
             showError(task.getException());
         });
-        new Thread(task, "create-part").start();
+        start(() -> BackgroundTasks.submitWrite(DataPaths.PARTS, "create-part", task));
     }
 
     /** Dialog ฟอร์มเพิ่มสินค้าใหม่ + validate ขั้นต้น */
@@ -267,8 +319,17 @@ public class InventoryPageController implements ReceivesParams {
 
     // ---------- load/filter helpers ----------
     private void loadDataAsync() {
+        loadDataAsync(false);
+    }
+
+    /** onlyIfStale = ข้ามถ้า revision ของข้อมูลยังเท่ากับที่แสดงอยู่ (ตรวจใน background ไม่บล็อก UI) */
+    private void loadDataAsync(boolean onlyIfStale) {
+        final long shown = loadedRevision;
+        final String statusBefore = lblStatus.getText();
         Task<InventoryData> task = new Task<>() {
             @Override protected InventoryData call() {
+                long revision = inventoryService.dataRevision();
+                if (onlyIfStale && revision == shown) return null;
                 var rows = inventoryService.buildInventoryRows();
                 Set<String> suppliers = rows.stream().map(InventoryRow::getSupplier)
                         .filter(x -> x != null && !x.isBlank())
@@ -281,13 +342,16 @@ public class InventoryPageController implements ReceivesParams {
                 int onOrder = rows.stream().mapToInt(InventoryRow::getOnOrder).sum();
                 int inStockSum = rows.stream().mapToInt(InventoryRow::getInStock).sum();
 
-                return new InventoryData(rows, suppliers, categories, shortage, onOrder, inStockSum);
+                return new InventoryData(revision, rows, suppliers, categories, shortage, onOrder, inStockSum);
             }
         };
         beforeTask(task);
         task.setOnSucceeded(e -> {
             afterTask();
             InventoryData d = task.getValue();
+            if (d == null) { lblStatus.setText(statusBefore); return; } // ข้อมูลยังเป็นปัจจุบัน
+            loadedRevision = d.revision();
+            filter.reset();
             master.setAll(d.rows());
             applyFilter();
 
@@ -299,29 +363,36 @@ public class InventoryPageController implements ReceivesParams {
             lblStatus.setText("โหลดข้อมูลสำเร็จ");
         });
         task.setOnFailed(e -> { afterTask(); showError(task.getException()); });
-        new Thread(task, "load-inventory").start();
+        // กดโหลดซ้ำ/ปรับสต็อกติดกัน → ยกเลิกรอบที่ยังไม่เสร็จ เหลือแค่รอบล่าสุด
+        start(() -> BackgroundTasks.submitLatest("load-inventory", task));
     }
 
+    /** ค้นคำใน background แล้วตั้ง predicate/ลำดับให้ list บน FX thread (list ส่ง change event เฉพาะส่วนที่เปลี่ยน) */
     private void applyFilter() {
-        final String kw = Optional.ofNullable(txtSearch.getText()).orElse("").trim().toLowerCase();
-        final String sup = cbSupplier.getValue();
-        final String cat = cbCategory.getValue();
-        final boolean onlyShortage = chkOnlyShortage.isSelected();
-
-        var p = (Predicate<InventoryRow>) r -> {
-            if (!kw.isEmpty()) {
-                String s = (r.getPartCode() + " " + r.getName()).toLowerCase();
-                if (!s.contains(kw)) return false;
+        searchDebounce.stop();
+        final long seq = ++filterSeq;
+        final InventoryFilter.Criteria criteria = new InventoryFilter.Criteria(
+                txtSearch.getText(), cbSupplier.getValue(), cbCategory.getValue(), chkOnlyShortage.isSelected());
+
+        Task<InventoryFilter.Match> task = new Task<>() {
+            @Override protected InventoryFilter.Match call() {
+                return filter.match(criteria);
             }
-            if (sup != null && !sup.isBlank() && !Objects.equals(sup, r.getSupplier())) return false;
-            if (cat != null && !cat.isBlank() && !Objects.equals(cat, r.getCategory())) return false;
-            if (onlyShortage && r.getNeeded() <= 0) return false;
-            return true;
         };
-
-        List<InventoryRow> out = master.stream().filter(p).toList();
-        filtered.setAll(out);
-        lblStatus.setText("แสดง " + out.size() + " รายการ");
+        task.setOnSucceeded(e -> {
+            if (seq != filterSeq) return; // มีรอบใหม่กว่าสั่งไปแล้ว
+            InventoryFilter.Match m = task.getValue();
+            if (filtered.getPredicate() != m.predicate()) {
+                // SortedList ที่มี comparator แทรกแถวที่เพิ่มทีละแถว (ช้ามากตอนล้างตัวกรองกลับเป็นแสนแถว)
+                // → ถอด comparator ก่อนกรองใหม่ แล้วเรียงครั้งเดียวตอนตั้งกลับ
+                ranked.setComparator(null);
+                filtered.setPredicate(m.predicate());
+            }
+            ranked.setComparator(m.rankOrder());
+            lblStatus.setText("แสดง " + filtered.size() + " รายการ");
+        });
+        task.setOnFailed(e -> showError(task.getException()));
+        start(() -> BackgroundTasks.submitLatest("filter-inventory", task));
     }
 
     private void beforeTask(Task<?> t) {
@@ -329,6 +400,15 @@ public class InventoryPageController implements ReceivesParams {
         lblStatus.setText("กำลังทำงาน...");
     }
     private void afterTask() { progress.setVisible(false); }
+    /** ส่งงานเข้าคิวกลาง ({@link BackgroundTasks}); คิวเต็ม → แจ้งผู้ใช้แทนการหมุน progress ค้าง */
+    private void start(Runnable submit) {
+        try {
+            submit.run();
+        } catch (RejectedExecutionException ex) {
+            afterTask();
+            showError(ex.getMessage());
+        }
+    }
     private void showError(Throwable ex) {
         ex.printStackTrace();
         Alert a = new Alert(Alert.AlertType.ERROR, String.valueOf(ex.getMessage()), ButtonType.OK);
@@ -347,6 +427,7 @@ public class InventoryPageController implements ReceivesParams {
     }
 
     private record InventoryData(
+            long revision,
             List<InventoryRow> rows,
             Set<String> suppliers,
             Set<String> categories,
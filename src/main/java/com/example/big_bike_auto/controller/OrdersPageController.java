@@ -1,24 +1,30 @@
 package com.example.big_bike_auto.controller;
 
+import com.example.big_bike_auto.common.BackgroundTasks;
+import com.example.big_bike_auto.common.DataPaths;
 import com.example.big_bike_auto.model.PurchaseOrder;
 import com.example.big_bike_auto.model.viewmodel.OrderRow;
 import com.example.big_bike_auto.model.viewmodel.InventoryRow;
 import com.example.big_bike_auto.router.ReceivesParams;
+import com.example.big_bike_auto.router.ViewLifecycle;
 import com.example.big_bike_auto.service.OrderService;
 import javafx.beans.property.ReadOnlyStringWrapper;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
+import javafx.collections.transformation.FilteredList;
+import javafx.collections.transformation.SortedList;
 import javafx.concurrent.Task;
 import javafx.fxml.FXML;
 import javafx.scene.control.*;
 
 import java.time.LocalDate;
 import java.util.*;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
 
-public class OrdersPageController implements ReceivesParams {
+public class OrdersPageController implements ReceivesParams, ViewLifecycle {
 
     // Backlog tab
     @FXML private TextField txtSearchDraft;
@@ -49,10 +55,13 @@ public class OrdersPageController implements ReceivesParams {
 
     // Data
     private final ObservableList<OrderRow> draftMaster = FXCollections.observableArrayList();
-    private final ObservableList<OrderRow> draftFiltered = FXCollections.observableArrayList();
+    private final FilteredList<OrderRow> draftFiltered = new FilteredList<>(draftMaster);
+    private final SortedList<OrderRow> draftSorted = new SortedList<>(draftFiltered);
     private final ObservableList<PurchaseOrder> poList = FXCollections.observableArrayList();
+    private final SortedList<PurchaseOrder> poSorted = new SortedList<>(poList);
 
     private final OrderService orderService = new OrderService();
+    private long loadedRevision = -1; // revision ของรายการ PO ที่แสดงอยู่ (-1 = ยังไม่เคยโหลด)
 
     @FXML
     private void initialize() {
@@ -72,7 +81,8 @@ public class OrdersPageController implements ReceivesParams {
             r.setOrderQty(val);
         });
 
-        tvDraft.setItems(draftFiltered);
+        tvDraft.setItems(draftSorted);
+        draftSorted.comparatorProperty().bind(tvDraft.comparatorProperty());
 
         // ✅ ให้เลือกได้หลายแถว (รองรับการลบเป็นชุดในอนาคต ฯลฯ)
         tvDraft.getSelectionModel().setSelectionMode(SelectionMode.MULTIPLE);
@@ -105,12 +115,17 @@ public class OrdersPageController implements ReceivesParams {
                 String.format("%.2f", po.getValue().getTotalAmount())
         ));
 
-        tvPOs.setItems(poList);
+        tvPOs.setItems(poSorted);
+        poSorted.comparatorProperty().bind(tvPOs.comparatorProperty());
         cbStatus.getItems().addAll("ALL", "OPEN", "RECEIVED");
         cbStatus.setValue("ALL");
+        // โหลด PO รอบแรกใน onShow (Router เรียกทุกครั้งที่หน้านี้ถูกแสดง)
+    }
 
-        // โหลด PO รอบแรก
-        reloadPOsAsync();
+    /** แสดงครั้งแรก/กลับมาที่หน้านี้: โหลด PO ใหม่เฉพาะเมื่อมี PO เปลี่ยน (Draft ที่ค้างอยู่ยังอยู่ครบ) */
+    @Override
+    public void onShow() {
+        reloadPOsAsync(true);
     }
 
     @Override
@@ -136,7 +151,6 @@ public class OrdersPageController implements ReceivesParams {
     @FXML
     private void onClearDraft() {
         draftMaster.clear();
-        draftFiltered.clear();
         cbSupplierDraft.getSelectionModel().clearSelection();
         txtSearchDraft.clear();
         lblStatus.setText("เคลียร์ Draft แล้ว");
@@ -168,19 +182,17 @@ public class OrdersPageController implements ReceivesParams {
             afterTask();
             // ✅ เคลียร์ Draft บน FX Thread เท่านั้น
             draftMaster.clear();
-            draftFiltered.clear();
             cbSupplierDraft.getItems().clear();
             txtSearchDraft.clear();
 
             lblStatus.setText("สร้าง PO ต่อ supplier จำนวน " + t.getValue() + " ฉบับ");
             reloadPOsAsync();      // โหลดรายการ PO ใหม่
-            applyDraftFilter();    // รีเฟรชมุมมอง Draft
         });
         t.setOnFailed(ev -> {
             afterTask();
             showError(t.getException());
         });
-        new Thread(t, "create-pos").start();
+        start(() -> BackgroundTasks.submitWrite(DataPaths.PURCHASE_ORDERS, "create-pos", t));
     }
 
     // ---- PO actions ----
@@ -202,7 +214,7 @@ public class OrdersPageController implements ReceivesParams {
         beforeTask(t);
         t.setOnSucceeded(e -> { afterTask(); lblStatus.setText("Submit PO เรียบร้อย"); reloadPOsAsync(); });
         t.setOnFailed(e -> { afterTask(); showError(t.getException()); });
-        new Thread(t, "submit-po").start();
+        start(() -> BackgroundTasks.submitWrite(DataPaths.PURCHASE_ORDERS, "submit-po", t));
     }
 
     @FXML
@@ -223,13 +235,13 @@ public class OrdersPageController implements ReceivesParams {
         beforeTask(t);
         t.setOnSucceeded(e -> { afterTask(); lblStatus.setText("รับเข้าเรียบร้อย"); reloadPOsAsync(); });
         t.setOnFailed(e -> { afterTask(); showError(t.getException()); });
-        new Thread(t, "receive-po").start();
+        start(() -> BackgroundTasks.submitWrite(DataPaths.PURCHASE_ORDERS, "receive-po", t));
     }
 
     @FXML
     private void onExportCsv() {
         try {
-            orderService.exportPOsCsv(new ArrayList<>(poList));
+            orderService.exportPOsCsv(new ArrayList<>(poSorted));
             showInfo("Export CSV สำเร็จ (ดูโฟลเดอร์ export/)");
         } catch (Exception e) {
             showError(e);
@@ -238,20 +250,32 @@ public class OrdersPageController implements ReceivesParams {
 
     // ---- PO loading with filter ----
     private void reloadPOsAsync() {
+        reloadPOsAsync(false);
+    }
+
+    /** onlyIfStale = ข้ามถ้า revision ของ PO ยังเท่ากับที่แสดงอยู่ (ตรวจใน background ไม่บล็อก UI) */
+    private void reloadPOsAsync(boolean onlyIfStale) {
+        final long shown = loadedRevision;
+        final String statusBefore = lblStatus.getText();
         final String status = cbStatus.getValue();
         final String supplier = cbSupplierPo.getValue();
         final LocalDate from = dpFrom.getValue();
         final LocalDate to = dpTo.getValue();
 
-        Task<List<PurchaseOrder>> t = new Task<>() {
-            @Override protected List<PurchaseOrder> call() {
-                return orderService.listPOs(status, supplier, from, to);
+        Task<PoData> t = new Task<>() {
+            @Override protected PoData call() {
+                long revision = orderService.dataRevision();
+                if (onlyIfStale && revision == shown) return null;
+                return new PoData(revision, orderService.listPOs(status, supplier, from, to));
             }
         };
         beforeTask(t);
         t.setOnSucceeded(e -> {
             afterTask();
-            poList.setAll(t.getValue());
+            PoData d = t.getValue();
+            if (d == null) { lblStatus.setText(statusBefore); return; } // รายการยังเป็นปัจจุบัน
+            loadedRevision = d.revision();
+            poList.setAll(d.orders());
             // เติม combo supplier จากรายการ
             Set<String> sups = poList.stream().map(PurchaseOrder::getSupplier)
                     .filter(s -> s != null && !s.isBlank())
@@ -260,7 +284,8 @@ public class OrdersPageController implements ReceivesParams {
             lblStatus.setText("โหลด PO: " + poList.size());
         });
         t.setOnFailed(e -> { afterTask(); showError(t.getException()); });
-        new Thread(t, "reload-pos").start();
+        // เปลี่ยน filter/บันทึกติดกัน → ยกเลิกรอบที่ยังไม่เสร็จ เหลือแค่รอบล่าสุด
+        start(() -> BackgroundTasks.submitLatest("reload-pos", t));
     }
 
     // ---- Helpers ----
@@ -286,7 +311,7 @@ public class OrdersPageController implements ReceivesParams {
             if (sup != null && !sup.isBlank() && !Objects.equals(sup, r.getSupplier())) return false;
             return true;
         };
-        draftFiltered.setAll(draftMaster.stream().filter(p).toList());
+        draftFiltered.setPredicate(p);
     }
 
     private void beforeTask(Task<?> t) {
@@ -296,6 +321,15 @@ public class OrdersPageController implements ReceivesParams {
     private void afterTask() {
         progress.setVisible(false);
     }
+    /** ส่งงานเข้าคิวกลาง ({@link BackgroundTasks}); คิวเต็ม → แจ้งผู้ใช้แทนการหมุน progress ค้าง */
+    private void start(Runnable submit) {
+        try {
+            submit.run();
+        } catch (RejectedExecutionException ex) {
+            afterTask();
+            showError(ex);
+        }
+    }
     private void showError(Throwable ex) {
         ex.printStackTrace();
         Alert a = new Alert(Alert.AlertType.ERROR, String.valueOf(ex.getMessage()), ButtonType.OK);
@@ -362,4 +396,6 @@ public class OrdersPageController implements ReceivesParams {
             }
         }
     }
+
+    private record PoData(long revision, List<PurchaseOrder> orders) { }
 }
@@ -1,6 +1,8 @@
 package com.example.big_bike_auto.controller;
 
-import com.example.big_bike_auto.common.JsonUtil;
+import com.example.big_bike_auto.model.Customer;
+import com.example.big_bike_auto.model.Repair;
+import com.example.big_bike_auto.repository.CustomerRepository;
 import javafx.collections.FXCollections;
 import javafx.fxml.FXML;
 import javafx.scene.control.*;
@@ -30,7 +32,7 @@ public class RegisterController {
     @FXML private Button btnSave;
 
     // ===== ค่าคงที่/ตัวช่วย =====
-    private static final String CUSTOMERS_JSON = "data/customers.json";
+    private final CustomerRepository customerRepo = new CustomerRepository();
 
     private static final List<String> STATUSES = List.of(
             "RECEIVED", "IN_PROGRESS", "COMPLETED", "DELIVERED"
@@ -112,33 +114,25 @@ public class RegisterController {
         String err = validateForm(name, phone, plate, province, registeredDate, status, bikeModel);
         if (err != null) { showWarn("ข้อมูลไม่ครบถ้วน", err); return; }
 
-        Map<String, Object> customer = new LinkedHashMap<>();
-        customer.put("id", UUID.randomUUID().toString());
-        customer.put("customerCode", genCustomerCode(CUSTOMER_CODE_LEN));
-        customer.put("name", name);
-        customer.put("phone", phone);
-        customer.put("plate", plate);
-        customer.put("province", province);
-        customer.put("bikeModel", bikeModel);
-        customer.put("receivedDate", registeredDate);
-        customer.put("registeredAt", LocalDateTime.now().toString());
-        customer.put("status", status);
-        customer.put("symptom", symptom);
-
-        Map<String, Object> repair = new LinkedHashMap<>();
-        repair.put("parts", new ArrayList<>());
-        repair.put("grandTotal", 0.0);
-        repair.put("notes", "");
-        repair.put("lastUpdated", LocalDateTime.now().toString());
-        customer.put("repair", repair);
+        LocalDateTime now = LocalDateTime.now();
+        Customer customer = new Customer(UUID.randomUUID().toString(), name, phone, plate, province);
+        customer.setCustomerCode(genCustomerCode(CUSTOMER_CODE_LEN));
+        customer.setBikeModel(bikeModel);
+        customer.setReceivedDate(registeredDate);
+        customer.setRegisteredAt(now);
+        customer.setStatus(status);
+        customer.setSymptom(symptom);
+
+        Repair repair = new Repair();
+        repair.setNotes("");
+        repair.setLastUpdated(now);
+        customer.setRepair(repair);
 
         try {
-            JsonUtil.ensureJsonArrayFile(CUSTOMERS_JSON);
-            java.util.List<Map> list = new ArrayList<>(JsonUtil.readList(CUSTOMERS_JSON, Map.class));
-            list.add(customer);
-            JsonUtil.writeList(CUSTOMERS_JSON, list);
+            // ต่อท้าย journal ไม่ต้องอ่าน/เขียนทั้งไฟล์ (id ชน → ไม่ทับของเดิม)
+            if (!customerRepo.insert(customer)) throw new IllegalStateException("มีลูกค้า id นี้อยู่แล้ว");
 
-            String code = (String) customer.get("customerCode");
+            String code = customer.getCustomerCode();
 
             // ✅ Alert พร้อมปุ่ม "คัดลอกรหัส"
             showSavedWithCopy(code);
@@ -229,13 +223,7 @@ public class RegisterController {
     }
     private boolean isCodeExists(String code) {
         try {
-            JsonUtil.ensureJsonArrayFile(CUSTOMERS_JSON);
-            java.util.List<Map> list = JsonUtil.readList(CUSTOMERS_JSON, Map.class);
-            for (Map m : list) {
-                Object v = m.get("customerCode");
-                if (v != null && code.equalsIgnoreCase(String.valueOf(v))) return true;
-            }
-            return false;
+            return customerRepo.findByCustomerCode(code).isPresent();
         } catch (Exception ex) {
             return false;
         }
@@ -1,6 +1,10 @@
 package com.example.big_bike_auto.controller;
 
+import com.example.big_bike_auto.model.Customer;
+import com.example.big_bike_auto.model.Repair;
+import com.example.big_bike_auto.model.RepairPart;
 import com.example.big_bike_auto.model.RepairStatus;
+import com.example.big_bike_auto.repository.CustomerRepository;
 import com.example.big_bike_auto.router.ReceivesParams;
 import com.example.big_bike_auto.router.RouterHub;
 import javafx.beans.property.*;
@@ -10,10 +14,9 @@ import javafx.fxml.FXML;
 import javafx.scene.control.*;
 import javafx.util.StringConverter;
 
-import java.nio.charset.StandardCharsets;
-import java.nio.file.*;
 import java.text.NumberFormat;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.*;
 import java.util.stream.Collectors;
 
@@ -46,10 +49,9 @@ public class RepairDetailsController implements ReceivesParams {
     @FXML private Label lbGrandTotal;
 
     // ===== data =====
-    private static final Path CUSTOMERS = Paths.get("data", "customers.json");
+    private final CustomerRepository customerRepo = new CustomerRepository();
     private final ObservableList<PartRow> parts = FXCollections.observableArrayList();
-    private Map<String, Object> currentCustomer; // map ของลูกค้าที่กำลังแก้
-    private List<Map<String, Object>> allCustomers; // ทั้งไฟล์
+    private Customer currentCustomer; // สำเนาของลูกค้าที่กำลังแก้
     private String currentId;
 
     private static final List<RepairStatus> STATUSES = List.of(
@@ -130,25 +132,42 @@ public class RepairDetailsController implements ReceivesParams {
 
     @FXML
     private void onSave() {
-        if (currentCustomer == null || allCustomers == null) {
+        if (currentCustomer == null) {
             warn("ไม่พร้อมบันทึก", "ยังไม่พบข้อมูลลูกค้า");
             return;
         }
         // ✅ บันทึกเป็น code (String) ของสถานะ
         RepairStatus st = cbStatus.getValue();
-        setMap(currentCustomer, "status", st == null ? RepairStatus.RECEIVED.code() : st.code());
-
-        Map<String, Object> repair = asMap(currentCustomer.get("repair"));
-        if (repair == null) {
-            repair = new LinkedHashMap<>();
-            currentCustomer.put("repair", repair);
+        String statusCode = st == null ? RepairStatus.RECEIVED.code() : st.code();
+        String notes = taNotes.getText();
+        List<RepairPart> lines = parts.stream().map(PartRow::toRepairPart).collect(Collectors.toList());
+        double grandTotal = parts.stream().mapToDouble(PartRow::getTotal).sum();
+        LocalDateTime lastUpdated = LocalDateTime.now();
+
+        // แก้เฉพาะ record ของลูกค้าคนนี้ใน repository (field อื่นที่ถูกแก้จากหน้าอื่นไม่ถูกทับ)
+        Optional<Customer> saved;
+        try {
+            saved = customerRepo.update(currentId, c -> {
+                c.setStatus(statusCode);
+                Repair repair = c.getRepair();
+                if (repair == null) {
+                    repair = new Repair();
+                    c.setRepair(repair);
+                }
+                repair.setNotes(notes);
+                repair.setParts(new ArrayList<>(lines));
+                repair.setGrandTotal(grandTotal);
+                repair.setLastUpdated(lastUpdated);
+            });
+        } catch (Exception ex) {
+            showError("บันทึกไม่สำเร็จ", ex.getMessage());
+            return;
         }
-        setMap(repair, "notes", taNotes.getText());
-        setMap(repair, "parts", parts.stream().map(PartRow::toMap).collect(Collectors.toList()));
-        setMap(repair, "grandTotal", parts.stream().mapToDouble(PartRow::getTotal).sum());
-        setMap(repair, "lastUpdated", java.time.LocalDateTime.now().toString());
-
-        writeCustomers(allCustomers);
+        if (saved.isEmpty()) {
+            showError("บันทึกไม่สำเร็จ", "ไม่พบลูกค้า/งานซ่อม id=" + currentId + " (อาจถูกลบไปแล้ว)");
+            return;
+        }
+        currentCustomer = saved.get();
         info("บันทึกสำเร็จ", "อัปเดตข้อมูลงานซ่อมแล้ว");
     }
 
@@ -173,7 +192,7 @@ public class RepairDetailsController implements ReceivesParams {
                 .map(String::trim)
                 .filter(s -> !s.isBlank())
                 .distinct()
-                .collect(Collectors.joining(" "));
+                .collect(Collectors.joining(", ")); // "," = หรือ: แสดงอะไหล่ที่ตรงกับชื่อใดชื่อหนึ่ง
         if (q.isBlank()) {
             warn("ไม่มีคำค้น", "กรุณาระบุชื่ออะไหล่อย่างน้อย 1 รายการ");
             return;
@@ -184,13 +203,8 @@ public class RepairDetailsController implements ReceivesParams {
     }
 
     // ===== load/save helpers =====
-    @SuppressWarnings("unchecked")
     private void loadCustomerById(String id) {
-        this.allCustomers = readCustomers();
-        this.currentCustomer = allCustomers.stream()
-                .filter(m -> id.equals(safe(m.get("id"))))
-                .findFirst()
-                .orElse(null);
+        this.currentCustomer = customerRepo.findById(id).orElse(null);
 
         if (currentCustomer == null) {
             showError("ไม่พบข้อมูล", "ไม่พบลูกค้า/งานซ่อม id=" + id);
@@ -198,82 +212,33 @@ public class RepairDetailsController implements ReceivesParams {
         }
 
         // ---- หัวงาน ----
-        lbJobId.setText(safe(currentCustomer.get("id")));
-        lbCustomerName.setText(safe(currentCustomer.getOrDefault("name", "-")));
-        lbBikeModel.setText(safe(currentCustomer.getOrDefault("bikeModel", "-")));
-        String received = safe(currentCustomer.get("receivedDate"));
-        if (!received.isBlank()) {
-            try {
-                LocalDate d = LocalDate.parse(received);
-                lbReceivedDate.setText(String.format("%02d/%02d/%04d", d.getDayOfMonth(), d.getMonthValue(), d.getYear()));
-            } catch (Exception ignore) { lbReceivedDate.setText(received); }
-        } else lbReceivedDate.setText("-");
+        lbJobId.setText(safe(currentCustomer.getId()));
+        lbCustomerName.setText(orDash(currentCustomer.getName()));
+        lbBikeModel.setText(orDash(currentCustomer.getBikeModel()));
+        LocalDate d = currentCustomer.getReceivedDate();
+        lbReceivedDate.setText(d == null ? "-"
+                : String.format("%02d/%02d/%04d", d.getDayOfMonth(), d.getMonthValue(), d.getYear()));
 
         // ---- สถานะ: เก็บเป็น code (String) → แปลงเป็น enum แล้ว select ----
-        String statusCode = safe(currentCustomer.get("status"));
-        RepairStatus statusEnum = RepairStatus.fromCode(statusCode);
-        cbStatus.getSelectionModel().select(statusEnum);
+        cbStatus.getSelectionModel().select(currentCustomer.getRepairStatus());
 
         // ---- repair ----
-        Map<String, Object> repair = asMap(currentCustomer.get("repair"));
-        String notes = repair == null ? "" : safe(repair.get("notes"));
-        taNotes.setText(notes);
+        Repair repair = currentCustomer.getRepair();
+        taNotes.setText(repair == null ? "" : safe(repair.getNotes()));
 
         parts.clear();
-        if (repair != null && repair.get("parts") instanceof List<?> list) {
-            for (Object o : list) {
-                if (o instanceof Map<?,?> m) {
-                    String partName = safe(m.get("partName"));
-                    double quantity  = asDouble(m.get("quantity"));
-                    String unit      = safe(m.get("unit"));
-                    double unitPrice = asDouble(m.get("unitPrice"));
-                    if (!partName.isBlank()) parts.add(new PartRow(partName, quantity, unit, unitPrice));
-                }
+        if (repair != null) {
+            for (RepairPart line : repair.getParts()) {
+                String partName = safe(line.getPartName());
+                if (!partName.isBlank()) parts.add(new PartRow(partName, line.getQuantity(), safe(line.getUnit()), line.getUnitPrice()));
             }
         }
         updateGrandTotalLabel();
     }
 
-    private List<Map<String, Object>> readCustomers() {
-        try {
-            ensureArrayFile(CUSTOMERS);
-            String json = Files.readString(CUSTOMERS, StandardCharsets.UTF_8).trim();
-            if (json.isEmpty()) return new ArrayList<>();
-            com.google.gson.Gson gson = new com.google.gson.Gson();
-            java.lang.reflect.Type type = new com.google.gson.reflect.TypeToken<List<Map<String, Object>>>(){}.getType();
-            List<Map<String, Object>> list = gson.fromJson(json, type);
-            return list != null ? new ArrayList<>(list) : new ArrayList<>();
-        } catch (Exception ex) {
-            return new ArrayList<>();
-        }
-    }
-
-    private void writeCustomers(List<Map<String, Object>> list) {
-        try {
-            ensureArrayFile(CUSTOMERS);
-            com.google.gson.Gson gson = new com.google.gson.GsonBuilder().setPrettyPrinting().create();
-            String json = gson.toJson(list);
-            Files.writeString(CUSTOMERS, json, StandardCharsets.UTF_8,
-                    StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING);
-        } catch (Exception ex) {
-            showError("บันทึกไม่สำเร็จ", ex.getMessage());
-        }
-    }
-
-    private void ensureArrayFile(Path file) throws java.io.IOException {
-        Path dir = file.getParent();
-        if (dir != null && !Files.exists(dir)) Files.createDirectories(dir);
-        if (!Files.exists(file)) Files.writeString(file, "[]", StandardCharsets.UTF_8, StandardOpenOption.CREATE);
-    }
-
     // ===== misc utils =====
     private String safe(Object o) { return o == null ? "" : String.valueOf(o).trim(); }
-    @SuppressWarnings("unchecked")
-    private Map<String, Object> asMap(Object o) { return (o instanceof Map) ? (Map<String, Object>) o : null; }
-
-    private void setMap(Map<String, Object> m, String k, Object v) {
-        if (v == null) m.remove(k); else m.put(k, v);
-    }
+    private String orDash(String s) { return s == null ? "-" : s.trim(); }
 
     private void clearPartInputs() {
         tfPartName.clear(); tfQty.clear(); tfUnit.clear(); tfUnitPrice.clear();
@@ -291,11 +256,6 @@ public class RepairDetailsController implements ReceivesParams {
         }
     }
 
-    private double asDouble(Object o) {
-        if (o == null) return 0;
-        try { return Double.parseDouble(String.valueOf(o)); } catch (Exception e) { return 0; }
-    }
-
     private String formatMoney(double v) {
         NumberFormat f = NumberFormat.getNumberInstance(new Locale("th", "TH"));
         f.setMinimumFractionDigits(0); f.setMaximumFractionDigits(2);
@@ -348,13 +308,8 @@ public class RepairDetailsController implements ReceivesParams {
         public double getUnitPrice() { return unitPrice.get(); }
         public double getTotal() { return getQuantity() * getUnitPrice(); }
 
-        public Map<String, Object> toMap() {
-            Map<String, Object> m = new LinkedHashMap<>();
-            m.put("partName", partName.get());
-            m.put("quantity", getQuantity());
-            m.put("unit", unit.get());
-            m.put("unitPrice", getUnitPrice());
-            return m;
+        public RepairPart toRepairPart() {
+            return new RepairPart(partName.get(), getQuantity(), unit.get(), getUnitPrice());
         }
     }
 }
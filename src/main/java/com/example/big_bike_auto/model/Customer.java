@@ -1,15 +1,33 @@
 package com.example.big_bike_auto.model;
 
+import com.google.gson.JsonObject;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 
+/** ลูกค้า 1 คน = งานซ่อม 1 งาน ตามรูปแบบของ customers.json */
 public class Customer {
     private String id;
+    private String customerCode;      // รหัสที่ให้ลูกค้าไว้ติดตามงาน
     private String name;
     private String phone;
     private String plate;
     private String province;
-    private List<Repair> repairs;
+    private String bikeModel;
+    private LocalDate receivedDate;   // วันที่รับรถ
+    private LocalDateTime registeredAt;
+    private String status;            // code ของ RepairStatus (เก็บตามไฟล์ ไม่แปลงทิ้ง)
+    private String symptom;
+    private Repair repair;            // งานซ่อมปัจจุบัน
+    private List<Repair> repairs;     // ประวัติงานซ่อม
+    private long version;             // เวอร์ชันของ record (storage เพิ่มให้ทุกครั้งที่บันทึก)
+    private JsonObject extras;        // field ในไฟล์ที่ model ไม่รู้จัก (เครื่องมืออื่น/เวอร์ชันอื่น) เขียนกลับตามเดิม
+
+    public Customer() {
+        this.repairs = new ArrayList<>();
+    }
 
     public Customer(String id, String name, String phone, String plate, String province) {
         this.id = id;
@@ -20,14 +38,51 @@ public class Customer {
         this.repairs = new ArrayList<>();
     }
 
+    // --- getters ---
     public String getId() { return id; }
+    public String getCustomerCode() { return customerCode; }
     public String getName() { return name; }
     public String getPhone() { return phone; }
     public String getPlate() { return plate; }
     public String getProvince() { return province; }
+    public String getBikeModel() { return bikeModel; }
+    public LocalDate getReceivedDate() { return receivedDate; }
+    public LocalDateTime getRegisteredAt() { return registeredAt; }
+    public String getStatus() { return status; }
+    public String getSymptom() { return symptom; }
+    public Repair getRepair() { return repair; }
     public List<Repair> getRepairs() { return repairs; }
+    public long getVersion() { return version; }
+    public JsonObject getExtras() { return extras; }
+
+    // --- setters ---
+    public void setId(String id) { this.id = id; }
+    public void setCustomerCode(String customerCode) { this.customerCode = customerCode; }
+    public void setName(String name) { this.name = name; }
+    public void setPhone(String phone) { this.phone = phone; }
+    public void setPlate(String plate) { this.plate = plate; }
+    public void setProvince(String province) { this.province = province; }
+    public void setBikeModel(String bikeModel) { this.bikeModel = bikeModel; }
+    public void setReceivedDate(LocalDate receivedDate) { this.receivedDate = receivedDate; }
+    public void setRegisteredAt(LocalDateTime registeredAt) { this.registeredAt = registeredAt; }
+    public void setStatus(String status) { this.status = status; }
+    public void setSymptom(String symptom) { this.symptom = symptom; }
+    public void setRepair(Repair repair) { this.repair = repair; }
+    public void setVersion(long version) { this.version = version; }
+    public void setExtras(JsonObject extras) { this.extras = extras; }
 
     public void addRepair(Repair repair) {
         this.repairs.add(repair);
     }
+
+    // --- convenience ---
+    public RepairStatus getRepairStatus() {
+        return RepairStatus.fromCode(status);
+    }
+
+    /** เวลาที่งานเคลื่อนไหวล่าสุด: repair.lastUpdated ถ้ามี ไม่งั้นต้นวันรับรถ (null = ไม่มีทั้งคู่) */
+    public LocalDateTime getLastActivity() {
+        if (repair != null && repair.getLastUpdated() != null) return repair.getLastUpdated();
+        return receivedDate == null ? null : receivedDate.atStartOfDay();
+    }
 }
@@ -11,6 +11,7 @@ public class Part {
     private int minStock;      // Min stock
     private BigDecimal lastCost; // ต้นทุนล่าสุด
     private String supplier;   // ผู้ขาย
+    private long version;      // เวอร์ชันของ record (storage เพิ่มให้ทุกครั้งที่บันทึก)
 
     // ✅ no-arg constructor (จำเป็นมาก)
     public Part() {
@@ -39,6 +40,7 @@ public class Part {
     public int getMinStock() { return minStock; }
     public BigDecimal getLastCost() { return lastCost; }
     public String getSupplier() { return supplier; }
+    public long getVersion() { return version; }
 
     // --- setters (ครบทุก field) ---
     public void setSku(String sku) { this.sku = sku; }
@@ -49,6 +51,7 @@ public class Part {
     public void setMinStock(int minStock) { this.minStock = minStock; }
     public void setLastCost(BigDecimal lastCost) { this.lastCost = lastCost; }
     public void setSupplier(String supplier) { this.supplier = supplier; }
+    public void setVersion(long version) { this.version = version; }
 
     // --- convenience ---
     public int getAvailable() {
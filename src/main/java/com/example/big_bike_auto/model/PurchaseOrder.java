@@ -10,6 +10,7 @@ public class PurchaseOrder {
     private LocalDate orderDate;
     private boolean received;
     private List<OrderItem> items = new ArrayList<>();
+    private long version; // เวอร์ชันของ record (storage เพิ่มให้ทุกครั้งที่บันทึก)
 
     public PurchaseOrder(String id, String supplier, LocalDate orderDate) {
         this.id = id;
@@ -24,6 +25,8 @@ public class PurchaseOrder {
     public LocalDate getOrderDate() { return orderDate; }
     public boolean isReceived() { return received; }
     public List<OrderItem> getItems() { return items; }
+    public long getVersion() { return version; }
+    public void setVersion(long version) { this.version = version; }
 
     // --- methods ---
     public void addItem(OrderItem item) {
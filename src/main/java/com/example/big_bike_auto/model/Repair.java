@@ -1,26 +1,48 @@
 package com.example.big_bike_auto.model;
 
-import java.time.LocalDate;
+import com.google.gson.JsonObject;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 
+/** งานซ่อม: ใช้ทั้งงานปัจจุบันของลูกค้า (repair) และประวัติ (repairs) */
 public class Repair {
     private String symptom;
-    private String status; // RECEIVED, IN_PROGRESS, DONE
-    private List<Part> parts;
+    private String status; // code ของ RepairStatus (งานปัจจุบันใช้ status ของ Customer)
+    private String notes;
+    private List<RepairPart> parts;
     private double grandTotal;
-    private LocalDate lastUpdated;
+    private LocalDateTime lastUpdated;
+    private JsonObject extras; // field ในไฟล์ที่ model ไม่รู้จัก เขียนกลับตามเดิม
+
+    public Repair() {
+        this.parts = new ArrayList<>();
+    }
 
-    public Repair(String symptom, String status, List<Part> parts, double grandTotal, LocalDate lastUpdated) {
+    public Repair(String symptom, String status, List<RepairPart> parts, double grandTotal, LocalDateTime lastUpdated) {
         this.symptom = symptom;
         this.status = status;
-        this.parts = parts;
+        this.parts = parts != null ? parts : new ArrayList<>();
         this.grandTotal = grandTotal;
         this.lastUpdated = lastUpdated;
     }
 
+    // --- getters ---
     public String getSymptom() { return symptom; }
     public String getStatus() { return status; }
-    public List<Part> getParts() { return parts; }
+    public String getNotes() { return notes; }
+    public List<RepairPart> getParts() { return parts; }
     public double getGrandTotal() { return grandTotal; }
-    public LocalDate getLastUpdated() { return lastUpdated; }
+    public LocalDateTime getLastUpdated() { return lastUpdated; }
+    public JsonObject getExtras() { return extras; }
+
+    // --- setters ---
+    public void setSymptom(String symptom) { this.symptom = symptom; }
+    public void setStatus(String status) { this.status = status; }
+    public void setNotes(String notes) { this.notes = notes; }
+    public void setParts(List<RepairPart> parts) { this.parts = parts != null ? parts : new ArrayList<>(); }
+    public void setGrandTotal(double grandTotal) { this.grandTotal = grandTotal; }
+    public void setLastUpdated(LocalDateTime lastUpdated) { this.lastUpdated = lastUpdated; }
+    public void setExtras(JsonObject extras) { this.extras = extras; }
 }
@@ -0,0 +1,33 @@
+package com.example.big_bike_auto.model;
+
+import com.google.gson.JsonObject;
+
+/** รายการอะไหล่หนึ่งบรรทัดในงานซ่อม (repair.parts ของ customers.json) */
+public class RepairPart {
+    private String partName;  // ชื่อ/รหัสอะไหล่ตามที่ช่างกรอก
+    private double quantity;  // จำนวน (มีทศนิยมได้ เช่น น้ำมัน 1.5 ลิตร)
+    private String unit;      // หน่วย
+    private double unitPrice; // ราคาต่อหน่วย
+    private JsonObject extras; // field ในไฟล์ที่ model ไม่รู้จัก เขียนกลับตามเดิม
+
+    public RepairPart(String partName, double quantity, String unit, double unitPrice) {
+        this.partName = partName;
+        this.quantity = quantity;
+        this.unit = unit;
+        this.unitPrice = unitPrice;
+    }
+
+    // --- getters ---
+    public String getPartName() { return partName; }
+    public double getQuantity() { return quantity; }
+    public String getUnit() { return unit; }
+    public double getUnitPrice() { return unitPrice; }
+    public JsonObject getExtras() { return extras; }
+
+    public void setExtras(JsonObject extras) { this.extras = extras; }
+
+    // --- helper ---
+    public double getTotal() {
+        return quantity * unitPrice;
+    }
+}
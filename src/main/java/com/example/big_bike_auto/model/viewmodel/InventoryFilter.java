@@ -0,0 +1,90 @@
+package com.example.big_bike_auto.model.viewmodel;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+
+/**
+ * ตัวกรองตาราง inventory (ไม่แตะ UI → เรียกจาก background thread ได้)
+ * ส่วนที่แพง (ค้นคำผ่าน search index) ทำที่นี่ ได้ผลเป็น predicate + ลำดับตามความตรง
+ * ไปตั้งให้ FilteredList/SortedList บน FX thread (อ้างแถวด้วยรหัสอะไหล่ → ใช้ได้กับแถวชุดใหม่หลังโหลดซ้ำ)
+ * เงื่อนไขเดิม → คืน Match ตัวเดิม (ตั้งค่าซ้ำแล้ว list ไม่ต้องกรอง/เรียงใหม่)
+ */
+public final class InventoryFilter {
+
+    private final Function<String, List<String>> search;
+    private Criteria lastCriteria;
+    private Match lastMatch;
+    private Map<String, Integer> lastRank; // รหัสอะไหล่ → อันดับ ของคำค้นล่าสุด (null = ไม่มีคำค้น)
+
+    /** เงื่อนไขการกรอง; ค่าว่าง/null = ไม่กรองช่องนั้น */
+    public record Criteria(String keyword, String supplier, String category, boolean onlyShortage) {
+        public Criteria {
+            keyword = keyword == null ? "" : keyword.trim();
+            supplier = blankToNull(supplier);
+            category = blankToNull(category);
+        }
+
+        boolean test(InventoryRow r) {
+            if (supplier != null && !Objects.equals(supplier, r.getSupplier())) return false;
+            if (category != null && !Objects.equals(category, r.getCategory())) return false;
+            return !onlyShortage || r.getNeeded() > 0;
+        }
+    }
+
+    /**
+     * predicate สำหรับ FilteredList และลำดับตามความตรงของคำค้นสำหรับ SortedList
+     * (rankOrder = null เมื่อไม่มีคำค้น → คงลำดับเดิมของข้อมูล)
+     */
+    public record Match(Predicate<InventoryRow> predicate, Comparator<InventoryRow> rankOrder) {}
+
+    /** search: คำค้น → รหัสอะไหล่ที่ตรง เรียงจากตรงที่สุด (เช่น InventoryService::searchPartCodes) */
+    public InventoryFilter(Function<String, List<String>> search) {
+        this.search = search;
+    }
+
+    /** ข้อมูลอะไหล่เปลี่ยน (โหลดใหม่) → ผลค้นเดิมใช้ไม่ได้ */
+    public synchronized void reset() {
+        lastCriteria = null;
+        lastMatch = null;
+        lastRank = null;
+    }
+
+    public synchronized Match match(Criteria criteria) {
+        if (criteria.equals(lastCriteria)) return lastMatch;
+
+        Comparator<InventoryRow> rankOrder;
+        Map<String, Integer> rank;
+        if (lastCriteria != null && lastCriteria.keyword().equals(criteria.keyword())) {
+            // เปลี่ยนแค่ supplier/หมวด/เฉพาะขาด → ใช้ผลค้นเดิม (ลำดับเป็น instance เดิม: SortedList ไม่เรียงใหม่)
+            rankOrder = lastMatch.rankOrder();
+            rank = lastRank;
+        } else if (criteria.keyword().isEmpty()) {
+            rankOrder = null;
+            rank = null;
+        } else {
+            List<String> codes = search.apply(criteria.keyword());
+            Map<String, Integer> byCode = new HashMap<>(codes.size() * 2);
+            for (int i = 0; i < codes.size(); i++) byCode.putIfAbsent(codes.get(i), i);
+            rank = byCode;
+            rankOrder = Comparator.comparingInt(r -> byCode.getOrDefault(r.getPartCode(), Integer.MAX_VALUE));
+        }
+
+        Predicate<InventoryRow> predicate = rank == null
+                ? criteria::test
+                : r -> rank.containsKey(r.getPartCode()) && criteria.test(r);
+        lastCriteria = criteria;
+        lastRank = rank;
+        lastMatch = new Match(predicate, rankOrder);
+        return lastMatch;
+    }
+
+    private static String blankToNull(String s) {
+        return s == null || s.isBlank() ? null : s;
+    }
+}
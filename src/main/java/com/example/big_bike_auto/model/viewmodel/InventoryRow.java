@@ -1,30 +1,32 @@
 package com.example.big_bike_auto.model.viewmodel;
 
-import javafx.beans.property.*;
-
 
+/**
+ * แถวของตาราง inventory: อ่านอย่างเดียวหลังสร้างใน InventoryService.buildInventoryRows
+ * เก็บเป็น field ธรรมดา (ไม่ใช่ Property) → แถวละ 1 object แทน 10; ตารางสร้าง ReadOnly*Wrapper เองเฉพาะเซลล์ที่แสดงอยู่
+ */
 public class InventoryRow {
-    private final StringProperty partCode = new SimpleStringProperty();
-    private final StringProperty name = new SimpleStringProperty();
-    private final StringProperty supplier = new SimpleStringProperty();
-    private final StringProperty category = new SimpleStringProperty();
-    private final IntegerProperty inStock = new SimpleIntegerProperty();
-    private final IntegerProperty minStock = new SimpleIntegerProperty();
-    private final IntegerProperty reserved = new SimpleIntegerProperty();
-    private final IntegerProperty onOrder = new SimpleIntegerProperty();
-    private final IntegerProperty needed = new SimpleIntegerProperty();
+    private final String partCode;
+    private final String name;
+    private final String supplier;
+    private final String category;
+    private final int inStock;
+    private final int minStock;
+    private final int reserved;
+    private final int onOrder;
+    private final int needed;
 
     public InventoryRow(String code, String name, String supplier, String category,
                         int inStock, int minStock, int reserved, int onOrder, int needed) {
-        this.partCode.set(code);
-        this.name.set(name);
-        this.supplier.set(supplier);
-        this.category.set(category);
-        this.inStock.set(inStock);
-        this.minStock.set(minStock);
-        this.reserved.set(reserved);
-        this.onOrder.set(onOrder);
-        this.needed.set(needed);
+        this.partCode = code;
+        this.name = name;
+        this.supplier = supplier;
+        this.category = category;
+        this.inStock = inStock;
+        this.minStock = minStock;
+        this.reserved = reserved;
+        this.onOrder = onOrder;
+        this.needed = needed;
     }
 
     // แปลงเป็น draft line (โครงสร้างเบื้องต้นสำหรับ Orders page)
@@ -32,32 +34,15 @@ public class InventoryRow {
         return new DraftLine(getSupplier(), getPartCode(), getName(), Math.max(0, getNeeded()));
     }
 
-    public String getPartCode() { return partCode.get(); }
-    public StringProperty partCodeProperty() { return partCode; }
-
-    public String getName() { return name.get(); }
-    public StringProperty nameProperty() { return name; }
-
-    public String getSupplier() { return supplier.get(); }
-    public StringProperty supplierProperty() { return supplier; }
-
-    public String getCategory() { return category.get(); }
-    public StringProperty categoryProperty() { return category; }
-
-    public int getInStock() { return inStock.get(); }
-    public IntegerProperty inStockProperty() { return inStock; }
-
-    public int getMinStock() { return minStock.get(); }
-    public IntegerProperty minStockProperty() { return minStock; }
-
-    public int getReserved() { return reserved.get(); }
-    public IntegerProperty reservedProperty() { return reserved; }
-
-    public int getOnOrder() { return onOrder.get(); }
-    public IntegerProperty onOrderProperty() { return onOrder; }
-
-    public int getNeeded() { return needed.get(); }
-    public IntegerProperty neededProperty() { return needed; }
+    public String getPartCode() { return partCode; }
+    public String getName() { return name; }
+    public String getSupplier() { return supplier; }
+    public String getCategory() { return category; }
+    public int getInStock() { return inStock; }
+    public int getMinStock() { return minStock; }
+    public int getReserved() { return reserved; }
+    public int getOnOrder() { return onOrder; }
+    public int getNeeded() { return needed; }
 
     /** โครงสร้าง draft line ที่ส่งต่อไปหน้า Orders */
     public static final class DraftLine {
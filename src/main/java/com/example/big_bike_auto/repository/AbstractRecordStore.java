@@ -0,0 +1,106 @@
+package com.example.big_bike_auto.repository;
+
+import com.example.big_bike_auto.common.JsonUtil;
+
+import java.util.ArrayList;
+import java.util.ConcurrentModificationException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
+
+
+/** ส่วนที่ backend ทุกแบบใช้ร่วมกัน: key/เวอร์ชัน, optimistic update, listener, กรองตามคอลัมน์ในหน่วยความจำ */
+abstract class AbstractRecordStore<T> implements RecordStore<T> {
+
+    static final int CAS_RETRIES = Math.max(1, Integer.getInteger("bba.storage.casRetries", 8));
+
+    protected final String name;
+    protected final Class<T> elementType;
+    protected final Function<T, String> keyOf;
+    protected final VersionAccess<T> versions;
+    protected final Map<String, IndexedColumn<T>> columns = new HashMap<>();
+    protected final List<RecordListener<T>> listeners = new CopyOnWriteArrayList<>();
+
+    protected AbstractRecordStore(String name, Class<T> elementType, Function<T, String> keyOf,
+                                  VersionAccess<T> versions, List<IndexedColumn<T>> columns) {
+        this.name = name;
+        this.elementType = elementType;
+        this.keyOf = keyOf;
+        this.versions = versions;
+        for (IndexedColumn<T> c : columns) this.columns.put(c.name(), c);
+    }
+
+    /**
+     * อ่านเวอร์ชันล่าสุด → mutator แก้สำเนา (นอก lock) → compare-and-swap
+     * ชนกับผู้เขียนอื่น → อ่านใหม่แล้วทำซ้ำ (mutator จึงต้องเรียกซ้ำได้โดยไม่มีผลข้างเคียง)
+     */
+    @Override
+    public T update(String key, UnaryOperator<T> mutator) {
+        if (key == null) return null;
+        for (int attempt = 0; attempt < CAS_RETRIES; attempt++) {
+            T current = get(key);
+            if (current == null) return null;
+            long version = versionOf(current);
+            T next = mutator.apply(copyOf(current));
+            String nextKey = keyOf.apply(next);
+            if (!key.equals(nextKey)) throw new IllegalArgumentException("ห้ามเปลี่ยน key ของ record: " + key + " → " + nextKey);
+            if (compareAndPut(next, version)) return next;
+        }
+        throw new ConcurrentModificationException("บันทึกไม่สำเร็จ: " + key + " ถูกแก้พร้อมกันจากที่อื่นซ้ำหลายครั้ง (" + name + ")");
+    }
+
+    /** กรองจากแคชในหน่วยความจำ (backend ที่ค้นผ่าน index ได้จะ override) */
+    @Override
+    public List<T> query(Query query) {
+        checkColumns(query);
+        List<T> out = new ArrayList<>();
+        for (T t : findAll()) {
+            if (query.matches(col -> columns.get(col).valueOf(t))) out.add(t);
+        }
+        return out;
+    }
+
+    @Override
+    public long count(Query query) {
+        if (query.conditions().isEmpty()) return findAll().size();
+        return query(query).size();
+    }
+
+    protected void checkColumns(Query query) {
+        for (Query.Condition c : query.conditions()) {
+            if (!columns.containsKey(c.column())) {
+                throw new IllegalArgumentException("ค้นด้วยคอลัมน์ที่ไม่ได้ประกาศไว้: " + c.column() + " (" + name + ")");
+            }
+        }
+    }
+
+    /** listener พังต้องไม่ทำให้การบันทึกที่สำเร็จไปแล้วล้ม (index จะถูกสร้างใหม่ตอนโหลดรอบหน้า) */
+    protected void notifyListeners(Consumer<RecordListener<T>> event) {
+        for (RecordListener<T> l : listeners) {
+            try {
+                event.accept(l);
+            } catch (RuntimeException e) {
+                System.err.println("listener ผิดพลาด: " + l.getClass().getSimpleName() + " (" + e.getMessage() + ")");
+            }
+        }
+    }
+
+    protected String requireKey(T record) {
+        String key = record == null ? null : keyOf.apply(record);
+        if (key == null || key.isBlank()) throw new IllegalArgumentException("record ไม่มี key: " + name);
+        return key;
+    }
+
+    protected long versionOf(T record) {
+        return record == null ? 0 : versions.get(record);
+    }
+
+    /** สำเนาลึกผ่าน JSON tree (ให้ mutator แก้ได้โดยไม่กระทบ record ที่แชร์อยู่ในแคช) */
+    protected T copyOf(T record) {
+        return JsonUtil.fromJsonTree(JsonUtil.toJsonTree(record), elementType);
+    }
+}
@@ -0,0 +1,294 @@
+package com.example.big_bike_auto.repository;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+
+/**
+ * snapshot แบบ binary ที่เขียนคู่กับไฟล์ JSON (<ไฟล์>.bin) เพื่อให้เปิดโปรแกรมครั้งแรกโหลดได้เร็ว
+ * JSON ยังเป็นรูปแบบหลักสำหรับแลกเปลี่ยน/export; ไฟล์นี้เป็นแค่แคชบนดิสก์ ลบทิ้งได้เสมอ
+ *
+ * รูปแบบ: MAGIC, FORMAT, schemaVersion ของ codec, ขนาด+mtime ของ JSON ต้นทาง, จำนวน record,
+ * แต่ละ record = ความยาว (int) + ข้อมูล, ปิดท้ายด้วย MAGIC อีกครั้ง (ไฟล์ถูกตัดกลางทาง → ไม่ใช้)
+ * ตัวเลขเป็น varint, ข้อความที่ซ้ำบ่อย (supplier, หน่วย, ...) เก็บครั้งเดียวแล้วอ้างด้วยลำดับ
+ *
+ * ใช้ได้เฉพาะเมื่อขนาด+mtime ตรงกับไฟล์ JSON ปัจจุบัน (JSON ถูกแก้จากภายนอก → อ่าน JSON แทน)
+ */
+final class BinarySnapshot {
+
+    private static final int MAGIC = 0x42424153; // "BBAS"
+    private static final int FORMAT = 1;
+
+    private BinarySnapshot() {}
+
+    /** path ของ snapshot ที่คู่กับไฟล์ JSON */
+    static Path pathFor(Path json) {
+        return json.resolveSibling(json.getFileName() + ".bin");
+    }
+
+    /**
+     * อ่าน snapshot ถ้ายังตรงกับไฟล์ JSON (sourceSize/sourceModified) แล้วส่งทีละ record ให้ sink
+     * @return false = ไม่มี/เก่า/เสีย/คนละ schema → ผู้เรียกต้องอ่าน JSON เอง (sink อาจได้ record ไปบางส่วนแล้ว)
+     */
+    static <T> boolean read(Path file, SnapshotCodec<T> codec, long sourceSize, long sourceModified, Consumer<T> sink) {
+        ByteBuffer buf;
+        try {
+            buf = ByteBuffer.wrap(Files.readAllBytes(file));
+        } catch (IOException e) {
+            return false; // ไม่มีไฟล์/อ่านไม่ได้ → ใช้ JSON
+        }
+        try {
+            if (buf.getInt() != MAGIC || buf.getInt() != FORMAT || buf.getInt() != codec.schemaVersion()) return false;
+            if (buf.getLong() != sourceSize || buf.getLong() != sourceModified) return false;
+            int count = buf.getInt();
+            In in = new In(buf);
+            for (int i = 0; i < count; i++) {
+                int length = buf.getInt();
+                int end = buf.position() + length;
+                sink.accept(codec.read(in));
+                if (buf.position() != end) return false;
+            }
+            return buf.getInt() == MAGIC && !buf.hasRemaining();
+        } catch (BufferUnderflowException | IllegalArgumentException | IndexOutOfBoundsException | DateTimeException corrupt) {
+            return false;
+        }
+    }
+
+    /** เขียน snapshot ใหม่ (ไฟล์ชั่วคราวแล้ว move ทับ) */
+    static <T> void write(Path file, SnapshotCodec<T> codec, long sourceSize, long sourceModified,
+                          List<T> records) throws IOException {
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp), 1 << 16))) {
+            out.writeInt(MAGIC);
+            out.writeInt(FORMAT);
+            out.writeInt(codec.schemaVersion());
+            out.writeLong(sourceSize);
+            out.writeLong(sourceModified);
+            int count = 0;
+            for (T t : records) if (t != null) count++;
+            out.writeInt(count);
+
+            Out record = new Out();
+            for (T t : records) {
+                if (t == null) continue;
+                record.bytes.reset();
+                codec.write(record, t);
+                out.writeInt(record.bytes.size());
+                record.bytes.writeTo(out);
+            }
+            out.writeInt(MAGIC);
+        }
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException ignored) {
+            // ลบไม่ได้ → ขนาด/mtime ของ JSON ไม่ตรงอยู่แล้ว จึงไม่ถูกใช้
+        }
+    }
+
+    // ---------- encoder / decoder ----------
+
+    /** ตัวเขียน: ข้อความที่เคยเขียนแล้วเก็บเป็นเลขอ้างอิง (ตารางเดียวทั้งไฟล์) */
+    static final class Out {
+        private final Bytes bytes = new Bytes();
+        private final Map<String, Integer> strings = new HashMap<>();
+
+        /** ข้อความที่ค่าไม่ค่อยซ้ำ (รหัส/ชื่อ): เขียนตรง ๆ ไม่เข้าตาราง */
+        void text(String s) {
+            if (s == null) {
+                varint0(0);
+                return;
+            }
+            byte[] utf8 = s.getBytes(StandardCharsets.UTF_8);
+            varint0(utf8.length + 1L);
+            bytes.write(utf8, 0, utf8.length);
+        }
+
+        /** ข้อความที่ค่าซ้ำกันบ่อย: ครั้งแรกเขียนเต็ม ครั้งถัดไปเป็นเลขอ้างอิง */
+        void string(String s) {
+            if (s == null) {
+                varint0(0);
+                return;
+            }
+            Integer ref = strings.get(s);
+            if (ref != null) {
+                varint0(ref + 2);
+                return;
+            }
+            strings.put(s, strings.size());
+            byte[] utf8 = s.getBytes(StandardCharsets.UTF_8);
+            varint0(1);
+            varint0(utf8.length);
+            bytes.write(utf8, 0, utf8.length);
+        }
+
+        /** int แบบ zigzag varint (ค่าติดลบเล็ก ๆ ก็ใช้ไม่กี่ byte) */
+        void varint(int v) {
+            varlong(v);
+        }
+
+        void varlong(long v) {
+            varint0((v << 1) ^ (v >> 63));
+        }
+
+        void bool(boolean b) {
+            bytes.write(b ? 1 : 0);
+        }
+
+        void float64(double d) {
+            long bits = Double.doubleToRawLongBits(d);
+            for (int shift = 56; shift >= 0; shift -= 8) bytes.write((int) (bits >>> shift));
+        }
+
+        /** BigDecimal = unscaled (long) + scale; ค่าที่เกิน long เก็บเป็นข้อความ */
+        void decimal(BigDecimal d) {
+            if (d == null) {
+                bytes.write(0);
+            } else if (d.unscaledValue().bitLength() < 64) {
+                bytes.write(1);
+                varlong(d.unscaledValue().longValue());
+                varint(d.scale());
+            } else {
+                bytes.write(2);
+                text(d.toString());
+            }
+        }
+
+        /** วันที่เป็น epochDay (นำหน้าด้วย flag ว่ามีค่าหรือไม่) */
+        void date(LocalDate d) {
+            bool(d != null);
+            if (d != null) varlong(d.toEpochDay());
+        }
+
+        private void varint0(long v) {
+            while ((v & ~0x7FL) != 0) {
+                bytes.write((int) ((v & 0x7F) | 0x80));
+                v >>>= 7;
+            }
+            bytes.write((int) v);
+        }
+    }
+
+    /** ตัวอ่าน: กลับด้านกับ {@link Out} */
+    static final class In {
+        private final ByteBuffer buf;
+        private final List<String> strings = new ArrayList<>();
+
+        In(ByteBuffer buf) {
+            this.buf = buf;
+        }
+
+        String text() {
+            long tag = varint0();
+            return tag == 0 ? null : utf8((int) (tag - 1));
+        }
+
+        String string() {
+            long tag = varint0();
+            if (tag == 0) return null;
+            if (tag == 1) {
+                String s = utf8((int) varint0());
+                strings.add(s);
+                return s;
+            }
+            return strings.get((int) (tag - 2));
+        }
+
+        int varint() {
+            return (int) varlong();
+        }
+
+        long varlong() {
+            long v = varint0();
+            return (v >>> 1) ^ -(v & 1);
+        }
+
+        boolean bool() {
+            return buf.get() != 0;
+        }
+
+        double float64() {
+            return buf.getDouble();
+        }
+
+        BigDecimal decimal() {
+            return switch (buf.get()) {
+                case 0 -> null;
+                case 1 -> BigDecimal.valueOf(varlong(), varint());
+                case 2 -> new BigDecimal(text()); // NumberFormatException = IllegalArgumentException → ถือว่าไฟล์เสีย
+                default -> throw new IllegalArgumentException("snapshot เสีย: ชนิดตัวเลขไม่ถูกต้อง");
+            };
+        }
+
+        LocalDate date() {
+            return bool() ? LocalDate.ofEpochDay(varlong()) : null;
+        }
+
+        private String utf8(int length) {
+            String s = new String(buf.array(), buf.arrayOffset() + buf.position(), length, StandardCharsets.UTF_8);
+            buf.position(buf.position() + length);
+            return s;
+        }
+
+        private long varint0() {
+            long v = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                byte b = buf.get();
+                v |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) return v;
+            }
+            throw new IllegalArgumentException("snapshot เสีย: varint ยาวเกิน");
+        }
+    }
+
+    /** ByteArrayOutputStream ที่ไม่ synchronized และ writeTo ได้ตรง ๆ */
+    private static final class Bytes extends OutputStream {
+        private byte[] data = new byte[256];
+        private int size;
+
+        @Override
+        public void write(int b) {
+            ensure(1);
+            data[size++] = (byte) b;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            ensure(len);
+            System.arraycopy(b, off, data, size, len);
+            size += len;
+        }
+
+        int size() { return size; }
+
+        void reset() { size = 0; }
+
+        void writeTo(OutputStream out) throws IOException {
+            out.write(data, 0, size);
+        }
+
+        private void ensure(int extra) {
+            if (size + extra > data.length) data = Arrays.copyOf(data, Math.max(data.length * 2, size + extra));
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.example.big_bike_auto.repository;
+
+import com.example.big_bike_auto.model.Customer;
+
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+
+/**
+ * hash index ของลูกค้า: customerCode / เบอร์โทร / ทะเบียนรถ → key ของ record ใน store
+ * (id คือ key ของ store อยู่แล้ว จึงหาได้ตรงโดยไม่ต้องมี index แยก)
+ * ค่าถูก normalize ก่อนเก็บ ทำให้ค้นแบบไม่สนตัวพิมพ์/ช่องว่าง/ขีดได้ใน O(1)
+ */
+final class CustomerIndex implements RecordListener<Customer> {
+
+    private final Map<String, Set<String>> byCode = new HashMap<>();
+    private final Map<String, Set<String>> byPhone = new HashMap<>();
+    private final Map<String, Set<String>> byPlate = new HashMap<>();
+    // ค่าที่ index ไว้ของแต่ละ record (ใช้ถอดออกเมื่อ record ถูกแก้/ลบ)
+    private final Map<String, Entry> entries = new HashMap<>();
+
+    private record Entry(String code, String phone, String plate) {}
+
+    static String normalizeCode(String s) {
+        return s == null ? "" : s.trim().toUpperCase(Locale.ROOT);
+    }
+
+    /** เก็บเฉพาะตัวเลข (081-111-1111 กับ 0811111111 คือเบอร์เดียวกัน) */
+    static String normalizePhone(String s) {
+        if (s == null) return "";
+        StringBuilder sb = new StringBuilder(s.length());
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (Character.isDigit(c)) sb.append(c);
+        }
+        return sb.toString();
+    }
+
+    /** ตัดช่องว่าง/ขีด และไม่สนตัวพิมพ์ ("งง 999" = "งง999") */
+    static String normalizePlate(String s) {
+        if (s == null) return "";
+        StringBuilder sb = new StringBuilder(s.length());
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (!Character.isWhitespace(c) && c != '-') sb.append(c);
+        }
+        return sb.toString().toLowerCase(Locale.ROOT);
+    }
+
+    @Override
+    public synchronized void onPut(String key, Customer customer) {
+        unindex(key);
+        index(key, customer);
+    }
+
+    @Override
+    public synchronized void onRemove(String key) {
+        unindex(key);
+    }
+
+    @Override
+    public synchronized void onReset(Map<String, Customer> all) {
+        byCode.clear();
+        byPhone.clear();
+        byPlate.clear();
+        entries.clear();
+        all.forEach((key, c) -> {
+            if (c != null) index(key, c);
+        });
+    }
+
+    synchronized String keyByCode(String code) {
+        String c = normalizeCode(code);
+        Set<String> keys = c.isEmpty() ? null : byCode.get(c);
+        // customerCode ซ้ำ (ไม่ควรเกิด) → ตัวที่ถูก index ก่อนชนะ
+        return keys == null ? null : keys.iterator().next();
+    }
+
+    synchronized List<String> keysByPhone(String phone) {
+        return List.copyOf(byPhone.getOrDefault(normalizePhone(phone), Set.of()));
+    }
+
+    synchronized List<String> keysByPlate(String plate) {
+        return List.copyOf(byPlate.getOrDefault(normalizePlate(plate), Set.of()));
+    }
+
+    private void index(String key, Customer customer) {
+        if (key == null || key.isEmpty()) return;
+        Entry e = new Entry(
+                normalizeCode(customer.getCustomerCode()),
+                normalizePhone(customer.getPhone()),
+                normalizePlate(customer.getPlate()));
+        entries.put(key, e);
+        if (!e.code().isEmpty()) byCode.computeIfAbsent(e.code(), k -> new LinkedHashSet<>()).add(key);
+        if (!e.phone().isEmpty()) byPhone.computeIfAbsent(e.phone(), k -> new LinkedHashSet<>()).add(key);
+        if (!e.plate().isEmpty()) byPlate.computeIfAbsent(e.plate(), k -> new LinkedHashSet<>()).add(key);
+    }
+
+    private void unindex(String key) {
+        Entry e = entries.remove(key);
+        if (e == null) return;
+        removeFrom(byCode, e.code(), key);
+        removeFrom(byPhone, e.phone(), key);
+        removeFrom(byPlate, e.plate(), key);
+    }
+
+    private static void removeFrom(Map<String, Set<String>> index, String value, String key) {
+        Set<String> keys = index.get(value);
+        if (keys == null) return;
+        keys.remove(key);
+        if (keys.isEmpty()) index.remove(value);
+    }
+}
@@ -1,17 +1,217 @@
 package com.example.big_bike_auto.repository;
 
-import com.example.big_bike_auto.model.Customer;
+import com.example.big_bike_auto.common.DataPaths;
 import com.example.big_bike_auto.common.JsonUtil;
+import com.example.big_bike_auto.model.Customer;
+import com.example.big_bike_auto.model.Repair;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.function.Consumer;
 
+/**
+ * customers.json อ่าน/เขียนเป็น model {@link Customer} ผ่าน TypeAdapter ที่เขียนเอง (ไม่ผ่าน Map/reflection)
+ * ทุกหน้าจอที่อ่าน/เขียนลูกค้าต้องผ่าน repository นี้ เพื่อให้แคช, journal และ index ตรงกันเสมอ
+ */
 public class CustomerRepository {
-    private static final String FILE_PATH = "data/customers.json";
 
+    // แคชกลางของ customers.json / ตาราง customers (ทุก instance ใช้ร่วมกัน)
+    private final RecordStore<Customer> store =
+            RecordStore.open(DataPaths.CUSTOMERS, Customer.class, CustomerRepository::idOf,
+                    VersionAccess.of(Customer::getVersion, Customer::setVersion),
+                    List.of(new IndexedColumn<>("customerCode", c -> upper(c.getCustomerCode())),
+                            new IndexedColumn<>("status", c -> upper(c.getStatus()))));
+    private final ReservationIndex reservations = store.attach(ReservationIndex.class, ReservationIndex::new);
+    private final CustomerIndex index = store.attach(CustomerIndex.class, CustomerIndex::new);
+    // จำนวนงานทั้งหมด/ต่อสถานะ (code ตัวพิมพ์ใหญ่) อัปเดตทุกครั้งที่บันทึก
+    private final RecordCounter<Customer> counts = store.attach(RecordCounter.type(),
+            () -> new RecordCounter<>(CustomerRepository::idOf, c -> upper(c.getStatus())));
+
+    /**
+     * ลูกค้าทั้งหมดแบบ read-only จากแคช
+     * element ถูกแชร์กับผู้เรียกคนอื่น → ห้ามแก้ในที่ ถ้าจะแก้ให้ใช้ update (หรือ findById ที่ได้สำเนา แล้ว save)
+     */
     public List<Customer> findAll() {
-        return JsonUtil.readList(FILE_PATH, Customer.class);
+        return store.findAll();
+    }
+
+    // ---------- ค้นหาผ่าน index (O(1); ได้สำเนาที่แก้ไขได้อิสระ ไม่กระทบแคชจนกว่าจะ save) ----------
+
+    /** ค้นด้วย id (key ของ store) */
+    public Optional<Customer> findById(String id) {
+        if (id == null || id.isBlank()) return Optional.empty();
+        return Optional.ofNullable(store.get(id.trim())).map(CustomerRepository::copyOf);
+    }
+
+    /** ค้นด้วย customerCode (ไม่สนตัวพิมพ์) */
+    public Optional<Customer> findByCustomerCode(String code) {
+        findAll(); // ให้แน่ใจว่าโหลด/รีโหลดแล้ว (index ถูกสร้างใหม่ตอนโหลด)
+        return Optional.ofNullable(index.keyByCode(code)).map(store::get).map(CustomerRepository::copyOf);
+    }
+
+    /** ค้นด้วยเบอร์โทร (เทียบเฉพาะตัวเลข) อาจได้หลายคน */
+    public List<Customer> findByPhone(String phone) {
+        findAll();
+        return copiesOf(index.keysByPhone(phone));
+    }
+
+    /** ค้นด้วยทะเบียนรถ (ไม่สนช่องว่าง/ขีด/ตัวพิมพ์) อาจได้หลายคัน */
+    public List<Customer> findByPlate(String plate) {
+        findAll();
+        return copiesOf(index.keysByPlate(plate));
+    }
+
+    /**
+     * งานที่เคลื่อนไหวล่าสุด limit รายการ เรียงใหม่ → เก่า (read-only เหมือน {@link #findAll()})
+     * ใช้ heap ขนาด limit แทนการ sort ทั้งชุด: O(N log limit) และเวลาถูก parse ไว้แล้วตอนโหลด (ไม่มี exception)
+     * งานที่ไม่มีทั้ง lastUpdated และ receivedDate อยู่ท้ายสุด
+     */
+    public List<Customer> findRecent(int limit) {
+        if (limit <= 0) return List.of();
+        PriorityQueue<Recent> heap = new PriorityQueue<>(limit + 1); // ตัวที่เก่าที่สุดอยู่บนสุด
+        for (Customer c : findAll()) {
+            long at = activityMillis(c);
+            if (heap.size() < limit) {
+                heap.add(new Recent(at, c));
+            } else if (at > heap.peek().at()) {
+                heap.poll();
+                heap.add(new Recent(at, c));
+            }
+        }
+        List<Customer> out = new ArrayList<>(heap.size());
+        while (!heap.isEmpty()) out.add(heap.poll().customer());
+        Collections.reverse(out);
+        return out;
+    }
+
+    // ---------- ตัวนับ (O(1) จากตัวนับที่อัปเดตตอนบันทึก) ----------
+
+    /** จำนวนลูกค้า/งานซ่อมทั้งหมด */
+    public long count() {
+        findAll(); // ให้แน่ใจว่าโหลด/รีโหลดแล้ว (ตัวนับถูกสร้างใหม่ตอนโหลด)
+        return counts.total();
+    }
+
+    /** จำนวนงานตามสถานะ (ไม่สนตัวพิมพ์) */
+    public long countByStatus(Collection<String> statuses) {
+        if (statuses == null || statuses.isEmpty()) return 0;
+        Map<String, Integer> byStatus = countsByStatus();
+        long n = 0;
+        for (String st : new HashSet<>(statuses)) n += byStatus.getOrDefault(upper(st), 0);
+        return n;
+    }
+
+    /** status (ตัวพิมพ์ใหญ่; ไม่มีสถานะ = "") → จำนวนงาน (read-only) */
+    public Map<String, Integer> countsByStatus() {
+        findAll();
+        return counts.byGroup();
+    }
+
+    /** เลขที่เพิ่มขึ้นทุกครั้งที่ข้อมูลเปลี่ยน (รวมไฟล์ถูกแก้จากภายนอก) ใช้ตรวจว่าข้อมูลที่หน้าจอแสดงอยู่เก่าหรือไม่ */
+    public long revision() {
+        findAll();
+        return counts.changes();
+    }
+
+    /**
+     * นับใหม่จากข้อมูลจริงแล้วเทียบกับตัวนับ (เรียกเป็นระยะจาก background)
+     * @return true = ตัวนับเพี้ยนและถูกแก้แล้ว
+     */
+    public boolean reconcileCounts() {
+        long seen = counts.changes();
+        return counts.reconcile(findAll(), seen);
     }
 
+    /** บันทึก/แทนที่ลูกค้าหนึ่งคนตาม id (เขียนลง journal ไม่เขียนทั้งไฟล์; ไม่ตรวจเวอร์ชัน) */
+    public void save(Customer customer) {
+        store.put(customer);
+    }
+
+    /** เพิ่มลูกค้าใหม่ (id นี้มีอยู่แล้ว → false) */
+    public boolean insert(Customer customer) {
+        return store.putIfAbsent(customer);
+    }
+
+    /**
+     * แก้ลูกค้าคนเดียวตาม id: mutator ได้สำเนาของ record ปัจจุบันไปแก้ แล้วบันทึกเฉพาะ record นั้น
+     * ใช้ compare-and-swap ตามเวอร์ชัน: ถ้ามีคนบันทึกแทรก จะอ่านใหม่แล้วเรียก mutator ซ้ำ
+     * @return สำเนาของ record หลังแก้ หรือ empty ถ้าไม่พบ id
+     */
+    public Optional<Customer> update(String id, Consumer<Customer> mutator) {
+        if (id == null || id.isBlank()) return Optional.empty();
+        Customer updated = store.update(id.trim(), copy -> {
+            mutator.accept(copy);
+            return copy;
+        });
+        return Optional.ofNullable(updated).map(CustomerRepository::copyOf);
+    }
+
+    /** ต่อท้ายงานซ่อมในประวัติ (repairs) ของลูกค้าคนเดียว */
+    public boolean addRepair(String customerId, Repair repair) {
+        return update(customerId, c -> c.addRepair(repair)).isPresent();
+    }
+
+    /** เขียนทับทั้งชุด */
     public void saveAll(List<Customer> customers) {
-        JsonUtil.writeList(FILE_PATH, customers);
+        store.saveAll(customers != null ? customers : List.of());
+    }
+
+    /**
+     * ยอดอะไหล่ที่จองไว้กับงานซ่อมที่ยังเปิดอยู่ (read-only)
+     * key = ชื่อ/รหัสอะไหล่ตาม {@link #partKey(String)}
+     */
+    public Map<String, Integer> reservedByPart() {
+        findAll(); // ให้แน่ใจว่าโหลด/รีโหลดแล้ว (index ถูกสร้างใหม่ตอนโหลด)
+        return reservations.snapshot();
+    }
+
+    /** normalize ชื่อ/รหัสอะไหล่ให้ตรงกับ key ของ {@link #reservedByPart()} */
+    public static String partKey(String nameOrSku) {
+        return ReservationIndex.partKey(nameOrSku);
+    }
+
+    // ---------- helpers ----------
+
+    private static String idOf(Customer c) {
+        return c == null || c.getId() == null ? null : c.getId().trim();
+    }
+
+    /** เวลาเคลื่อนไหวล่าสุดเป็น epoch millis (ใช้เรียงเท่านั้น จึงถือเป็น UTC) ไม่มี → Long.MIN_VALUE */
+    private static long activityMillis(Customer c) {
+        LocalDateTime t = c.getLastActivity();
+        return t == null ? Long.MIN_VALUE : t.toInstant(ZoneOffset.UTC).toEpochMilli();
+    }
+
+    private record Recent(long at, Customer customer) implements Comparable<Recent> {
+        @Override
+        public int compareTo(Recent o) {
+            return Long.compare(at, o.at);
+        }
+    }
+
+    private static String upper(String s) {
+        return s == null ? null : s.trim().toUpperCase(Locale.ROOT);
+    }
+
+    private List<Customer> copiesOf(List<String> keys) {
+        List<Customer> out = new ArrayList<>(keys.size());
+        for (String k : keys) {
+            Customer c = store.get(k);
+            if (c != null) out.add(copyOf(c));
+        }
+        return out;
+    }
+
+    private static Customer copyOf(Customer c) {
+        return JsonUtil.fromJsonTree(JsonUtil.toJsonTree(c), Customer.class);
     }
 }
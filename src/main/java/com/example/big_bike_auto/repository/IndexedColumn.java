@@ -0,0 +1,15 @@
+package com.example.big_bike_auto.repository;
+
+import java.util.function.Function;
+
+
+/**
+ * คอลัมน์ค้นหาของ record (เก็บเป็นข้อความ: วันที่ใช้ ISO yyyy-MM-dd เพื่อให้เทียบช่วงได้ถูก)
+ * backend JSON กรองในหน่วยความจำ / backend SQL เก็บเป็นคอลัมน์จริงพร้อม index
+ */
+record IndexedColumn<T>(String name, Function<T, ?> extractor) {
+
+    String valueOf(T record) {
+        return Query.text(record == null ? null : extractor.apply(record));
+    }
+}
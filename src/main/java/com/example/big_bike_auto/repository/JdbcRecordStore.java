@@ -0,0 +1,612 @@
+package com.example.big_bike_auto.repository;
+
+import com.example.big_bike_auto.common.DataPaths;
+import com.example.big_bike_auto.common.JsonUtil;
+import org.h2.jdbcx.JdbcConnectionPool;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+
+
+/**
+ * backend ฐานข้อมูลฝังตัว (H2): หนึ่งชุดข้อมูล = หนึ่งตาราง
+ * - เก็บ record เป็น JSON (คอลัมน์ body) + เวอร์ชัน + คอลัมน์ค้นหาที่มี index จริง (c_<ชื่อคอลัมน์>)
+ * - query/count แปลงเป็น SQL WHERE บนคอลัมน์ที่มี index (ไม่ต้องไล่ทุก record)
+ * - แคช record ในหน่วยความจำ ตรวจความสดด้วยเลข revision ต่อตาราง (bba_meta) ที่เพิ่มทุกครั้งที่เขียน
+ *   → เห็นการเขียนจากเครื่องอื่น (AUTO_SERVER) แล้วโหลดใหม่ + สร้าง index ของ listener ใหม่ให้เอง
+ * - เปิดตารางครั้งแรก → ย้ายข้อมูลจากไฟล์ JSON เดิมเข้ามาครั้งเดียว (รวมรายการใน journal)
+ *
+ * ตั้ง URL เองได้ด้วย -Dbba.storage.jdbcUrl (ค่าเริ่มต้นไฟล์ bba.mv.db ในโฟลเดอร์ข้อมูล)
+ * จำนวน connection ที่เปิดค้างไว้ใช้ซ้ำตั้งด้วย -Dbba.storage.jdbcPoolSize (ค่าเริ่มต้น 4)
+ */
+final class JdbcRecordStore<T> extends AbstractRecordStore<T> {
+
+    private static final String META = "bba_meta";
+    private static final Map<String, JdbcRecordStore<?>> STORES = new ConcurrentHashMap<>();
+    // ทุกตารางอยู่ในฐานข้อมูลเดียวกัน → pool เดียวต่อ URL (ไม่เปิด connection ใหม่ทุกครั้งที่อ่าน/ตรวจ revision)
+    private static final int POOL_SIZE = Math.max(2, Integer.getInteger("bba.storage.jdbcPoolSize", 4));
+    private static final Map<String, JdbcConnectionPool> POOLS = new ConcurrentHashMap<>();
+
+    /** คืน store ของชุดข้อมูลนี้ (สร้างครั้งแรกครั้งเดียวต่อตาราง) */
+    @SuppressWarnings("unchecked")
+    static <T> JdbcRecordStore<T> of(String fileName, Class<T> elementType, Function<T, String> keyOf,
+                                     VersionAccess<T> versions, List<IndexedColumn<T>> columns) {
+        String table = tableName(fileName);
+        JdbcRecordStore<?> store = STORES.computeIfAbsent(table,
+                t -> new JdbcRecordStore<>(fileName, t, elementType, keyOf, versions, columns));
+        if (store.elementType != elementType) {
+            throw new IllegalStateException("ตาราง " + table + " ถูกผูกกับชนิด " + store.elementType.getName() + " แล้ว");
+        }
+        return (JdbcRecordStore<T>) store;
+    }
+
+    static String url() {
+        String custom = System.getProperty("bba.storage.jdbcUrl");
+        if (custom != null && !custom.isBlank()) return custom;
+        // AUTO_SERVER: หลายโปรเซส/หลายเครื่องเปิดไฟล์เดียวกันได้; DB_CLOSE_DELAY=-1: ไม่ปิด DB ทุกครั้งที่คืน connection
+        return "jdbc:h2:file:" + DataPaths.dir().toAbsolutePath().resolve("bba") + ";AUTO_SERVER=TRUE;DB_CLOSE_DELAY=-1";
+    }
+
+    private final String fileName;
+    private final String table;
+    private final List<IndexedColumn<T>> columnList;
+    // เขียนทีละครั้งภายในโปรเซส → ลำดับแจ้ง listener ตรงกับลำดับ commit
+    private final ReentrantLock writeLock = new ReentrantLock();
+
+    // แคช (guarded by this)
+    private LinkedHashMap<String, T> records;
+    private List<T> view;
+    private long seenRevision = -1;
+    private boolean schemaReady;
+
+    private JdbcRecordStore(String fileName, String table, Class<T> elementType, Function<T, String> keyOf,
+                            VersionAccess<T> versions, List<IndexedColumn<T>> columns) {
+        super(table, elementType, keyOf, versions, columns);
+        this.fileName = fileName;
+        this.table = table;
+        this.columnList = List.copyOf(columns);
+    }
+
+    // ---------- อ่าน (ผ่านแคชที่ตรวจ revision แล้ว) ----------
+
+    @Override
+    public synchronized List<T> findAll() {
+        ensureFresh();
+        if (view == null) view = Collections.unmodifiableList(new ArrayList<>(records.values()));
+        return view;
+    }
+
+    @Override
+    public synchronized T get(String key) {
+        if (key == null) return null;
+        ensureFresh();
+        return records.get(key);
+    }
+
+    @Override
+    public <L extends RecordListener<T>> L attach(Class<L> type, Supplier<L> factory) {
+        synchronized (this) {
+            for (RecordListener<T> l : listeners) {
+                if (type.isInstance(l)) return type.cast(l);
+            }
+            L created = factory.get();
+            if (records != null) created.onReset(Collections.unmodifiableMap(records));
+            listeners.add(created);
+            return created;
+        }
+    }
+
+    /** ค้นผ่าน index ของฐานข้อมูล แล้วคืน instance จากแคช (ลำดับเดียวกับ findAll) */
+    @Override
+    public List<T> query(Query query) {
+        checkColumns(query);
+        List<Object> params = new ArrayList<>();
+        String sql = "SELECT rec_key FROM " + q(table) + where(query, params) + " ORDER BY ord";
+        List<String> keys = read(c -> {
+            try (PreparedStatement ps = prepare(c, sql, params); ResultSet rs = ps.executeQuery()) {
+                List<String> out = new ArrayList<>();
+                while (rs.next()) out.add(rs.getString(1));
+                return out;
+            }
+        });
+        synchronized (this) {
+            ensureFresh();
+            List<T> out = new ArrayList<>(keys.size());
+            for (String k : keys) {
+                T t = records.get(k);
+                if (t != null) out.add(t);
+            }
+            return out;
+        }
+    }
+
+    @Override
+    public long count(Query query) {
+        checkColumns(query);
+        List<Object> params = new ArrayList<>();
+        String sql = "SELECT COUNT(*) FROM " + q(table) + where(query, params);
+        return read(c -> {
+            try (PreparedStatement ps = prepare(c, sql, params); ResultSet rs = ps.executeQuery()) {
+                rs.next();
+                return rs.getLong(1);
+            }
+        });
+    }
+
+    // ---------- เขียน (transaction ละครั้ง + เพิ่ม revision ของตาราง) ----------
+
+    @Override
+    public void saveAll(List<T> items) {
+        List<T> snapshot = new ArrayList<>(items != null ? items : List.of());
+        write(c -> {
+            Map<String, Long> current = new HashMap<>();
+            try (PreparedStatement ps = c.prepareStatement("SELECT rec_key, version FROM " + q(table));
+                 ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) current.put(rs.getString(1), rs.getLong(2));
+            }
+            try (PreparedStatement ps = c.prepareStatement("DELETE FROM " + q(table))) {
+                ps.executeUpdate();
+            }
+            LinkedHashMap<String, T> map = keyed(snapshot, table);
+            map.forEach((key, t) -> versions.set(t, current.getOrDefault(key, 0L) + 1));
+            insertAll(c, map);
+            return new Change<>(map, null, null);
+        });
+    }
+
+    @Override
+    public void put(T record) {
+        String key = requireKey(record);
+        write(c -> {
+            Long version = lockVersion(c, key);
+            versions.set(record, (version == null ? 0 : version) + 1);
+            if (version == null) insert(c, key, record);
+            else updateRow(c, key, record, null);
+            return new Change<>(null, key, record);
+        });
+    }
+
+    @Override
+    public boolean putIfAbsent(T record) {
+        String key = requireKey(record);
+        Change<T> change = write(c -> {
+            if (lockVersion(c, key) != null) return null;
+            versions.set(record, 1);
+            try {
+                insert(c, key, record);
+            } catch (SQLException e) {
+                // อีกโปรเซส insert key เดียวกันแทรกเข้ามา
+                if ("23505".equals(e.getSQLState())) return null;
+                throw e;
+            }
+            return new Change<>(null, key, record);
+        });
+        return change != null;
+    }
+
+    @Override
+    public boolean compareAndPut(T record, long expectedVersion) {
+        String key = requireKey(record);
+        long before = versionOf(record);
+        versions.set(record, expectedVersion + 1);
+        Change<T> change = write(c -> updateRow(c, key, record, expectedVersion) ? new Change<>(null, key, record) : null);
+        if (change == null) versions.set(record, before);
+        return change != null;
+    }
+
+    /**
+     * SQL ล็อกแถวได้จริง → อ่าน (FOR UPDATE) / แก้ / เขียนใน transaction เดียว ไม่ต้องวนลองใหม่
+     * mutator ถูกเรียกครั้งเดียวขณะถือ lock ของแถว จึงควรสั้น
+     */
+    @Override
+    public T update(String key, UnaryOperator<T> mutator) {
+        if (key == null) return null;
+        Change<T> change = write(c -> {
+            String body;
+            long version;
+            try (PreparedStatement ps = c.prepareStatement(
+                    "SELECT version, body FROM " + q(table) + " WHERE rec_key = ? FOR UPDATE")) {
+                ps.setString(1, key);
+                try (ResultSet rs = ps.executeQuery()) {
+                    if (!rs.next()) return null;
+                    version = rs.getLong(1);
+                    body = rs.getString(2);
+                }
+            }
+            T next = mutator.apply(parse(body));
+            String nextKey = keyOf.apply(next);
+            if (!key.equals(nextKey)) throw new IllegalArgumentException("ห้ามเปลี่ยน key ของ record: " + key + " → " + nextKey);
+            versions.set(next, version + 1);
+            updateRow(c, key, next, null);
+            return new Change<>(null, key, next);
+        });
+        return change == null ? null : change.record();
+    }
+
+    @Override
+    public void remove(String key) {
+        if (key == null) return;
+        write(c -> {
+            try (PreparedStatement ps = c.prepareStatement("DELETE FROM " + q(table) + " WHERE rec_key = ?")) {
+                ps.setString(1, key);
+                return ps.executeUpdate() == 0 ? null : new Change<T>(null, key, null);
+            }
+        });
+    }
+
+    // ---------- internals ----------
+
+    /** ผลของการเขียนหนึ่งครั้ง: ทั้งชุด (all) หรือ record เดียว (key + record; record null = ลบ) */
+    private record Change<T>(LinkedHashMap<String, T> all, String key, T record) {}
+
+    @FunctionalInterface
+    private interface SqlWork<R> {
+        R run(Connection c) throws SQLException;
+    }
+
+    private <R> R read(SqlWork<R> work) {
+        ensureSchema();
+        try (Connection c = connect()) {
+            return work.run(c);
+        } catch (SQLException e) {
+            throw new RuntimeException("Error reading table: " + table, e);
+        }
+    }
+
+    /**
+     * เขียนใน transaction เดียว: ทำงาน → เพิ่ม revision → commit แล้วอัปเดตแคช/แจ้ง listener
+     * work คืน null = ไม่มีอะไรเปลี่ยน (rollback)
+     */
+    private Change<T> write(SqlWork<Change<T>> work) {
+        ensureSchema();
+        writeLock.lock();
+        try {
+            Change<T> change;
+            long revision;
+            try (Connection c = connect()) {
+                c.setAutoCommit(false);
+                try {
+                    change = work.run(c);
+                    if (change == null) {
+                        c.rollback();
+                        return null;
+                    }
+                    revision = bumpRevision(c);
+                    c.commit();
+                } catch (SQLException | RuntimeException e) {
+                    c.rollback();
+                    throw e;
+                }
+            } catch (SQLException e) {
+                throw new RuntimeException("Error writing table: " + table, e);
+            }
+            applyToCache(change, revision);
+            return change;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private synchronized void applyToCache(Change<T> change, long revision) {
+        if (records == null || revision != seenRevision + 1) {
+            // มีคนอื่นเขียนแทรก (หรือยังไม่เคยโหลด) → โหลดใหม่ทั้งชุดตอนอ่านครั้งถัดไป
+            records = null;
+            view = null;
+            return;
+        }
+        seenRevision = revision;
+        view = null;
+        if (change.all() != null) {
+            records = change.all();
+            Map<String, T> all = records;
+            notifyListeners(l -> l.onReset(Collections.unmodifiableMap(all)));
+        } else if (change.record() != null) {
+            records.put(change.key(), change.record());
+            notifyListeners(l -> l.onPut(change.key(), change.record()));
+        } else {
+            records.remove(change.key());
+            notifyListeners(l -> l.onRemove(change.key()));
+        }
+    }
+
+    /** ตรวจ revision ของตาราง (query PK เดียว) → เปลี่ยน → โหลดทั้งชุดใหม่ (เรียกภายใต้ this) */
+    private void ensureFresh() {
+        ensureSchema();
+        try (Connection c = connect()) {
+            long revision = revision(c);
+            if (records != null && revision == seenRevision) return;
+
+            LinkedHashMap<String, T> map = new LinkedHashMap<>();
+            try (PreparedStatement ps = c.prepareStatement("SELECT rec_key, body FROM " + q(table) + " ORDER BY ord");
+                 ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) map.put(rs.getString(1), parse(rs.getString(2)));
+            }
+            records = map;
+            view = null;
+            seenRevision = revision;
+        } catch (SQLException e) {
+            throw new RuntimeException("Error loading table: " + table, e);
+        }
+        Map<String, T> all = records;
+        notifyListeners(l -> l.onReset(Collections.unmodifiableMap(all)));
+    }
+
+    /** สร้างตาราง/คอลัมน์/index ถ้ายังไม่มี และย้ายข้อมูลจาก JSON ครั้งแรก */
+    private synchronized void ensureSchema() {
+        if (schemaReady) return;
+        try (Connection c = connect()) {
+            c.setAutoCommit(false);
+            try (var st = c.createStatement()) {
+                st.execute("CREATE TABLE IF NOT EXISTS " + META
+                        + " (table_name VARCHAR(128) PRIMARY KEY, revision BIGINT NOT NULL)");
+                st.execute("CREATE TABLE IF NOT EXISTS " + q(table) + " ("
+                        + "ord BIGINT GENERATED BY DEFAULT AS IDENTITY, "
+                        + "rec_key VARCHAR(255) PRIMARY KEY, "
+                        + "version BIGINT NOT NULL, "
+                        + "body CLOB NOT NULL)");
+                st.execute("CREATE INDEX IF NOT EXISTS " + q("idx_" + table + "_ord") + " ON " + q(table) + "(ord)");
+            }
+
+            // คอลัมน์ค้นหาที่เพิ่มทีหลัง → เติมค่าให้ record เดิม
+            Set<String> existing = existingColumns(c);
+            boolean backfill = false;
+            try (var st = c.createStatement()) {
+                for (IndexedColumn<T> col : columnList) {
+                    String name = col(col);
+                    if (!existing.contains(name.toUpperCase(Locale.ROOT))) {
+                        st.execute("ALTER TABLE " + q(table) + " ADD COLUMN " + q(name) + " VARCHAR");
+                        backfill = true;
+                    }
+                    st.execute("CREATE INDEX IF NOT EXISTS " + q("idx_" + table + "_" + col.name())
+                            + " ON " + q(table) + "(" + q(name) + ")");
+                }
+            }
+
+            if (registerTable(c)) {
+                migrateFromJson(c);
+            } else if (backfill) {
+                backfillColumns(c);
+            }
+            c.commit();
+            schemaReady = true;
+        } catch (SQLException e) {
+            throw new RuntimeException("เตรียมตารางฐานข้อมูลไม่สำเร็จ: " + table, e);
+        }
+    }
+
+    /** เพิ่มแถวของตารางนี้ใน bba_meta; true = เพิ่งเปิดตารางนี้ครั้งแรก */
+    private boolean registerTable(Connection c) throws SQLException {
+        try (PreparedStatement ps = c.prepareStatement("SELECT 1 FROM " + META + " WHERE table_name = ? FOR UPDATE")) {
+            ps.setString(1, table);
+            try (ResultSet rs = ps.executeQuery()) {
+                if (rs.next()) return false;
+            }
+        }
+        try (PreparedStatement ps = c.prepareStatement("INSERT INTO " + META + " (table_name, revision) VALUES (?, 0)")) {
+            ps.setString(1, table);
+            ps.executeUpdate();
+        }
+        return true;
+    }
+
+    /**
+     * ย้ายข้อมูลครั้งเดียว: อ่านไฟล์ JSON (กู้จาก .bak ได้) + replay journal แบบอ่านอย่างเดียว แล้ว insert ตามลำดับเดิม
+     * ไม่เปิด JsonFileStore: ไม่ถือ file lock และไม่ลง shutdown hook ที่จะ compact ไฟล์ที่ backend JSON เป็นเจ้าของ
+     */
+    private void migrateFromJson(Connection c) throws SQLException {
+        Path file = DataPaths.file(fileName);
+        if (!Files.exists(file)) return;
+        LinkedHashMap<String, T> map = keyed(JsonUtil.readList(file.toString(), elementType), fileName);
+        try {
+            new RecordJournal<>(RecordJournal.pathFor(file), elementType).replay(map, false);
+        } catch (IOException e) {
+            throw new RuntimeException("Error replaying journal: " + RecordJournal.pathFor(file), e);
+        }
+        map.values().removeIf(Objects::isNull);
+        insertAll(c, map);
+        if (!map.isEmpty()) {
+            System.err.println("ย้ายข้อมูล " + map.size() + " รายการจาก " + fileName + " เข้าตาราง " + table + " แล้ว");
+        }
+    }
+
+    /**
+     * key ของแต่ละ record ตามกติกาเดียวกับ JsonFileStore: ไม่มี id/id ซ้ำ → key ภายใน ("\0" + ลำดับ)
+     * เก็บไว้ทุกแถว (สลับ backend แล้วข้อมูลต้องไม่หาย); null ถูกข้าม (ตารางเก็บ null ไม่ได้)
+     */
+    private LinkedHashMap<String, T> keyed(List<T> items, String source) {
+        LinkedHashMap<String, T> map = new LinkedHashMap<>();
+        int seq = 0;
+        for (T t : items) {
+            if (t == null) continue;
+            String key = keyOf.apply(t);
+            if (key == null || key.isBlank()) {
+                key = "\u0000" + (seq++);
+            } else if (map.containsKey(key)) {
+                System.err.println("พบ id ซ้ำ \"" + key + "\" ใน " + source + " เก็บไว้ทั้งสองรายการ (รายการหลังอ้างด้วย key ภายใน)");
+                key = "\u0000" + (seq++);
+            }
+            map.put(key, t);
+        }
+        return map;
+    }
+
+    private void backfillColumns(Connection c) throws SQLException {
+        StringBuilder set = new StringBuilder();
+        for (IndexedColumn<T> col : columnList) {
+            if (!set.isEmpty()) set.append(", ");
+            set.append(q(col(col))).append(" = ?");
+        }
+        Map<String, T> all = new LinkedHashMap<>();
+        try (PreparedStatement ps = c.prepareStatement("SELECT rec_key, body FROM " + q(table));
+             ResultSet rs = ps.executeQuery()) {
+            while (rs.next()) all.put(rs.getString(1), parse(rs.getString(2)));
+        }
+        try (PreparedStatement ps = c.prepareStatement("UPDATE " + q(table) + " SET " + set + " WHERE rec_key = ?")) {
+            for (Map.Entry<String, T> e : all.entrySet()) {
+                int i = 1;
+                for (IndexedColumn<T> col : columnList) ps.setString(i++, col.valueOf(e.getValue()));
+                ps.setString(i, e.getKey());
+                ps.addBatch();
+            }
+            ps.executeBatch();
+        }
+    }
+
+    private Set<String> existingColumns(Connection c) throws SQLException {
+        Set<String> out = new HashSet<>();
+        try (ResultSet rs = c.getMetaData().getColumns(null, null, table, null)) {
+            while (rs.next()) out.add(rs.getString("COLUMN_NAME").toUpperCase(Locale.ROOT));
+        }
+        return out;
+    }
+
+    private Long lockVersion(Connection c, String key) throws SQLException {
+        try (PreparedStatement ps = c.prepareStatement("SELECT version FROM " + q(table) + " WHERE rec_key = ? FOR UPDATE")) {
+            ps.setString(1, key);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() ? rs.getLong(1) : null;
+            }
+        }
+    }
+
+    private void insert(Connection c, String key, T record) throws SQLException {
+        LinkedHashMap<String, T> one = new LinkedHashMap<>();
+        one.put(key, record);
+        insertAll(c, one);
+    }
+
+    private void insertAll(Connection c, Map<String, T> rows) throws SQLException {
+        if (rows.isEmpty()) return;
+        StringBuilder cols = new StringBuilder("rec_key, version, body");
+        StringBuilder marks = new StringBuilder("?, ?, ?");
+        for (IndexedColumn<T> col : columnList) {
+            cols.append(", ").append(q(col(col)));
+            marks.append(", ?");
+        }
+        try (PreparedStatement ps = c.prepareStatement(
+                "INSERT INTO " + q(table) + " (" + cols + ") VALUES (" + marks + ")")) {
+            for (Map.Entry<String, T> e : rows.entrySet()) {
+                T t = e.getValue();
+                ps.setString(1, e.getKey());
+                ps.setLong(2, versionOf(t));
+                ps.setString(3, JsonUtil.toJsonLine(JsonUtil.toJsonTree(t)));
+                int i = 4;
+                for (IndexedColumn<T> col : columnList) ps.setString(i++, col.valueOf(t));
+                ps.addBatch();
+            }
+            ps.executeBatch();
+        }
+    }
+
+    /** แทนที่แถวเดิม; expectedVersion ไม่เป็น null → เขียนเฉพาะเมื่อเวอร์ชันในตารางยังตรง (compare-and-swap) */
+    private boolean updateRow(Connection c, String key, T record, Long expectedVersion) throws SQLException {
+        StringBuilder set = new StringBuilder("version = ?, body = ?");
+        for (IndexedColumn<T> col : columnList) set.append(", ").append(q(col(col))).append(" = ?");
+        String sql = "UPDATE " + q(table) + " SET " + set + " WHERE rec_key = ?"
+                + (expectedVersion != null ? " AND version = ?" : "");
+        try (PreparedStatement ps = c.prepareStatement(sql)) {
+            ps.setLong(1, versionOf(record));
+            ps.setString(2, JsonUtil.toJsonLine(JsonUtil.toJsonTree(record)));
+            int i = 3;
+            for (IndexedColumn<T> col : columnList) ps.setString(i++, col.valueOf(record));
+            ps.setString(i++, key);
+            if (expectedVersion != null) ps.setLong(i, expectedVersion);
+            return ps.executeUpdate() == 1;
+        }
+    }
+
+    private long bumpRevision(Connection c) throws SQLException {
+        try (PreparedStatement ps = c.prepareStatement("UPDATE " + META + " SET revision = revision + 1 WHERE table_name = ?")) {
+            ps.setString(1, table);
+            ps.executeUpdate();
+        }
+        return revision(c);
+    }
+
+    private long revision(Connection c) throws SQLException {
+        try (PreparedStatement ps = c.prepareStatement("SELECT revision FROM " + META + " WHERE table_name = ?")) {
+            ps.setString(1, table);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() ? rs.getLong(1) : 0;
+            }
+        }
+    }
+
+    private String where(Query query, List<Object> params) {
+        if (query.conditions().isEmpty()) return "";
+        StringBuilder sb = new StringBuilder(" WHERE ");
+        boolean first = true;
+        for (Query.Condition cond : query.conditions()) {
+            if (!first) sb.append(" AND ");
+            first = false;
+            String col = q(col(columns.get(cond.column())));
+            switch (cond.op()) {
+                case EQ -> sb.append(col).append(" = ?");
+                case GE -> sb.append(col).append(" >= ?");
+                case LE -> sb.append(col).append(" <= ?");
+                case IN -> {
+                    if (cond.values().isEmpty()) {
+                        sb.append("FALSE");
+                        continue;
+                    }
+                    sb.append(col).append(" IN (").append("?, ".repeat(cond.values().size() - 1)).append("?)");
+                }
+            }
+            params.addAll(cond.values());
+        }
+        return sb.toString();
+    }
+
+    private static PreparedStatement prepare(Connection c, String sql, List<Object> params) throws SQLException {
+        PreparedStatement ps = c.prepareStatement(sql);
+        for (int i = 0; i < params.size(); i++) ps.setObject(i + 1, params.get(i));
+        return ps;
+    }
+
+    private T parse(String body) {
+        return JsonUtil.fromJsonTree(JsonUtil.parseLine(body), elementType);
+    }
+
+    /** connection จาก pool ของ URL ปัจจุบัน (close() = คืนเข้า pool) */
+    private static Connection connect() throws SQLException {
+        return POOLS.computeIfAbsent(url(), u -> {
+            JdbcConnectionPool pool = JdbcConnectionPool.create(u, "sa", "");
+            pool.setMaxConnections(POOL_SIZE);
+            return pool;
+        }).getConnection();
+    }
+
+    private static String col(IndexedColumn<?> col) {
+        return "c_" + col.name().toLowerCase(Locale.ROOT);
+    }
+
+    /** ชื่อในฐานข้อมูลใส่เครื่องหมายคำพูดเสมอ (ตัวพิมพ์ตรงตามที่ตั้ง) */
+    private static String q(String identifier) {
+        return '"' + identifier.replace("\"", "\"\"") + '"';
+    }
+
+    private static String tableName(String fileName) {
+        String base = fileName.endsWith(".json") ? fileName.substring(0, fileName.length() - 5) : fileName;
+        return base.toLowerCase(Locale.ROOT).replaceAll("[^a-z0-9_]", "_");
+    }
+}
@@ -0,0 +1,456 @@
+package com.example.big_bike_auto.repository;
+
+import com.example.big_bike_auto.common.JsonUtil;
+import com.google.gson.JsonParseException;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+
+/**
+ * แคชข้อมูลของไฟล์ JSON หนึ่งไฟล์ในหน่วยความจำ (แชร์ร่วมกันทุก repository ที่ชี้ไฟล์เดียวกัน)
+ * - โหลด/parse ไฟล์ครั้งแรกครั้งเดียว แล้วตอบ findAll จาก memory
+ * - saveAll เขียนลงไฟล์ทันที (write-through) แล้วแทนที่แคชด้วยข้อมูลชุดใหม่
+ * - put/remove ทีละ record เขียนต่อท้าย journal (O(1) I/O) แล้ว compact เป็น snapshot เป็นระยะ
+ * - ถ้าไฟล์/journal ถูกแก้จากภายนอก (mtime/size เปลี่ยน) จะโหลดใหม่ในการอ่านครั้งถัดไป
+ * - แจ้ง RecordListener (index/ตัวนับ) ทุกครั้งที่ข้อมูลเปลี่ยน
+ * - ทุก record มีเลขเวอร์ชัน (+1 ทุกครั้งที่บันทึก) → update แบบ optimistic: compare-and-swap + retry
+ * - การเขียน/โหลดใหม่ถือ file lock (<ไฟล์>.lock) ด้วย จึงใช้โฟลเดอร์ข้อมูลร่วมกันหลายเครื่อง/หลายโปรเซสได้
+ *
+ * ปิด journal ได้ด้วย -Dbba.storage.journal=false (put จะเขียนทั้งไฟล์แบบเดิม)
+ * ปิด file lock ได้ด้วย -Dbba.storage.fileLock=false, จำนวนรอบ retry ตั้งด้วย -Dbba.storage.casRetries
+ * ชนิดที่มี {@link SnapshotCodec} จะเขียน binary snapshot (<ไฟล์>.bin) คู่กับ JSON และอ่านจากไฟล์นั้นก่อนเมื่อยังตรงกัน
+ * (ปิดได้ด้วย -Dbba.storage.binarySnapshot=false)
+ * query/count กรองจากแคชในหน่วยความจำ (ไม่มี index บนดิสก์)
+ */
+final class JsonFileStore<T> extends AbstractRecordStore<T> {
+
+    private static final boolean JOURNAL_ENABLED =
+            Boolean.parseBoolean(System.getProperty("bba.storage.journal", "true"));
+    private static final int COMPACT_EVERY = Integer.getInteger("bba.storage.compactEvery", 200);
+    private static final boolean FILE_LOCK =
+            Boolean.parseBoolean(System.getProperty("bba.storage.fileLock", "true"));
+    private static final boolean BINARY_SNAPSHOT =
+            Boolean.parseBoolean(System.getProperty("bba.storage.binarySnapshot", "true"));
+
+    private static final Map<Path, JsonFileStore<?>> STORES = new ConcurrentHashMap<>();
+
+    static {
+        // ปิดโปรแกรมปกติ → รวม journal ลง snapshot ให้ไฟล์ .json ครบในตัวเอง
+        Runtime.getRuntime().addShutdownHook(new Thread(
+                () -> STORES.values().forEach(JsonFileStore::compactQuietly), "store-compact"));
+    }
+
+    /** คืน store ของไฟล์นี้ (สร้างครั้งแรกครั้งเดียวต่อ path) */
+    @SuppressWarnings("unchecked")
+    static <T> JsonFileStore<T> of(String filePath, Class<T> elementType, Function<T, String> keyOf,
+                                   VersionAccess<T> versions, List<IndexedColumn<T>> columns) {
+        Path key = Paths.get(filePath).toAbsolutePath().normalize();
+        JsonFileStore<?> store = STORES.computeIfAbsent(key,
+                k -> new JsonFileStore<>(filePath, k, elementType, keyOf, versions, columns));
+        if (store.elementType != elementType) {
+            throw new IllegalStateException("ไฟล์ " + filePath + " ถูกผูกกับชนิด " + store.elementType.getName() + " แล้ว");
+        }
+        return (JsonFileStore<T>) store;
+    }
+
+    private final String filePath;
+    private final Path path;
+    private final RecordJournal<T> journal;
+    private final Path lockPath;
+    private final SnapshotCodec<T> codec; // null = JSON อย่างเดียว
+    private final Path binaryPath;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // ข้อมูลที่แคชไว้ (key → record ตามลำดับในไฟล์) + ลายเซ็นไฟล์ตอนโหลด
+    private LinkedHashMap<String, T> records;
+    private List<T> view;
+    private FileStamp stamp;
+    private FileStamp journalStamp;
+    private int journalEntries;
+    private long unkeyedSeq;
+
+    // file lock ข้ามโปรเซส (ถือได้ซ้อนกันภายใต้ write lock ของ store; ปล่อยเมื่อ depth กลับเป็น 0)
+    private FileChannel lockChannel;
+    private int lockDepth;
+
+    private JsonFileStore(String filePath, Path path, Class<T> elementType, Function<T, String> keyOf,
+                          VersionAccess<T> versions, List<IndexedColumn<T>> columns) {
+        super(filePath, elementType, keyOf, versions, columns);
+        this.filePath = filePath;
+        this.path = path;
+        this.journal = new RecordJournal<>(RecordJournal.pathFor(path), elementType);
+        this.lockPath = path.resolveSibling(path.getFileName() + ".lock");
+        this.codec = BINARY_SNAPSHOT ? SnapshotCodec.forType(elementType) : null;
+        this.binaryPath = BinarySnapshot.pathFor(path);
+    }
+
+    /**
+     * อ่านทั้งหมดจากแคช (โหลดใหม่เมื่อไฟล์เปลี่ยน)
+     * ลิสต์ที่คืนเป็น read-only และ element ถูกแชร์กับผู้เรียกคนอื่น → แก้ไขแล้วต้อง put/saveAll เสมอ
+     */
+    @Override
+    public List<T> findAll() {
+        FileStamp current = FileStamp.of(path);
+        FileStamp currentJournal = FileStamp.of(journal.file());
+        lock.readLock().lock();
+        try {
+            if (view != null && current.equals(stamp) && currentJournal.equals(journalStamp)) return view;
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        lock.writeLock().lock();
+        try {
+            ensureLoaded();
+            if (view == null) view = Collections.unmodifiableList(new ArrayList<>(records.values()));
+            return view;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /** record ตาม key จากแคช (O(1); ไม่มี → null) ใช้คู่กับ index ที่เก็บ key ไว้ */
+    @Override
+    public T get(String key) {
+        if (key == null) return null;
+        findAll(); // โหลด/รีโหลดถ้าไฟล์เปลี่ยน
+        lock.readLock().lock();
+        try {
+            return records == null ? null : records.get(key);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * ผูก listener ชนิดนี้กับ store (หนึ่ง instance ต่อชนิดต่อ store) แล้วคืนตัวที่ผูกอยู่
+     * ถ้าโหลดข้อมูลไว้แล้ว listener ใหม่จะได้ onReset ทันที
+     */
+    @Override
+    public <L extends RecordListener<T>> L attach(Class<L> type, Supplier<L> factory) {
+        for (RecordListener<T> l : listeners) {
+            if (type.isInstance(l)) return type.cast(l);
+        }
+        lock.writeLock().lock();
+        try {
+            for (RecordListener<T> l : listeners) {
+                if (type.isInstance(l)) return type.cast(l);
+            }
+            L created = factory.get();
+            if (records != null) created.onReset(Collections.unmodifiableMap(records));
+            listeners.add(created);
+            return created;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /** เขียนทั้งไฟล์ (write-through) แล้วอัปเดตแคช; journal ที่ค้างอยู่ถูกแทนที่ด้วย snapshot นี้ */
+    @Override
+    public void saveAll(List<T> items) {
+        List<T> snapshot = new ArrayList<>(items != null ? items : List.of());
+        exclusive(() -> {
+            ensureLoaded();
+            LinkedHashMap<String, T> map = new LinkedHashMap<>();
+            for (T t : snapshot) {
+                String key = keyFor(t);
+                if (t != null) versions.set(t, versionOf(records.get(key)) + 1);
+                putKeepingDuplicates(map, key, t);
+            }
+            writeSnapshot(snapshot);
+            records = map;
+            view = Collections.unmodifiableList(snapshot);
+            fireReset();
+            return null;
+        });
+    }
+
+    /** เพิ่ม/แทนที่ record ตาม key โดยไม่ตรวจเวอร์ชัน (เขียนแค่ 1 บรรทัดลง journal) */
+    @Override
+    public void put(T record) {
+        String key = requireKey(record);
+        exclusive(() -> {
+            ensureLoaded();
+            putLocked(key, record);
+            return null;
+        });
+    }
+
+    /** เพิ่ม record ใหม่เฉพาะเมื่อยังไม่มี key นี้ (ตรวจกับข้อมูลล่าสุดบนดิสก์ภายใต้ file lock) */
+    @Override
+    public boolean putIfAbsent(T record) {
+        String key = requireKey(record);
+        return exclusive(() -> {
+            ensureLoaded();
+            if (records.containsKey(key)) return false;
+            putLocked(key, record);
+            return true;
+        });
+    }
+
+    /**
+     * compare-and-swap: บันทึกเมื่อเวอร์ชันของ record ใน storage ยังเท่ากับ expectedVersion
+     * (มีคนบันทึกแทรกไปก่อน/ถูกลบไปแล้ว → false และไม่เขียนอะไร)
+     */
+    @Override
+    public boolean compareAndPut(T record, long expectedVersion) {
+        String key = requireKey(record);
+        return exclusive(() -> {
+            ensureLoaded();
+            T current = records.get(key);
+            if (current == null || versionOf(current) != expectedVersion) return false;
+            putLocked(key, record);
+            return true;
+        });
+    }
+
+    /** ลบ record ตาม key (ไม่มีอยู่ → ไม่ทำอะไร) */
+    @Override
+    public void remove(String key) {
+        exclusive(() -> {
+            ensureLoaded();
+            if (key == null || records.remove(key) == null) return null;
+            view = null;
+            if (!JOURNAL_ENABLED) writeSnapshot(new ArrayList<>(records.values()));
+            else appendOrInvalidate(() -> journal.appendDelete(key));
+            notifyListeners(l -> l.onRemove(key));
+            return null;
+        });
+    }
+
+    /** รวม journal ลง snapshot (.json) แล้วล้าง journal */
+    void compact() {
+        exclusive(() -> {
+            ensureLoaded();
+            if (journalEntries > 0) writeSnapshot(new ArrayList<>(records.values()));
+            return null;
+        });
+    }
+
+    // ---------- internals (เรียกภายใต้ write lock) ----------
+
+    /** ถือ write lock ของ store + file lock ข้ามโปรเซส ระหว่างทำ body */
+    private <R> R exclusive(Supplier<R> body) {
+        lock.writeLock().lock();
+        try {
+            lockFile();
+            try {
+                return body.get();
+            } finally {
+                unlockFile();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void lockFile() {
+        if (!FILE_LOCK || lockDepth++ > 0) return;
+        try {
+            lockChannel = FileChannel.open(lockPath, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+            // รอจนโปรเซสอื่นเขียนเสร็จ (lock ทั้งไฟล์แบบ exclusive)
+            lockChannel.lock();
+        } catch (IOException e) {
+            lockDepth--;
+            closeLockChannel();
+            throw new RuntimeException("ล็อกไฟล์ข้อมูลไม่สำเร็จ: " + lockPath, e);
+        }
+    }
+
+    private void unlockFile() {
+        if (!FILE_LOCK || --lockDepth > 0) return;
+        closeLockChannel(); // ปิด channel = ปล่อย lock
+    }
+
+    private void closeLockChannel() {
+        if (lockChannel == null) return;
+        try {
+            lockChannel.close();
+        } catch (IOException ignored) {
+            // ปิดไม่ได้ → OS ปล่อย lock ให้เองเมื่อโปรเซสจบ
+        }
+        lockChannel = null;
+    }
+
+    /** บันทึก record พร้อมเลื่อนเวอร์ชันเป็น (เวอร์ชันล่าสุดใน storage + 1) */
+    private void putLocked(String key, T record) {
+        versions.set(record, versionOf(records.get(key)) + 1);
+        records.put(key, record);
+        view = null;
+        if (!JOURNAL_ENABLED) writeSnapshot(new ArrayList<>(records.values()));
+        else appendOrInvalidate(() -> journal.appendPut(key, record));
+        notifyListeners(l -> l.onPut(key, record));
+    }
+
+    /** โหลด snapshot + replay journal ถ้ายังไม่โหลดหรือไฟล์เปลี่ยน (รวมถึงกู้คืนหลัง crash) */
+    private void ensureLoaded() {
+        FileStamp current = FileStamp.of(path);
+        FileStamp currentJournal = FileStamp.of(journal.file());
+        if (records != null && current.equals(stamp) && currentJournal.equals(journalStamp)) return;
+
+        // โหลดใหม่ภายใต้ file lock: ไม่อ่าน journal ระหว่างที่โปรเซสอื่นเขียนค้างครึ่งบรรทัด (replay จะตัดทิ้ง)
+        lockFile();
+        try {
+            load();
+        } finally {
+            unlockFile();
+        }
+    }
+
+    private void load() {
+        // ไม่มีไฟล์ → สร้าง [] ไว้ (ตรวจครั้งเดียวต่อการโหลด ไม่ใช่ทุกครั้งที่ repository ถูกเรียก)
+        JsonUtil.ensureJsonArrayFile(filePath);
+        FileStamp current = FileStamp.of(path);
+        LinkedHashMap<String, T> map = new LinkedHashMap<>();
+        // binary snapshot ที่ยังตรงกับ JSON → ไม่ต้อง parse JSON เลย
+        boolean fromBinary = codec != null && !FileStamp.MISSING.equals(current)
+                && BinarySnapshot.read(binaryPath, codec, current.size(), current.modifiedMillis(),
+                        t -> putKeepingDuplicates(map, keyFor(t), t));
+        if (!fromBinary) {
+            map.clear();
+            try {
+                // อ่านแบบ streaming ลง map ตรง ๆ (ไม่มีลิสต์/String ของทั้งไฟล์มาคั่นกลาง)
+                JsonUtil.forEach(filePath, elementType, t -> {
+                    putKeepingDuplicates(map, keyFor(t), t);
+                    return true;
+                });
+            } catch (JsonParseException corrupt) {
+                // ไฟล์หลักเสีย → เริ่มใหม่ผ่าน readList ซึ่งกู้จาก .bak ให้
+                map.clear();
+                for (T t : JsonUtil.readList(filePath, elementType)) putKeepingDuplicates(map, keyFor(t), t);
+            }
+            // ครั้งหน้าโหลดจาก binary (ไม่มี/เก่า/ไฟล์ JSON ถูกแก้จากภายนอก)
+            if (current.equals(FileStamp.of(path))) writeBinary(current, new ArrayList<>(map.values()));
+        }
+        try {
+            journalEntries = journal.replay(map);
+        } catch (IOException e) {
+            throw new RuntimeException("Error replaying journal: " + journal.file(), e);
+        }
+        records = map;
+        view = null;
+        stamp = current;
+        journalStamp = FileStamp.of(journal.file());
+        fireReset();
+    }
+
+    private void fireReset() {
+        Map<String, T> all = Collections.unmodifiableMap(records);
+        notifyListeners(l -> l.onReset(all));
+    }
+
+    private void writeSnapshot(List<T> snapshot) {
+        try {
+            JsonUtil.writeList(filePath, snapshot);
+            journal.reset();
+        } catch (RuntimeException | IOException e) {
+            // เขียนไม่สำเร็จ → ทิ้งแคช ให้รอบถัดไปอ่านจากไฟล์จริง
+            invalidate();
+            throw e instanceof RuntimeException re ? re : new RuntimeException("Error resetting journal: " + journal.file(), e);
+        }
+        journalEntries = 0;
+        stamp = FileStamp.of(path);
+        journalStamp = FileStamp.of(journal.file());
+        writeBinary(stamp, snapshot);
+    }
+
+    /** เขียน binary snapshot คู่กับ JSON ตามลายเซ็นของ JSON; ไม่สำเร็จก็แค่ลบทิ้ง (JSON คือข้อมูลจริง) */
+    private void writeBinary(FileStamp source, List<T> snapshot) {
+        if (codec == null || FileStamp.MISSING.equals(source)) return;
+        try {
+            BinarySnapshot.write(binaryPath, codec, source.size(), source.modifiedMillis(), snapshot);
+        } catch (IOException | RuntimeException e) {
+            BinarySnapshot.deleteQuietly(binaryPath);
+            System.err.println("เขียน binary snapshot ไม่สำเร็จ: " + binaryPath + " (" + e.getMessage() + ")");
+        }
+    }
+
+    private void appendOrInvalidate(JournalWrite write) {
+        try {
+            write.run();
+        } catch (IOException e) {
+            invalidate();
+            throw new RuntimeException("Error writing journal: " + journal.file(), e);
+        }
+        journalEntries++;
+        journalStamp = FileStamp.of(journal.file());
+        if (journalEntries >= COMPACT_EVERY) {
+            writeSnapshot(new ArrayList<>(records.values()));
+        }
+    }
+
+    private void invalidate() {
+        records = null;
+        view = null;
+        stamp = null;
+        journalStamp = null;
+    }
+
+    /** record ที่ไม่มี key (ข้อมูลเก่า) ได้ key ภายในที่ไม่ชนกับของจริง */
+    private String keyFor(T record) {
+        String key = record == null ? null : keyOf.apply(record);
+        return (key == null || key.isBlank()) ? syntheticKey() : key;
+    }
+
+    private String syntheticKey() {
+        return "\u0000" + (unkeyedSeq++);
+    }
+
+    /**
+     * id ซ้ำ (แก้ไฟล์จากภายนอก/รวมไฟล์เอง/ข้อมูลเก่า) → เก็บไว้ทั้งคู่ แถวหลังได้ key ภายในแบบเดียวกับแถวที่ไม่มี id
+     * (ไม่ทับกันเงียบ ๆ: ไม่อย่างนั้น compact/saveAll รอบถัดไปจะเขียนไฟล์ใหม่โดยไม่มีแถวนั้น)
+     */
+    private void putKeepingDuplicates(LinkedHashMap<String, T> map, String key, T record) {
+        if (map.putIfAbsent(key, record) == null) return;
+        String alias = syntheticKey();
+        map.put(alias, record);
+        System.err.println("พบ id ซ้ำ \"" + key + "\" ใน " + filePath + " เก็บไว้ทั้งสองรายการ (รายการหลังอ้างด้วย key ภายใน)");
+    }
+
+    private void compactQuietly() {
+        try {
+            compact();
+        } catch (RuntimeException e) {
+            // ตอนปิดโปรแกรม: journal ยังอยู่ครบ โหลดครั้งหน้าจะ replay เอง
+            System.err.println("compact ไม่สำเร็จ: " + filePath + " (" + e.getMessage() + ")");
+        }
+    }
+
+    @FunctionalInterface
+    private interface JournalWrite {
+        void run() throws IOException;
+    }
+
+    /** ลายเซ็นไฟล์แบบเบา ๆ ใช้ตรวจว่าไฟล์ถูกแก้จากภายนอกหรือไม่ */
+    private record FileStamp(long modifiedMillis, long size) {
+        static final FileStamp MISSING = new FileStamp(-1, -1);
+
+        static FileStamp of(Path p) {
+            try {
+                BasicFileAttributes a = Files.readAttributes(p, BasicFileAttributes.class);
+                return new FileStamp(a.lastModifiedTime().toMillis(), a.size());
+            } catch (NoSuchFileException e) {
+                return MISSING;
+            } catch (IOException e) {
+                // อ่าน attribute ไม่ได้ → ถือว่าเปลี่ยน (บังคับโหลดใหม่)
+                return new FileStamp(System.nanoTime(), -2);
+            }
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.big_bike_auto.repository;
+
+import com.example.big_bike_auto.model.OrderItem;
+import com.example.big_bike_auto.model.PurchaseOrder;
+
+import java.util.HashMap;
+import java.util.Map;
+
+
+/**
+ * ยอดค้างรับ (on order) ต่อ SKU จาก PO ที่ยังไม่ received
+ * อัปเดตทีละใบเมื่อ PO ถูกบันทึก (เก็บยอดของแต่ละใบไว้ เพื่อหักของเดิมออกก่อนบวกของใหม่)
+ * และสร้างใหม่ทั้งหมดเมื่อ store โหลดไฟล์ (เปิดโปรแกรมใหม่/ไฟล์ถูกแก้จากภายนอก)
+ */
+final class OnOrderIndex implements RecordListener<PurchaseOrder> {
+
+    // ยอดของ PO แต่ละใบ (เฉพาะใบที่ยังไม่ received)
+    private final Map<String, Map<String, Integer>> byOrder = new HashMap<>();
+    private final Map<String, Integer> bySku = new HashMap<>();
+    // สำเนา read-only ล่าสุด (สร้างใหม่เมื่อมีการเปลี่ยนแปลง)
+    private Map<String, Integer> published = Map.of();
+    private boolean dirty;
+
+    @Override
+    public synchronized void onPut(String key, PurchaseOrder po) {
+        removeContribution(key);
+        addContribution(key, po);
+        dirty = true;
+    }
+
+    @Override
+    public synchronized void onRemove(String key) {
+        removeContribution(key);
+        dirty = true;
+    }
+
+    @Override
+    public synchronized void onReset(Map<String, PurchaseOrder> all) {
+        byOrder.clear();
+        bySku.clear();
+        // ใช้ key ของ store (PO ที่ไม่มี id ก็ยังนับยอดค้างรับ)
+        all.forEach((key, po) -> {
+            if (po != null) addContribution(key, po);
+        });
+        dirty = true;
+    }
+
+    /** SKU → จำนวนค้างรับ (read-only) */
+    synchronized Map<String, Integer> snapshot() {
+        if (dirty) {
+            published = Map.copyOf(bySku);
+            dirty = false;
+        }
+        return published;
+    }
+
+    private void addContribution(String key, PurchaseOrder po) {
+        if (key == null || po.isReceived() || po.getItems() == null) return;
+        Map<String, Integer> lines = new HashMap<>();
+        for (OrderItem it : po.getItems()) {
+            if (it == null) continue;
+            String sku = it.getSku() == null ? "" : it.getSku();
+            lines.merge(sku, it.getQuantity(), Integer::sum);
+        }
+        if (lines.isEmpty()) return;
+        byOrder.put(key, lines);
+        lines.forEach((sku, qty) -> bySku.merge(sku, qty, Integer::sum));
+    }
+
+    private void removeContribution(String key) {
+        Map<String, Integer> old = byOrder.remove(key);
+        if (old == null) return;
+        old.forEach((sku, qty) -> bySku.computeIfPresent(sku, (k, v) -> v - qty == 0 ? null : v - qty));
+    }
+}
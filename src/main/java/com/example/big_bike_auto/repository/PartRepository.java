@@ -1,17 +1,88 @@
 package com.example.big_bike_auto.repository;
 
+import com.example.big_bike_auto.common.DataPaths;
 import com.example.big_bike_auto.model.Part;
-import com.example.big_bike_auto.common.JsonUtil;
 import java.util.List;
+import java.util.Optional;
+import java.util.function.UnaryOperator;
 
 public class PartRepository {
-    private static final String FILE_PATH = "data/parts.json";
+    // แคชกลางของ parts.json / ตาราง parts (ทุก instance ใช้ร่วมกัน; sku คือ key)
+    private final RecordStore<Part> store =
+            RecordStore.open(DataPaths.PARTS, Part.class, Part::getSku,
+                    VersionAccess.of(Part::getVersion, Part::setVersion),
+                    List.of(new IndexedColumn<>("supplier", Part::getSupplier)));
+    private final RecordCounter<Part> counts = store.attach(RecordCounter.type(),
+            () -> new RecordCounter<>(Part::getSku, p -> null));
+    private final PartSearchIndex search = store.attach(PartSearchIndex.class, PartSearchIndex::new);
 
+    /** ลิสต์ read-only จากแคช */
     public List<Part> findAll() {
-        return JsonUtil.readList(FILE_PATH, Part.class);
+        return store.findAll();
+    }
+
+    /** จำนวนอะไหล่ทั้งหมด (จากตัวนับที่อัปเดตตอนบันทึก ไม่ต้องนับใหม่) */
+    public long count() {
+        store.findAll(); // ให้แน่ใจว่าโหลด/รีโหลดแล้ว
+        return counts.total();
+    }
+
+    /** เลขที่เพิ่มขึ้นทุกครั้งที่ข้อมูลเปลี่ยน (รวมไฟล์ถูกแก้จากภายนอก) ใช้ตรวจว่าข้อมูลที่หน้าจอแสดงอยู่เก่าหรือไม่ */
+    public long revision() {
+        store.findAll();
+        return counts.changes();
+    }
+
+    /** นับใหม่จากข้อมูลจริงแล้วเทียบกับตัวนับ; true = เพี้ยนและถูกแก้แล้ว */
+    public boolean reconcileCounts() {
+        long seen = counts.changes();
+        return counts.reconcile(store.findAll(), seen);
+    }
+
+    /** อะไหล่ของ supplier นี้ (ค้นผ่าน index) */
+    public List<Part> findBySupplier(String supplier) {
+        if (supplier == null) return List.of();
+        return store.query(Query.where().eq("supplier", supplier));
+    }
+
+    /**
+     * ค้นอะไหล่จาก sku/ชื่อ (รองรับภาษาไทย, "," หรือ "|" = หรือ, เว้นวรรค = และ) ผ่าน n-gram index
+     * @return sku เรียงจากตรงที่สุด ไม่เกิน limit รายการ (คำค้นว่าง → list ว่าง)
+     */
+    public List<String> searchSkus(String query, int limit) {
+        store.findAll();
+        return search.search(query, limit).stream().map(PartSearchIndex.Hit::sku).toList();
     }
 
     public void saveAll(List<Part> parts) {
-        JsonUtil.writeList(FILE_PATH, parts);
+        store.saveAll(parts);
+    }
+
+    /** บันทึก/แทนที่ Part ตัวเดียวตาม sku (ไม่เขียนทั้งไฟล์; ไม่ตรวจเวอร์ชัน) */
+    public void save(Part part) {
+        store.put(part);
+    }
+
+    /** เพิ่ม Part ใหม่ (sku นี้มีอยู่แล้ว → false) */
+    public boolean insert(Part part) {
+        return store.putIfAbsent(part);
+    }
+
+    /** บันทึกเมื่อ Part ยังเป็นเวอร์ชัน expectedVersion (มีคนแก้แทรก → false) */
+    public boolean saveIfVersion(Part part, long expectedVersion) {
+        return store.compareAndPut(part, expectedVersion);
+    }
+
+    /**
+     * แก้ Part ตาม sku แบบ optimistic (ชนกัน → อ่านใหม่แล้วทำซ้ำ)
+     * @return Part หลังแก้ หรือ empty ถ้าไม่พบ sku
+     */
+    public Optional<Part> update(String sku, UnaryOperator<Part> mutator) {
+        return Optional.ofNullable(store.update(sku, mutator));
+    }
+
+    /** ลบ Part ตาม sku (ไม่มี → ไม่ทำอะไร) */
+    public void delete(String sku) {
+        store.remove(sku);
     }
 }
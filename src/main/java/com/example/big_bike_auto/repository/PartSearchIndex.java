@@ -0,0 +1,225 @@
+package com.example.big_bike_auto.repository;
+
+import com.example.big_bike_auto.common.SearchText;
+import com.example.big_bike_auto.model.Part;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+
+/**
+ * index ค้นอะไหล่จาก sku/ชื่อ แบบ n-gram (2 และ 3 ตัวอักษร) บนข้อความที่ {@link SearchText#normalize} แล้ว
+ * ภาษาไทยไม่เว้นวรรคระหว่างคำ → ใช้ n-gram แทนการตัดคำ ค้นส่วนไหนของชื่อก็เจอ
+ * คำยาว 3+ ตัว: intersect posting ของทุก trigram แล้วตรวจ contains ซ้ำเฉพาะผู้สมัคร; 2 ตัว: bigram ตรง ๆ; 1 ตัว: ไล่ทุกแถว
+ *
+ * แต่ละ record ได้เลข doc เรียงขึ้นเรื่อย ๆ (posting เป็น int[] ที่เรียงอยู่แล้ว intersect ได้เร็ว)
+ * record ที่ถูกแก้/ลบ → doc เดิมถูกทำเครื่องหมายว่าตาย แล้วสร้างใหม่ทั้ง index เมื่อ doc ตายเกินครึ่ง
+ */
+final class PartSearchIndex implements RecordListener<Part> {
+
+    /** ผลค้นหา: sku + คะแนน (มาก = ตรงกว่า) */
+    record Hit(String sku, int score) {}
+
+    /** key = key ของ store (ใช้แก้/ลบ), sku = ค่าที่คืนในผลค้น (sku ว่าง/ซ้ำ → key เป็น key ภายใน แต่ sku คงเดิม) */
+    private record Doc(String key, String sku, String code, String name) {}
+
+    private static final long MAX_SCORE = (1L << 21) - 1;
+    private static final long ID_MASK = (1L << 26) - 1; // doc id ไม่เกิน 67M (สร้างใหม่เมื่อ doc ตายเกินครึ่ง)
+
+    private final List<Doc> docs = new ArrayList<>();            // doc id → ข้อความ (null = ตายแล้ว)
+    private final Map<String, Integer> idByKey = new HashMap<>();
+    private final Map<String, Postings> postings = new HashMap<>();
+
+    @Override
+    public synchronized void onPut(String key, Part part) {
+        kill(key);
+        add(doc(key, part));
+        if (docs.size() > 1024 && idByKey.size() < docs.size() / 2) rebuild();
+    }
+
+    @Override
+    public synchronized void onRemove(String key) {
+        kill(key);
+    }
+
+    @Override
+    public synchronized void onReset(Map<String, Part> all) {
+        docs.clear();
+        idByKey.clear();
+        postings.clear();
+        // key ของ store (sku ว่าง/ซ้ำได้ key ภายใน) เหมือน onPut/onRemove → ทุก record มี doc ของตัวเอง
+        all.forEach((key, p) -> {
+            if (p != null) add(doc(key, p));
+        });
+    }
+
+    /**
+     * ค้นตามรูปแบบของ {@link SearchText#parseQuery} (กลุ่ม "หรือ" ของคำ "และ")
+     * เรียงตามคะแนน: sku ตรงทั้งคำ > ขึ้นต้น sku > ขึ้นต้นคำในชื่อ > อยู่กลางคำ; ตรงหลายกลุ่มได้คะแนนรวม
+     * คะแนนเท่ากัน → ชื่อสั้นกว่า (ตรงกว่า) ก่อน แล้วตามลำดับในข้อมูล
+     */
+    synchronized List<Hit> search(String query, int limit) {
+        List<List<String>> groups = SearchText.parseQuery(query);
+        if (groups.isEmpty() || limit <= 0) return List.of();
+
+        int[] scores = new int[docs.size()];  // doc id → คะแนนรวม (0 = ไม่ตรง)
+        int[] matched = new int[16];
+        int n = 0;
+        for (List<String> terms : groups) {
+            int[] candidates = null;
+            for (String t : terms) {
+                candidates = intersect(candidates, candidatesOf(t));
+                if (candidates.length == 0) break;
+            }
+            for (int id : candidates) {
+                Doc d = docs.get(id);
+                if (d == null) continue;
+                int score = 0;
+                for (String t : terms) {
+                    int s = score(d, t);
+                    if (s == 0) {
+                        score = 0;
+                        break;
+                    }
+                    score += s;
+                }
+                if (score == 0) continue;
+                if (scores[id] == 0) {
+                    if (n == matched.length) matched = Arrays.copyOf(matched, n * 2);
+                    matched[n++] = id;
+                }
+                scores[id] += score;
+            }
+        }
+
+        // เรียงด้วย key แบบ long เดียว: คะแนน (มากก่อน) | ความยาวชื่อ (สั้นก่อน) | doc id (ลำดับในข้อมูล)
+        long[] keys = new long[n];
+        for (int i = 0; i < n; i++) {
+            int id = matched[i];
+            long score = Math.min(scores[id], MAX_SCORE);
+            long len = Math.min(docs.get(id).name().length(), 0xFFFF);
+            keys[i] = ((MAX_SCORE - score) << 42) | (len << 26) | id;
+        }
+        Arrays.sort(keys);
+        List<Hit> hits = new ArrayList<>(Math.min(limit, n));
+        for (int i = 0; i < n && i < limit; i++) {
+            int id = (int) (keys[i] & ID_MASK);
+            hits.add(new Hit(docs.get(id).sku(), scores[id]));
+        }
+        return hits;
+    }
+
+    // ---------- scoring ----------
+
+    private static int score(Doc d, String term) {
+        if (d.code().equals(term)) return 100;
+        if (d.code().startsWith(term)) return 60;
+        int at = d.name().indexOf(term);
+        if (at == 0 || (at > 0 && d.name().charAt(at - 1) == ' ')) return 30;
+        if (at > 0 || d.code().contains(term)) return 10;
+        return 0;
+    }
+
+    // ---------- candidates ----------
+
+    /** doc ที่อาจมี term (ยังต้องตรวจด้วย {@link #score}) */
+    private int[] candidatesOf(String term) {
+        if (term.length() == 1) return allLive();
+        if (term.length() == 2) return postingsOf(term);
+        int[] out = null;
+        for (String g : grams(term, 3)) {
+            out = intersect(out, postingsOf(g));
+            if (out.length == 0) break;
+        }
+        return out;
+    }
+
+    private int[] postingsOf(String gram) {
+        Postings p = postings.get(gram);
+        return p == null ? new int[0] : Arrays.copyOf(p.ids, p.size);
+    }
+
+    private int[] allLive() {
+        int[] out = new int[idByKey.size()];
+        int n = 0;
+        for (int id = 0; id < docs.size() && n < out.length; id++) {
+            if (docs.get(id) != null) out[n++] = id;
+        }
+        return n == out.length ? out : Arrays.copyOf(out, n);
+    }
+
+    /** a ∩ b ของ array ที่เรียงแล้ว (a == null = ยังไม่มีเงื่อนไข → b) */
+    private static int[] intersect(int[] a, int[] b) {
+        if (a == null) return b;
+        int[] out = new int[Math.min(a.length, b.length)];
+        int i = 0, j = 0, n = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] < b[j]) i++;
+            else if (a[i] > b[j]) j++;
+            else {
+                out[n++] = a[i];
+                i++;
+                j++;
+            }
+        }
+        return Arrays.copyOf(out, n);
+    }
+
+    // ---------- maintenance ----------
+
+    private static Doc doc(String key, Part part) {
+        return new Doc(key, part.getSku(), SearchText.normalize(part.getSku()), SearchText.normalize(part.getName()));
+    }
+
+    private void add(Doc d) {
+        int id = docs.size();
+        docs.add(d);
+        idByKey.put(d.key(), id);
+        Set<String> gs = new LinkedHashSet<>();
+        for (String text : new String[]{d.code(), d.name()}) {
+            for (String token : text.split(" ")) {
+                gs.addAll(grams(token, 2));
+                gs.addAll(grams(token, 3));
+            }
+        }
+        for (String g : gs) postings.computeIfAbsent(g, k -> new Postings()).add(id);
+    }
+
+    private void kill(String key) {
+        Integer id = idByKey.remove(key);
+        if (id != null) docs.set(id, null);
+    }
+
+    /** สร้างใหม่จาก doc ที่ยังมีชีวิต (เลข doc ใหม่เรียงต่อกัน, posting ไม่มี doc ตาย) */
+    private void rebuild() {
+        List<Doc> live = new ArrayList<>(idByKey.size());
+        for (Doc d : docs) if (d != null) live.add(d);
+        docs.clear();
+        idByKey.clear();
+        postings.clear();
+        for (Doc d : live) add(d);
+    }
+
+    private static List<String> grams(String token, int n) {
+        if (token.length() < n) return List.of();
+        List<String> out = new ArrayList<>(token.length() - n + 1);
+        for (int i = 0; i + n <= token.length(); i++) out.add(token.substring(i, i + n));
+        return out;
+    }
+
+    /** รายการ doc id เรียงขึ้น (doc ใหม่ได้เลขมากสุดเสมอ → append อย่างเดียว) */
+    private static final class Postings {
+        int[] ids = new int[4];
+        int size;
+
+        void add(int id) {
+            if (size == ids.length) ids = Arrays.copyOf(ids, size * 2);
+            ids[size++] = id;
+        }
+    }
+}
@@ -1,24 +1,127 @@
 package com.example.big_bike_auto.repository;
 
-import com.example.big_bike_auto.common.JsonUtil;
+import com.example.big_bike_auto.common.DataPaths;
 import com.example.big_bike_auto.model.PurchaseOrder;
 
+import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.UnaryOperator;
 
 
 public class PurchaseOrderRepository {
 
-    private static final String FILE = "data/purchase_orders.json";
+    // แคชกลางของ purchase_orders.json / ตาราง purchase_orders (ทุก instance ใช้ร่วมกัน)
+    private final RecordStore<PurchaseOrder> store = RecordStore.open(DataPaths.PURCHASE_ORDERS,
+            PurchaseOrder.class, PurchaseOrder::getId,
+            VersionAccess.of(PurchaseOrder::getVersion, PurchaseOrder::setVersion),
+            List.of(new IndexedColumn<>("supplier", PurchaseOrder::getSupplier),
+                    new IndexedColumn<>("orderDate", PurchaseOrder::getOrderDate), // ISO yyyy-MM-dd เทียบช่วงได้
+                    new IndexedColumn<>("status", PurchaseOrderRepository::statusOf)));
+    private final OnOrderIndex onOrderIndex = store.attach(OnOrderIndex.class, OnOrderIndex::new);
+    private final RecordCounter<PurchaseOrder> counts = store.attach(RecordCounter.type(),
+            () -> new RecordCounter<>(PurchaseOrder::getId, PurchaseOrderRepository::statusOf));
 
     public List<PurchaseOrder> findAll() {
-        // กันไฟล์หาย -> สร้าง []
-        JsonUtil.ensureJsonArrayFile(FILE);
-        return new ArrayList<>(JsonUtil.readList(FILE, PurchaseOrder.class));
+        return new ArrayList<>(store.findAll());
+    }
+
+    /** เลขที่เพิ่มขึ้นทุกครั้งที่ข้อมูลเปลี่ยน (รวมไฟล์ถูกแก้จากภายนอก) ใช้ตรวจว่าข้อมูลที่หน้าจอแสดงอยู่เก่าหรือไม่ */
+    public long revision() {
+        store.findAll(); // ให้แน่ใจว่าโหลด/รีโหลดแล้ว
+        return counts.changes();
+    }
+
+    // ---------- ค้นผ่านคอลัมน์ที่มี index (ไม่ต้องคัดลอก/ไล่ทุก PO) ----------
+
+    /**
+     * PO ตามเงื่อนไข (พารามิเตอร์ที่เป็น null = ไม่กรอง) ตามลำดับที่บันทึก
+     * @param received true = รับของแล้ว, false = ยังเปิดอยู่
+     */
+    public List<PurchaseOrder> find(String supplier, Boolean received, LocalDate from, LocalDate to) {
+        Query q = Query.where().atLeast("orderDate", from).atMost("orderDate", to);
+        if (supplier != null) q.eq("supplier", supplier);
+        if (received != null) q.eq("status", received ? RECEIVED : OPEN);
+        return store.query(q);
+    }
+
+    public Optional<PurchaseOrder> findById(String id) {
+        if (id == null) return Optional.empty();
+        return Optional.ofNullable(store.get(id));
+    }
+
+    /** PO ที่ยังไม่รับของของ supplier นี้ */
+    public List<PurchaseOrder> findOpenBySupplier(String supplier) {
+        return supplier == null ? List.of() : find(supplier, false, null, null);
+    }
+
+    /** จำนวน PO ที่สั่งในวันนั้น */
+    public long countByOrderDate(LocalDate date) {
+        return store.count(Query.where().eq("orderDate", date));
+    }
+
+    /** เลขท้ายที่มากที่สุดของ id ที่ขึ้นต้นด้วย prefix (เช่น "PO-20240102-" → 7 จาก PO-20240102-007); ไม่มี → 0 */
+    public int highestIdNumber(String prefix) {
+        int highest = 0;
+        for (PurchaseOrder po : store.findAll()) {
+            String id = po == null ? null : po.getId();
+            if (id == null || !id.startsWith(prefix)) continue;
+            try {
+                highest = Math.max(highest, Integer.parseInt(id.substring(prefix.length()).trim()));
+            } catch (NumberFormatException ignored) {
+                // id ที่ตั้งเอง/นำเข้ามาไม่ใช่ตัวเลข → ไม่นับ
+            }
+        }
+        return highest;
     }
 
     public void saveAll(List<PurchaseOrder> orders) {
-        JsonUtil.ensureJsonArrayFile(FILE);
-        JsonUtil.writeList(FILE, orders != null ? orders : List.of());
+        store.saveAll(orders != null ? orders : List.of());
+    }
+
+    /**
+     * ยอดค้างรับต่อ SKU จาก PO ที่ยังไม่ received (read-only)
+     * ดูแลแบบ incremental ทุกครั้งที่ save → ไม่ต้องไล่ทุก PO/ทุกรายการเมื่อสร้างหน้า inventory
+     */
+    public Map<String, Integer> onOrderBySku() {
+        store.findAll(); // ให้แน่ใจว่าโหลด/รีโหลดแล้ว (index ถูกสร้างใหม่ตอนโหลด)
+        return onOrderIndex.snapshot();
+    }
+
+    /** บันทึก/แทนที่ PO ใบเดียวตาม id (ไม่เขียนทั้งไฟล์; ไม่ตรวจเวอร์ชัน) */
+    public void save(PurchaseOrder order) {
+        store.put(order);
+    }
+
+    /** เพิ่ม PO ใหม่ (id นี้มีอยู่แล้ว → false) */
+    public boolean insert(PurchaseOrder order) {
+        return store.putIfAbsent(order);
+    }
+
+    /** บันทึกเมื่อ PO ยังเป็นเวอร์ชัน expectedVersion (มีคนแก้แทรก → false) */
+    public boolean saveIfVersion(PurchaseOrder order, long expectedVersion) {
+        return store.compareAndPut(order, expectedVersion);
+    }
+
+    /**
+     * แก้ PO ตาม id แบบ optimistic (ชนกัน → อ่านใหม่แล้วทำซ้ำ)
+     * @return PO หลังแก้ หรือ empty ถ้าไม่พบ id
+     */
+    public Optional<PurchaseOrder> update(String id, UnaryOperator<PurchaseOrder> mutator) {
+        return Optional.ofNullable(store.update(id, mutator));
+    }
+
+    /** ลบ PO ตาม id (ไม่มี → ไม่ทำอะไร) */
+    public void delete(String id) {
+        store.remove(id);
+    }
+
+    private static final String OPEN = "OPEN";
+    private static final String RECEIVED = "RECEIVED";
+
+    private static String statusOf(PurchaseOrder po) {
+        return po.isReceived() ? RECEIVED : OPEN;
     }
 }
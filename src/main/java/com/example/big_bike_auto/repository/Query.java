@@ -0,0 +1,74 @@
+package com.example.big_bike_auto.repository;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Function;
+
+
+/**
+ * เงื่อนไขค้นหาแบบง่ายบน {@link IndexedColumn} (AND ทุกเงื่อนไข)
+ * เทียบค่าเป็นข้อความ; record ที่ค่าคอลัมน์เป็น null ไม่ตรงเงื่อนไขใดเลย
+ */
+final class Query {
+
+    enum Op { EQ, IN, GE, LE }
+
+    record Condition(String column, Op op, List<String> values) {}
+
+    private final List<Condition> conditions = new ArrayList<>();
+
+    static Query where() {
+        return new Query();
+    }
+
+    Query eq(String column, Object value) {
+        return add(column, Op.EQ, Collections.singletonList(text(value)));
+    }
+
+    Query in(String column, Collection<?> values) {
+        List<String> vs = new ArrayList<>(values.size());
+        for (Object v : values) vs.add(text(v));
+        return add(column, Op.IN, vs);
+    }
+
+    /** ค่า >= from (from เป็น null → ไม่กรอง) */
+    Query atLeast(String column, Object from) {
+        return from == null ? this : add(column, Op.GE, Collections.singletonList(text(from)));
+    }
+
+    /** ค่า <= to (to เป็น null → ไม่กรอง) */
+    Query atMost(String column, Object to) {
+        return to == null ? this : add(column, Op.LE, Collections.singletonList(text(to)));
+    }
+
+    List<Condition> conditions() {
+        return conditions;
+    }
+
+    /** ตรวจในหน่วยความจำ (backend JSON): columnValue คืนค่าคอลัมน์ของ record นั้น */
+    boolean matches(Function<String, String> columnValue) {
+        for (Condition c : conditions) {
+            String v = columnValue.apply(c.column());
+            if (v == null) return false;
+            boolean ok = switch (c.op()) {
+                case EQ, IN -> c.values().contains(v);
+                case GE -> v.compareTo(c.values().get(0)) >= 0;
+                case LE -> v.compareTo(c.values().get(0)) <= 0;
+            };
+            if (!ok) return false;
+        }
+        return true;
+    }
+
+    static String text(Object value) {
+        return value == null ? null : String.valueOf(value);
+    }
+
+    private Query add(String column, Op op, List<String> values) {
+        if (values.contains(null)) throw new IllegalArgumentException("ค่าค้นหาเป็น null ไม่ได้: " + column);
+        conditions.add(new Condition(column, op, List.copyOf(values)));
+        return this;
+    }
+}
@@ -0,0 +1,129 @@
+package com.example.big_bike_auto.repository;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+
+
+/**
+ * ตัวนับแบบ materialized: จำนวน record ทั้งหมด + จำนวนต่อกลุ่ม (เช่น status) อัปเดตทุกครั้งที่บันทึก
+ * อ่านได้ O(1) โดยไม่ต้องไล่แคชหรือ COUNT ในฐานข้อมูล
+ * นับตาม key ของ store: record ที่ไม่มี id/id ซ้ำ (ได้ key ภายในจาก store) ถูกนับด้วย → total = จำนวนที่ store เก็บจริง
+ * listener ที่พังถูกข้ามโดย store (ตัวนับอาจเพี้ยน) → {@link #reconcile} เทียบกับข้อมูลจริงแล้วสร้างใหม่
+ */
+final class RecordCounter<T> implements RecordListener<T> {
+
+    private final Function<T, String> keyOf;
+    private final Function<T, String> groupOf;
+    // กลุ่มปัจจุบันของแต่ละ record (ใช้หักออกเมื่อถูกแก้/ลบ) + จำนวนต่อกลุ่ม
+    private final Map<String, String> groupByKey = new HashMap<>();
+    private final Map<String, Integer> byGroup = new HashMap<>();
+    private Map<String, Integer> published = Map.of();
+    private boolean dirty;
+    private long changes; // เพิ่มทุก event: reconcile ใช้ตรวจว่ามีการเขียนแทรกระหว่างอ่านข้อมูลหรือไม่
+
+    /** groupOf คืน null ได้ (นับรวมในกลุ่ม "") */
+    RecordCounter(Function<T, String> keyOf, Function<T, String> groupOf) {
+        this.keyOf = keyOf;
+        this.groupOf = groupOf;
+    }
+
+    /** ชนิดสำหรับ {@link RecordStore#attach} (generic ของ class literal ระบุเองไม่ได้) */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    static <T> Class<RecordCounter<T>> type() {
+        return (Class) RecordCounter.class;
+    }
+
+    @Override
+    public synchronized void onPut(String key, T record) {
+        remove(key);
+        add(key, record);
+        changed();
+    }
+
+    @Override
+    public synchronized void onRemove(String key) {
+        remove(key);
+        changed();
+    }
+
+    @Override
+    public synchronized void onReset(Map<String, T> all) {
+        groupByKey.clear();
+        byGroup.clear();
+        all.forEach(this::add);
+        changed();
+    }
+
+    synchronized int total() {
+        return groupByKey.size();
+    }
+
+    /** กลุ่ม → จำนวน (read-only; ไม่มีกลุ่มที่เป็น 0) */
+    synchronized Map<String, Integer> byGroup() {
+        if (dirty) {
+            published = Map.copyOf(byGroup);
+            dirty = false;
+        }
+        return published;
+    }
+
+    /** ค่าไว้ส่งให้ {@link #reconcile} (อ่านก่อนอ่านข้อมูลทั้งชุดจาก store) */
+    synchronized long changes() {
+        return changes;
+    }
+
+    /**
+     * นับใหม่จาก all แล้วเทียบกับตัวนับ ถ้าไม่ตรงให้ใช้ค่าที่นับใหม่
+     * มีการเขียนหลังอ่าน seenChanges (all อาจเก่ากว่าตัวนับ) → ไม่ทำอะไร รอรอบหน้า
+     * @return true = ตัวนับเพี้ยนและถูกสร้างใหม่
+     */
+    synchronized boolean reconcile(Collection<T> all, long seenChanges) {
+        if (changes != seenChanges) return false;
+        Map<String, Integer> expected = new HashMap<>();
+        int total = 0;
+        for (T t : all) {
+            expected.merge(groupKey(t), 1, Integer::sum);
+            total++;
+        }
+        if (total == groupByKey.size() && expected.equals(byGroup)) return false;
+        rebuild(all);
+        changed();
+        return true;
+    }
+
+    /** สร้างใหม่จากลิสต์ (ไม่มี key ของ store): ไม่มี id/id ซ้ำ → key ภายในแบบเดียวกับ store */
+    private void rebuild(Collection<T> all) {
+        groupByKey.clear();
+        byGroup.clear();
+        int unkeyed = 0;
+        for (T t : all) {
+            String key = t == null ? null : keyOf.apply(t);
+            if (key == null || key.isBlank() || groupByKey.containsKey(key)) key = "\u0000" + (unkeyed++);
+            add(key, t);
+        }
+    }
+
+    private void add(String key, T record) {
+        if (key == null) return;
+        String group = groupKey(record);
+        groupByKey.put(key, group);
+        byGroup.merge(group, 1, Integer::sum);
+    }
+
+    private void remove(String key) {
+        String group = groupByKey.remove(key);
+        if (group != null) byGroup.computeIfPresent(group, (g, n) -> n <= 1 ? null : n - 1);
+    }
+
+    private String groupKey(T record) {
+        return record == null ? "" : Objects.toString(groupOf.apply(record), "");
+    }
+
+    private void changed() {
+        dirty = true;
+        changes++;
+    }
+}
@@ -0,0 +1,124 @@
+package com.example.big_bike_auto.repository;
+
+import com.example.big_bike_auto.common.DurableFiles;
+import com.example.big_bike_auto.common.JsonUtil;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+
+
+/**
+ * Journal แบบ append-only ของไฟล์ข้อมูลหนึ่งไฟล์ (เช่น parts.json → parts.json.journal)
+ * หนึ่งบรรทัด = หนึ่งการเปลี่ยนแปลง: {"op":"put","key":"...","rec":{...}} หรือ {"op":"del","key":"..."}
+ * ตอนโหลดจะ replay ทับ snapshot; บรรทัดท้ายที่เขียนค้าง (ไม่มี \n เพราะเครื่องดับกลางคัน) จะถูกตัดทิ้ง
+ * บรรทัดเสียที่อยู่กลางไฟล์ (จบด้วย \n ครบ) ถูกข้ามพร้อม log แต่ไม่ลบออกจากไฟล์ และ replay บรรทัดหลังจากนั้นต่อ
+ */
+final class RecordJournal<T> {
+
+    static final String OP_PUT = "put";
+    static final String OP_DEL = "del";
+
+    private final Path file;
+    private final Class<T> elementType;
+
+    RecordJournal(Path file, Class<T> elementType) {
+        this.file = file;
+        this.elementType = elementType;
+    }
+
+    /** journal ของไฟล์ข้อมูลนี้ (parts.json → parts.json.journal) */
+    static Path pathFor(Path dataFile) {
+        return dataFile.resolveSibling(dataFile.getFileName() + ".journal");
+    }
+
+    Path file() { return file; }
+
+    /**
+     * replay ทุกบรรทัดลงใน target ตามลำดับ แล้วตัดเศษท้ายไฟล์ที่เขียนค้าง (ไม่มี \n) ทิ้ง
+     * @return จำนวน entry ที่ apply ได้
+     */
+    int replay(Map<String, T> target) throws IOException {
+        return replay(target, true);
+    }
+
+    /**
+     * @param truncateTornTail false = อ่านอย่างเดียว ไม่แก้ไฟล์ (เช่นตอนย้ายข้อมูลไปฐานข้อมูล ซึ่งไม่ได้เป็นเจ้าของไฟล์นี้)
+     */
+    int replay(Map<String, T> target, boolean truncateTornTail) throws IOException {
+        if (!Files.exists(file)) return 0;
+        byte[] bytes = Files.readAllBytes(file);
+
+        int applied = 0;
+        int start = 0;
+        int lineNo = 0;
+        for (int i = 0; i < bytes.length; i++) {
+            if (bytes[i] != '\n') continue;
+            String line = new String(bytes, start, i - start, StandardCharsets.UTF_8).trim();
+            start = i + 1;
+            lineNo++;
+            if (line.isEmpty()) continue;
+            try {
+                apply(JsonUtil.parseLine(line).getAsJsonObject(), target);
+                applied++;
+            } catch (RuntimeException corrupt) {
+                // บรรทัดเสียแต่เขียนจบแล้ว (ไม่ใช่เศษท้ายไฟล์) → ข้ามเฉพาะบรรทัดนี้ ไม่ลบ entry ที่ดีหลังจากนั้นทิ้ง
+                System.err.println("ข้ามบรรทัดที่ " + lineNo + " ของ " + file + " (อ่านไม่ได้: " + corrupt.getMessage() + ")");
+            }
+        }
+
+        // เศษหลัง \n สุดท้าย = append ที่เขียนไม่จบ → ตัดทิ้ง เพื่อให้ append ครั้งต่อไปเริ่มบรรทัดใหม่ได้ถูกต้อง
+        int goodEnd = start;
+        if (truncateTornTail && goodEnd < bytes.length) {
+            try (FileChannel ch = FileChannel.open(file, StandardOpenOption.WRITE)) {
+                ch.truncate(goodEnd);
+            }
+        }
+        return applied;
+    }
+
+    void appendPut(String key, T record) throws IOException {
+        JsonObject e = new JsonObject();
+        e.addProperty("op", OP_PUT);
+        e.addProperty("key", key);
+        e.add("rec", JsonUtil.toJsonTree(record));
+        append(e);
+    }
+
+    void appendDelete(String key) throws IOException {
+        JsonObject e = new JsonObject();
+        e.addProperty("op", OP_DEL);
+        e.addProperty("key", key);
+        append(e);
+    }
+
+    /** ลบ journal ทิ้ง (เรียกหลังเขียน snapshot ใหม่สำเร็จแล้วเท่านั้น) */
+    void reset() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    private void apply(JsonObject e, Map<String, T> target) {
+        String op = e.get("op").getAsString();
+        String key = e.get("key").getAsString();
+        if (OP_PUT.equals(op)) {
+            JsonElement rec = e.get("rec");
+            target.put(key, JsonUtil.fromJsonTree(rec, elementType));
+        } else if (OP_DEL.equals(op)) {
+            target.remove(key);
+        } else {
+            throw new IllegalStateException("ไม่รู้จัก op ใน journal: " + op);
+        }
+    }
+
+    private void append(JsonObject entry) throws IOException {
+        byte[] line = (JsonUtil.toJsonLine(entry) + "\n").getBytes(StandardCharsets.UTF_8);
+        // fsync ทุกบรรทัด หรือรวมเป็นชุดตาม bba.storage.durability
+        DurableFiles.append(file, line);
+    }
+}
@@ -0,0 +1,23 @@
+package com.example.big_bike_auto.repository;
+
+import java.util.Map;
+
+
+/**
+ * ผู้ติดตามการเปลี่ยนแปลงของ store (เช่น index/ตัวนับที่ต้องอัปเดตตามทุกครั้งที่บันทึก)
+ * ถูกเรียกภายใต้ write lock ของ store หลังเขียนไฟล์สำเร็จ → ห้ามเรียก repository กลับจากในนี้
+ */
+public interface RecordListener<T> {
+
+    /** record ถูกเพิ่มหรือแทนที่ (อาจเป็น instance เดิมที่ถูกแก้ในที่) */
+    void onPut(String key, T record);
+
+    /** record ถูกลบ */
+    void onRemove(String key);
+
+    /**
+     * ข้อมูลทั้งชุดถูกโหลด/แทนที่ (โหลดครั้งแรก, ไฟล์เปลี่ยนจากภายนอก, saveAll) → สร้างใหม่ทั้งหมด
+     * all = key ของ store → record ตามลำดับใน store (read-only; record ที่ไม่มี id ได้ key ภายใน "\0N")
+     */
+    void onReset(Map<String, T> all);
+}
@@ -0,0 +1,80 @@
+package com.example.big_bike_auto.repository;
+
+import com.example.big_bike_auto.common.DataPaths;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+
+
+/**
+ * SPI ของที่เก็บ record หนึ่งชนิด (หนึ่งไฟล์/หนึ่งตาราง) ที่ repository ทุกตัวใช้
+ * - json (ค่าเริ่มต้น): {@link JsonFileStore} ไฟล์ใน data/ + journal
+ * - h2: {@link JdbcRecordStore} ฐานข้อมูลฝังตัว มี index จริงบนคอลัมน์ค้นหา
+ *
+ * เลือกด้วย -Dbba.storage.backend=json|h2
+ * ทั้งสองแบบมีแคชในหน่วยความจำ, เวอร์ชันต่อ record (compare-and-swap) และแจ้ง RecordListener เหมือนกัน
+ */
+interface RecordStore<T> {
+
+    /** ชนิด backend ที่เลือกไว้ (อ่านครั้งเดียวตอนเริ่ม) */
+    enum Backend {
+        JSON, H2;
+
+        static Backend current() {
+            String v = System.getProperty("bba.storage.backend", "json").trim().toLowerCase(Locale.ROOT);
+            return switch (v) {
+                case "h2", "sql", "jdbc" -> H2;
+                default -> JSON;
+            };
+        }
+    }
+
+    /**
+     * เปิด store ของชุดข้อมูลนี้ตาม backend ที่เลือก (หนึ่ง instance ต่อชุดข้อมูล แชร์ทั้งโปรเซส)
+     * @param fileName ชื่อไฟล์ใน data/ (เช่น parts.json) ใช้เป็นชื่อตารางใน backend SQL ด้วย
+     * @param columns  คอลัมน์ที่ค้นหาผ่าน {@link #query(Query)} ได้ (SQL สร้าง index ให้ทุกคอลัมน์)
+     */
+    static <T> RecordStore<T> open(String fileName, Class<T> elementType, Function<T, String> keyOf,
+                                   VersionAccess<T> versions, List<IndexedColumn<T>> columns) {
+        return switch (Backend.current()) {
+            case H2 -> JdbcRecordStore.of(fileName, elementType, keyOf, versions, columns);
+            case JSON -> JsonFileStore.of(DataPaths.file(fileName).toString(), elementType, keyOf, versions, columns);
+        };
+    }
+
+    /** ทั้งหมดแบบ read-only ตามลำดับที่บันทึก (element แชร์กับผู้อ่านคนอื่น → ห้ามแก้ในที่) */
+    List<T> findAll();
+
+    /** record ตาม key (ไม่มี → null) */
+    T get(String key);
+
+    /** record ที่ตรงเงื่อนไข ตามลำดับเดียวกับ findAll */
+    List<T> query(Query query);
+
+    /** จำนวน record ที่ตรงเงื่อนไข */
+    long count(Query query);
+
+    /** เขียนทับทั้งชุด */
+    void saveAll(List<T> items);
+
+    /** เพิ่ม/แทนที่ตาม key โดยไม่ตรวจเวอร์ชัน */
+    void put(T record);
+
+    /** เพิ่มเฉพาะเมื่อยังไม่มี key นี้ */
+    boolean putIfAbsent(T record);
+
+    /** บันทึกเมื่อเวอร์ชันใน storage ยังเท่ากับ expectedVersion (ไม่งั้น false และไม่เขียนอะไร) */
+    boolean compareAndPut(T record, long expectedVersion);
+
+    /** read-modify-write แบบ optimistic (ชน → อ่านใหม่แล้วทำซ้ำ); ไม่มี key → null */
+    T update(String key, UnaryOperator<T> mutator);
+
+    /** ลบตาม key (ไม่มี → ไม่ทำอะไร) */
+    void remove(String key);
+
+    /** ผูก listener (หนึ่ง instance ต่อชนิดต่อ store) */
+    <L extends RecordListener<T>> L attach(Class<L> type, Supplier<L> factory);
+}
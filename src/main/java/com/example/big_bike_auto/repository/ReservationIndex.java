@@ -0,0 +1,96 @@
+package com.example.big_bike_auto.repository;
+
+import com.example.big_bike_auto.model.Customer;
+import com.example.big_bike_auto.model.Repair;
+import com.example.big_bike_auto.model.RepairPart;
+import com.example.big_bike_auto.model.RepairStatus;
+
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+
+/**
+ * ยอดอะไหล่ที่ถูกจองไว้ให้งานซ่อมที่ยังเปิดอยู่ (RECEIVED / IN_PROGRESS / WAITING_PARTS)
+ * รวมจาก repair.parts ของลูกค้าแต่ละคน โดยใช้ชื่ออะไหล่ที่ normalize แล้วเป็น key
+ * อัปเดตทีละ record เมื่อบันทึกงานซ่อม และสร้างใหม่ทั้งหมดเมื่อ store โหลดไฟล์
+ */
+final class ReservationIndex implements RecordListener<Customer> {
+
+    static final Set<RepairStatus> ACTIVE =
+            EnumSet.of(RepairStatus.RECEIVED, RepairStatus.IN_PROGRESS, RepairStatus.WAITING_PARTS);
+
+    // ยอดของแต่ละงาน (เฉพาะงานที่ยังเปิดอยู่) + ยอดรวมต่อ key
+    private final Map<String, Map<String, Double>> byJob = new HashMap<>();
+    private final Map<String, Double> byPart = new HashMap<>();
+    private Map<String, Integer> published = Map.of();
+    private boolean dirty;
+
+    /** key ของอะไหล่: trim + ตัวพิมพ์เล็ก (ใช้ทั้งฝั่งงานซ่อมและฝั่ง inventory) */
+    static String partKey(String s) {
+        return s == null ? "" : s.trim().toLowerCase(Locale.ROOT);
+    }
+
+    @Override
+    public synchronized void onPut(String key, Customer customer) {
+        removeContribution(key);
+        addContribution(key, customer);
+        dirty = true;
+    }
+
+    @Override
+    public synchronized void onRemove(String key) {
+        removeContribution(key);
+        dirty = true;
+    }
+
+    @Override
+    public synchronized void onReset(Map<String, Customer> all) {
+        byJob.clear();
+        byPart.clear();
+        all.forEach((key, c) -> {
+            if (c != null) addContribution(key, c);
+        });
+        dirty = true;
+    }
+
+    /** partKey → จำนวนที่จอง (ปัดขึ้นเป็นจำนวนเต็ม) */
+    synchronized Map<String, Integer> snapshot() {
+        if (dirty) {
+            Map<String, Integer> m = new HashMap<>();
+            byPart.forEach((k, qty) -> {
+                int n = (int) Math.ceil(qty - 1e-9);
+                if (n > 0) m.put(k, n);
+            });
+            published = Map.copyOf(m);
+            dirty = false;
+        }
+        return published;
+    }
+
+    private void addContribution(String key, Customer customer) {
+        if (key == null || key.isEmpty()) return;
+        if (!ACTIVE.contains(customer.getRepairStatus())) return;
+        Repair repair = customer.getRepair();
+        if (repair == null) return;
+
+        Map<String, Double> own = new HashMap<>();
+        for (RepairPart line : repair.getParts()) {
+            String part = partKey(line.getPartName());
+            double qty = line.getQuantity();
+            if (part.isEmpty() || qty <= 0) continue;
+            own.merge(part, qty, Double::sum);
+        }
+        if (own.isEmpty()) return;
+        byJob.put(key, own);
+        own.forEach((part, qty) -> byPart.merge(part, qty, Double::sum));
+    }
+
+    private void removeContribution(String key) {
+        Map<String, Double> old = byJob.remove(key);
+        if (old == null) return;
+        old.forEach((part, qty) -> byPart.computeIfPresent(part, (k, v) -> v - qty <= 1e-9 ? null : v - qty));
+    }
+}
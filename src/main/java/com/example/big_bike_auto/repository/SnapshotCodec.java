@@ -0,0 +1,91 @@
+package com.example.big_bike_auto.repository;
+
+import com.example.big_bike_auto.model.OrderItem;
+import com.example.big_bike_auto.model.Part;
+import com.example.big_bike_auto.model.PurchaseOrder;
+
+import java.io.IOException;
+
+
+/**
+ * แปลง record ชนิดหนึ่งเป็น/จาก binary snapshot ({@link BinarySnapshot})
+ * เปลี่ยนลำดับ/ชนิด field เมื่อไร ต้องเพิ่ม schemaVersion → snapshot เดิมจะถูกข้ามแล้วอ่าน JSON แทน
+ */
+interface SnapshotCodec<T> {
+
+    int schemaVersion();
+
+    void write(BinarySnapshot.Out out, T record) throws IOException;
+
+    T read(BinarySnapshot.In in);
+
+    /** codec ของชนิดนี้ (ไม่มี → null = ใช้ JSON อย่างเดียว) */
+    @SuppressWarnings("unchecked")
+    static <T> SnapshotCodec<T> forType(Class<T> type) {
+        if (type == Part.class) return (SnapshotCodec<T>) PARTS;
+        if (type == PurchaseOrder.class) return (SnapshotCodec<T>) PURCHASE_ORDERS;
+        return null;
+    }
+
+    // ---------- codec ของแต่ละ model ----------
+
+    SnapshotCodec<Part> PARTS = new SnapshotCodec<>() {
+        @Override
+        public int schemaVersion() { return 1; }
+
+        @Override
+        public void write(BinarySnapshot.Out out, Part p) throws IOException {
+            out.text(p.getSku());
+            out.text(p.getName());
+            out.string(p.getUnit());
+            out.varint(p.getOnHand());
+            out.varint(p.getReserved());
+            out.varint(p.getMinStock());
+            out.decimal(p.getLastCost());
+            out.string(p.getSupplier());
+            out.varlong(p.getVersion());
+        }
+
+        @Override
+        public Part read(BinarySnapshot.In in) {
+            Part p = new Part(in.text(), in.text(), in.string(),
+                    in.varint(), in.varint(), in.varint(), in.decimal(), in.string());
+            p.setVersion(in.varlong());
+            return p;
+        }
+    };
+
+    SnapshotCodec<PurchaseOrder> PURCHASE_ORDERS = new SnapshotCodec<>() {
+        @Override
+        public int schemaVersion() { return 1; }
+
+        @Override
+        public void write(BinarySnapshot.Out out, PurchaseOrder po) throws IOException {
+            out.text(po.getId());
+            out.string(po.getSupplier());
+            out.date(po.getOrderDate());
+            out.bool(po.isReceived());
+            out.varlong(po.getVersion());
+            out.varint(po.getItems().size());
+            for (OrderItem item : po.getItems()) {
+                out.string(item.getSku());
+                out.text(item.getName());
+                out.string(item.getUnit());
+                out.varint(item.getQuantity());
+                out.float64(item.getUnitPrice());
+            }
+        }
+
+        @Override
+        public PurchaseOrder read(BinarySnapshot.In in) {
+            PurchaseOrder po = new PurchaseOrder(in.text(), in.string(), in.date());
+            if (in.bool()) po.markAsReceived();
+            po.setVersion(in.varlong());
+            int items = in.varint();
+            for (int i = 0; i < items; i++) {
+                po.addItem(new OrderItem(in.string(), in.text(), in.string(), in.varint(), in.float64()));
+            }
+            return po;
+        }
+    };
+}
@@ -0,0 +1,20 @@
+package com.example.big_bike_auto.repository;
+
+import java.util.function.ObjLongConsumer;
+import java.util.function.ToLongFunction;
+
+
+/** อ่าน/เขียนเลขเวอร์ชันของ record (0 = ข้อมูลเก่าที่ยังไม่เคยมีเวอร์ชัน) ใช้ตรวจการเขียนชนกัน */
+interface VersionAccess<T> {
+
+    long get(T record);
+
+    void set(T record, long version);
+
+    static <T> VersionAccess<T> of(ToLongFunction<T> getter, ObjLongConsumer<T> setter) {
+        return new VersionAccess<>() {
+            @Override public long get(T record) { return getter.applyAsLong(record); }
+            @Override public void set(T record, long version) { setter.accept(record, version); }
+        };
+    }
+}
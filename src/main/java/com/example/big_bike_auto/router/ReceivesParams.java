@@ -5,7 +5,7 @@ import java.util.Map;
 
 public interface ReceivesParams {
     /**
-     * เรียกทันทีหลังโหลด FXML และก่อนแสดงผล
+     * เรียกก่อนแสดงผลทุกครั้งที่ navigate มาพร้อม params (view ที่อยู่ใน cache ก็ถูกเรียกซ้ำ)
      * @param params key-value ที่ Router ส่งมา เช่น {"customerId": "..."}
      */
     void onParams(Map<String, Object> params);
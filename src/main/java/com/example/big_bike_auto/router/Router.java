@@ -5,7 +5,9 @@ import javafx.fxml.FXMLLoader;
 import javafx.scene.Parent;
 
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.Set;
 
 
 public class Router {
@@ -23,6 +25,28 @@ public class Router {
 
     }
 
+    /**
+     * จำนวนหน้าที่เก็บ view+controller ไว้ใช้ซ้ำ (ไม่ต้อง parse FXML/initialize ใหม่ทุกครั้งที่กลับมา)
+     * เกินแล้วทิ้งหน้าที่ไม่ได้เปิดนานที่สุด (LRU); -Dbba.router.maxViews=0 = โหลดใหม่ทุกครั้งแบบเดิม
+     */
+    private static final int MAX_VIEWS = Math.max(0, Integer.getInteger("bba.router.maxViews", 6));
+
+    /**
+     * หน้าฟอร์มที่แก้/บันทึกข้อมูล: โหลดใหม่ทุกครั้ง ไม่เก็บไว้ใช้ซ้ำ
+     * (ฟอร์มที่ค้างค่าจากครั้งก่อนอาจถูกบันทึกทับข้อมูลที่ใหม่กว่า)
+     */
+    private static final Set<String> UNCACHED = Set.of("register", "repairDetails");
+
+    private record Page(String route, Parent view, Object controller) {}
+
+    private final Map<String, Page> views = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Page> eldest) {
+            return size() > MAX_VIEWS;
+        }
+    };
+    private Page current;
+
     public Router(HomeController home) {
         this.home = home;
     }
@@ -36,16 +60,30 @@ public class Router {
         if (fxml == null) {
             throw new IllegalArgumentException("ไม่รู้จักหน้า: " + page);
         }
+        Page next = views.get(page);
+        if (next == null) {
+            next = load(page, fxml);
+            if (MAX_VIEWS > 0 && !UNCACHED.contains(page)) views.put(page, next);
+        }
+
+        if (current != null && current != next && current.controller() instanceof ViewLifecycle lc) {
+            lc.onHide();
+        }
+        if (params != null && next.controller() instanceof ReceivesParams rp) {
+            rp.onParams(params);
+        }
+        home.setContent(next.view());
+        current = next;
+        if (next.controller() instanceof ViewLifecycle lc) {
+            lc.onShow();
+        }
+    }
+
+    private Page load(String page, String fxml) {
         try {
             FXMLLoader loader = new FXMLLoader(getClass().getResource(fxml));
             Parent view = loader.load();
-
-            Object controller = loader.getController();
-            if (params != null && controller instanceof ReceivesParams rp) {
-                rp.onParams(params);
-            }
-
-            home.setContent(view);
+            return new Page(page, view, loader.getController());
         } catch (Exception ex) {
             throw new RuntimeException("ไม่สามารถโหลดหน้า: " + page + " (" + fxml + ")", ex);
         }
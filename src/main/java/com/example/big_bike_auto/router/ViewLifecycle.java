@@ -0,0 +1,15 @@
+package com.example.big_bike_auto.router;
+
+
+/**
+ * controller ที่อยากรู้ว่าหน้าของตัวเองถูกแสดง/ซ่อน (Router เก็บ view ไว้ใช้ซ้ำ จึงไม่ได้ initialize ใหม่ทุกครั้ง)
+ * ใช้โหลดข้อมูลใหม่เฉพาะเมื่อข้อมูลเปลี่ยน และยกเลิกงานที่ค้างเมื่อผู้ใช้ออกจากหน้า
+ */
+public interface ViewLifecycle {
+
+    /** หน้าถูกแสดง (รวมครั้งแรก) เรียกหลัง {@link ReceivesParams#onParams} */
+    default void onShow() {}
+
+    /** เปลี่ยนไปหน้าอื่นแล้ว (view อาจถูกเก็บไว้ใช้ซ้ำหรือถูกทิ้ง) */
+    default void onHide() {}
+}
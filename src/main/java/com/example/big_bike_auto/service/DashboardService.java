@@ -0,0 +1,84 @@
+package com.example.big_bike_auto.service;
+
+import com.example.big_bike_auto.model.RepairStatus;
+import com.example.big_bike_auto.repository.CustomerRepository;
+import com.example.big_bike_auto.repository.PartRepository;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * ตัวเลขสรุปของหน้า dashboard จากตัวนับที่ repository อัปเดตทุกครั้งที่บันทึก (O(1) ไม่อ่านไฟล์/ไม่ไล่ทุก record)
+ * มีงานเบื้องหลังนับใหม่เป็นระยะเพื่อแก้ตัวนับที่เพี้ยน (-Dbba.stats.reconcileSeconds, 0 = ปิด)
+ */
+public class DashboardService {
+
+    /** งานที่ยังรอดำเนินการ (นับเป็น "งานค้าง" บน dashboard) */
+    public static final List<RepairStatus> PENDING = List.of(RepairStatus.RECEIVED, RepairStatus.IN_PROGRESS);
+
+    private static final long RECONCILE_SECONDS = Long.getLong("bba.stats.reconcileSeconds", 300L);
+    private static volatile ScheduledExecutorService reconciler;
+
+    private final CustomerRepository customerRepo = new CustomerRepository();
+    private final PartRepository partRepo = new PartRepository();
+
+    /** ตัวเลขบน dashboard; byStatus มีเฉพาะ code ที่ตรงกับ {@link RepairStatus} */
+    public record Summary(long totalRepairs, long pendingRepairs, long inventoryItems,
+                          Map<RepairStatus, Integer> byStatus) {}
+
+    public Summary summary() {
+        ensureReconciler();
+        Map<String, Integer> counts = customerRepo.countsByStatus();
+        Map<RepairStatus, Integer> byStatus = new EnumMap<>(RepairStatus.class);
+        for (RepairStatus s : RepairStatus.values()) {
+            Integer n = counts.get(s.code());
+            if (n != null) byStatus.put(s, n);
+        }
+        long pending = 0;
+        for (RepairStatus s : PENDING) pending += byStatus.getOrDefault(s, 0);
+        return new Summary(customerRepo.count(), pending, partRepo.count(), Collections.unmodifiableMap(byStatus));
+    }
+
+    /** เปลี่ยนเมื่อข้อมูลที่ dashboard แสดง (งานซ่อม/อะไหล่) เปลี่ยน */
+    public long dataRevision() {
+        return customerRepo.revision() + partRepo.revision();
+    }
+
+    /** นับใหม่จากข้อมูลจริงแล้วแก้ตัวนับที่เพี้ยน; true = มีตัวนับที่ถูกแก้ */
+    public boolean reconcile() {
+        boolean customers = customerRepo.reconcileCounts();
+        boolean parts = partRepo.reconcileCounts();
+        if (customers || parts) {
+            System.err.println("ตัวนับ dashboard ไม่ตรงกับข้อมูล → นับใหม่แล้ว (customers=" + customers + ", parts=" + parts + ")");
+        }
+        return customers || parts;
+    }
+
+    private static void ensureReconciler() {
+        if (reconciler != null || RECONCILE_SECONDS <= 0) return;
+        synchronized (DashboardService.class) {
+            if (reconciler != null) return;
+            ScheduledExecutorService ex = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread t = new Thread(r, "dashboard-stats-reconcile");
+                t.setDaemon(true);
+                return t;
+            });
+            DashboardService service = new DashboardService();
+            ex.scheduleWithFixedDelay(() -> {
+                try {
+                    service.reconcile();
+                } catch (RuntimeException e) {
+                    // อ่านข้อมูลไม่ได้ชั่วคราว (ไฟล์ถูกล็อก/ฐานข้อมูลปิด) → ลองใหม่รอบหน้า
+                    System.err.println("นับตัวเลข dashboard ใหม่ไม่สำเร็จ: " + e.getMessage());
+                }
+            }, RECONCILE_SECONDS, RECONCILE_SECONDS, TimeUnit.SECONDS);
+            reconciler = ex;
+        }
+    }
+}
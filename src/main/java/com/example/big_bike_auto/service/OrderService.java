@@ -7,12 +7,11 @@ import com.example.big_bike_auto.repository.PurchaseOrderRepository;
 
 import java.io.BufferedWriter;
 import java.io.IOException;
-import java.lang.reflect.Constructor;
-import java.lang.reflect.Method;
 import java.nio.file.*;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.stream.Collectors;
 
 
@@ -20,31 +19,22 @@ public class OrderService {
 
     private final PurchaseOrderRepository orderRepo = new PurchaseOrderRepository();
     private static final DateTimeFormatter ID_DAY = DateTimeFormatter.ofPattern("yyyyMMdd");
+    private static final int MAX_ATTEMPTS = 8;
 
     /* ========= Query ========= */
 
+    /** เปลี่ยนเมื่อมี PO ถูกบันทึก/แก้ → หน้าจอที่เก็บรายการไว้รู้ว่าต้องโหลดใหม่ */
+    public long dataRevision() {
+        return orderRepo.revision();
+    }
+
     public List<PurchaseOrder> listPOs(String status, String supplier, LocalDate from, LocalDate to) {
         String normalized = normalizeStatus(status);
 
-        return orderRepo.findAll().stream()
-                .filter(po -> {
-                    if (supplier != null && !supplier.isBlank()) {
-                        if (!supplier.equals(po.getSupplier())) return false;
-                    }
-                    if (!"ALL".equals(normalized)) {
-                        boolean wantReceived = "RECEIVED".equals(normalized);
-                        boolean isReceived = po.isReceived();
-                        if (wantReceived && !isReceived) return false;
-                        if (!wantReceived && isReceived) return false; // normalized OPEN
-                    }
-                    if (from != null) {
-                        if (po.getOrderDate() == null || po.getOrderDate().isBefore(from)) return false;
-                    }
-                    if (to != null) {
-                        if (po.getOrderDate() == null || po.getOrderDate().isAfter(to)) return false;
-                    }
-                    return true;
-                })
+        // กรองผ่านคอลัมน์ที่มี index ของ repository แล้วเรียงเฉพาะผลลัพธ์
+        Boolean received = "ALL".equals(normalized) ? null : "RECEIVED".equals(normalized);
+        String bySupplier = supplier != null && !supplier.isBlank() ? supplier : null;
+        return orderRepo.find(bySupplier, received, from, to).stream()
                 .sorted(Comparator.comparing(PurchaseOrder::getOrderDate,
                         Comparator.nullsLast(Comparator.naturalOrder())).reversed())
                 .collect(Collectors.toList());
@@ -66,43 +56,59 @@ public class OrderService {
     /**
      * สร้าง/ต่อเติม PO แบบ OPEN (received=false) ต่อ supplier
      * - ถ้ามี PO ของ supplier ที่ received=false อยู่แล้ว → append รายการ
-     * - ถ้าไม่มี → สร้างใหม่ id = PO-YYYYMMDD-XXX
+     * - ถ้าไม่มี → สร้างใหม่ id = PO-YYYYMMDD-XXX (ต่อจากเลขที่มากที่สุดของวันนี้; id ชน → ขยับเลขถัดไป)
+     * PO เปิดที่ไม่มี id (ข้อมูลเก่า) ต่อเติมไม่ได้ → ถือว่าไม่มี แล้วสร้างใบใหม่
      */
     public void createOrAppendDraftPO(String supplier, List<OrderRow> rows) {
         if (rows == null || rows.isEmpty()) return;
 
-        PurchaseOrder open = findOpenBySupplier(supplier);
-        if (open == null) {
-            open = new PurchaseOrder(nextId(), supplier, LocalDate.now()); // received=false โดยดีฟอลต์
-        }
-
+        List<OrderItem> items = new ArrayList<>();
         for (OrderRow r : rows) {
             if (r.getOrderQty() <= 0) continue;
 
             // ⚠️ OrderRow ไม่มี unit → เลือก default unit เช่น "pcs"
             String unit = "pcs";
 
-            // ✅ ใช้ factory แบบยืดหยุ่น สร้าง OrderItem ตาม constructor ที่มีจริง
-            OrderItem item = createOrderItemFlexible(r.getPartCode(), r.getName(), unit, r.getOrderQty(), 0.0);
-            open.addItem(item);
+            items.add(new OrderItem(r.getPartCode(), r.getName(), unit, r.getOrderQty(), 0.0));
         }
 
-        save(open);
+        // optimistic: PO ที่เจออาจถูกรับเข้า/ถูกสร้างชน id จากอีก thread/เครื่อง → ลองใหม่ด้วยข้อมูลล่าสุด
+        int lastTried = 0;
+        for (int attempt = 0; attempt < MAX_ATTEMPTS; attempt++) {
+            PurchaseOrder open = findOpenBySupplier(supplier);
+            if (open != null) {
+                AtomicBoolean appended = new AtomicBoolean();
+                orderRepo.update(open.getId(), po -> {
+                    appended.set(!po.isReceived());
+                    if (appended.get()) items.forEach(po::addItem);
+                    return po;
+                });
+                if (appended.get()) return;
+                continue;
+            }
+
+            LocalDate today = LocalDate.now();
+            lastTried = Math.max(lastTried + 1, nextSequence(today));
+            PurchaseOrder created = new PurchaseOrder(idFor(today, lastTried), supplier, today); // received=false โดยดีฟอลต์
+            items.forEach(created::addItem);
+            if (orderRepo.insert(created)) return;
+        }
+        throw new ConcurrentModificationException("สร้าง/ต่อเติม PO ไม่สำเร็จ: มีการแก้ PO ของ " + supplier + " พร้อมกันหลายครั้ง");
     }
 
     /** submitPO: โมเดลจริงไม่มีสถานะย่อย → ไม่เปลี่ยนแปลง (กันเผื่อ UX ในอนาคต) */
     public void submitPO(String orderId) {
-        PurchaseOrder po = findById(orderId);
-        if (po == null) return;
-        save(po);
+        if (findById(orderId) == null) return;
+        orderRepo.update(orderId, po -> po);
     }
 
     /** mark เป็น received แล้วบันทึก */
     public void receivePO(String orderId, String note) {
-        PurchaseOrder po = findById(orderId);
-        if (po == null) return;
-        po.markAsReceived();
-        save(po);
+        // compare-and-swap บน PO ใบนี้ใบเดียว (ไม่ทับรายการที่ถูกต่อเติมแทรกเข้ามา)
+        orderRepo.update(orderId, po -> {
+            po.markAsReceived();
+            return po;
+        });
         // (ถ้าต้องปรับ stock ให้ไปเรียก repository ที่เกี่ยวข้อง)
     }
 
@@ -159,121 +165,35 @@ public class OrderService {
 
     private PurchaseOrder findById(String id) {
         if (id == null) return null;
-        return orderRepo.findAll().stream()
-                .filter(po -> id.equals(po.getId()))
-                .findFirst().orElse(null);
+        return orderRepo.findById(id).orElse(null);
     }
 
     private PurchaseOrder findOpenBySupplier(String supplier) {
         if (supplier == null) return null;
-        return orderRepo.findAll().stream()
-                .filter(po -> supplier.equals(po.getSupplier()) && !po.isReceived())
+        return orderRepo.findOpenBySupplier(supplier).stream()
+                .filter(po -> po.getId() != null && !po.getId().isBlank())
                 .findFirst().orElse(null);
     }
 
-    private String nextId() {
-        String today = LocalDate.now().format(ID_DAY);
-        long countToday = orderRepo.findAll().stream()
-                .filter(po -> po.getOrderDate() != null && today.equals(po.getOrderDate().format(ID_DAY)))
-                .count();
-        return "PO-" + today + "-" + String.format("%03d", countToday + 1);
-    }
-
-    private void save(PurchaseOrder po) {
-        List<PurchaseOrder> all = new ArrayList<>(orderRepo.findAll());
-        boolean replaced = false;
-        for (int i = 0; i < all.size(); i++) {
-            if (Objects.equals(all.get(i).getId(), po.getId())) {
-                all.set(i, po);
-                replaced = true;
-                break;
-            }
-        }
-        if (!replaced) all.add(po);
-        orderRepo.saveAll(all);
-    }
-
-    private static String safe(String s) {
-        return s == null ? "" : s.replace(",", " ");
-    }
-
-    /* ========= Flexible OrderItem Factory (Reflection) ========= */
-
     /**
-     * พยายามสร้าง OrderItem ตาม constructor/signature ที่มีจริงในโปรเจกต์
-     * ลำดับที่ลอง:
-     * 0) (String, String, String, int, double)  <-- ของโปรเจกต์นี้
-     * 1) (String, String, int, double)
-     * 2) (String, String, int)
-     * 3) (String, int, double)
-     * 4) (String, int)
-     * 5) () + setters: setPartCode/setName/setQuantity/setUnitPrice ถ้ามี
+     * เลขลำดับถัดไปของวันนั้น: มากกว่าทั้งเลขที่มากที่สุดที่มีอยู่แล้ว และจำนวน PO ของวันนั้น
+     * (PO ถูกลบ/นำเข้าไม่เรียง → จำนวนอย่างเดียวอาจได้เลขที่มีอยู่แล้ว)
      */
-    private OrderItem createOrderItemFlexible(String partCode, String name, String unit, int quantity, double unitPrice) {
-        Class<OrderItem> clazz = OrderItem.class;
-
-        // 0) (String, String, String, int, double)  <-- ตรงกับ OrderItem จริงในโปรเจกต์
-        OrderItem inst = tryCtor(clazz,
-                new Class[]{String.class, String.class, String.class, int.class, double.class},
-                new Object[]{partCode, name, unit, quantity, unitPrice});
-        if (inst != null) return inst;
-
-        // 1) (String, String, int, double)
-        inst = tryCtor(clazz,
-                new Class[]{String.class, String.class, int.class, double.class},
-                new Object[]{partCode, name, quantity, unitPrice});
-        if (inst != null) return inst;
-
-        // 2) (String, String, int)
-        inst = tryCtor(clazz,
-                new Class[]{String.class, String.class, int.class},
-                new Object[]{partCode, name, quantity});
-        if (inst != null) return inst;
-
-        // 3) (String, int, double)
-        inst = tryCtor(clazz,
-                new Class[]{String.class, int.class, double.class},
-                new Object[]{partCode, quantity, unitPrice});
-        if (inst != null) return inst;
-
-        // 4) (String, int)
-        inst = tryCtor(clazz,
-                new Class[]{String.class, int.class},
-                new Object[]{partCode, quantity});
-        if (inst != null) return inst;
-
-        // 5) () + setters (โปรเจกต์นี้ไม่มี setter สำหรับ sku/name/unit จึงใช้ไม่ครบ)
-        inst = tryCtor(clazz, new Class[]{}, new Object[]{});
-        if (inst != null) {
-            callSetterIfExists(inst, "setPartCode", String.class, partCode);
-            callSetterIfExists(inst, "setName", String.class, name);
-            callSetterIfExists(inst, "setQuantity", int.class, quantity);
-            callSetterIfExists(inst, "setUnitPrice", double.class, unitPrice);
-            callSetterIfExists(inst, "setUnit", String.class, unit);
-            callSetterIfExists(inst, "setSku", String.class, partCode);
-            return inst;
-        }
+    private int nextSequence(LocalDate day) {
+        long countToday = orderRepo.countByOrderDate(day);
+        int highest = orderRepo.highestIdNumber(idPrefix(day));
+        return (int) Math.max(highest, countToday) + 1;
+    }
 
-        throw new RuntimeException("Cannot instantiate OrderItem with any known constructor/signature");
+    private static String idPrefix(LocalDate day) {
+        return "PO-" + day.format(ID_DAY) + "-";
     }
 
-    private static <T> T tryCtor(Class<T> cls, Class<?>[] sig, Object[] args) {
-        try {
-            Constructor<T> c = cls.getDeclaredConstructor(sig);
-            c.setAccessible(true);
-            return c.newInstance(args);
-        } catch (ReflectiveOperationException ignored) {
-            return null;
-        }
+    private static String idFor(LocalDate day, int sequence) {
+        return idPrefix(day) + String.format("%03d", sequence);
     }
 
-    private static void callSetterIfExists(Object obj, String name, Class<?> argType, Object value) {
-        try {
-            Method m = obj.getClass().getMethod(name, argType);
-            m.setAccessible(true);
-            m.invoke(obj, value);
-        } catch (ReflectiveOperationException ignored) {
-            // ไม่มี setter ดังกล่าวก็ข้าม
-        }
+    private static String safe(String s) {
+        return s == null ? "" : s.replace(",", " ");
     }
 }
@@ -3,6 +3,10 @@ module com.example.big_bike_auto {
     requires javafx.fxml;
     requires com.google.gson;
 
+    // ฐานข้อมูลฝังตัว (เลือกด้วย -Dbba.storage.backend=h2)
+    requires java.sql;
+    requires com.h2database;
+
 
     // UI libraries (ถ้ามีใช้งานจริง)
     requires org.controlsfx.controls;
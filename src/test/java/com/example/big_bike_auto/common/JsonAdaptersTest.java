@@ -0,0 +1,86 @@
+package com.example.big_bike_auto.common;
+
+import com.example.big_bike_auto.model.Customer;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParser;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+/** adapter ของ customers.json: field ที่ไม่รู้จักอยู่รอดหลังบันทึก และค่าวันที่ที่อ่านไม่ได้ไม่ทำให้ทั้งไฟล์ล้ม */
+class JsonAdaptersTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void unparseableDatesBecomeNull() throws IOException {
+        List<Customer> list = read("""
+                [{"id":"1","receivedDate":"12/05/2023","registeredAt":"เมื่อวาน",
+                  "repair":{"lastUpdated":"2024-13-45 99:99"}},
+                 {"id":"2","receivedDate":"2023-05-12","registeredAt":"2023-05-12T08:30:00+07:00",
+                  "repair":{"lastUpdated":"2023-05-13"}}]
+                """);
+
+        assertEquals(2, list.size());
+        Customer bad = list.get(0);
+        assertNull(bad.getReceivedDate());
+        assertNull(bad.getRegisteredAt());
+        assertNull(bad.getRepair().getLastUpdated());
+
+        Customer good = list.get(1);
+        assertEquals(LocalDate.of(2023, 5, 12), good.getReceivedDate());
+        assertEquals(LocalDateTime.of(2023, 5, 12, 8, 30), good.getRegisteredAt());
+        assertEquals(LocalDateTime.of(2023, 5, 13, 0, 0), good.getRepair().getLastUpdated());
+    }
+
+    @Test
+    void unknownFieldsSurviveReadWrite() throws IOException {
+        String json = """
+                [{"id":"1","customerCode":"CLCXWSI89B","name":"สมชาย","phone":null,"plate":"กข 123",
+                  "province":"กรุงเทพ","bikeModel":"CB650R","receivedDate":"2024-01-02",
+                  "registeredAt":"2024-01-02T09:00","status":"IN_PROGRESS","symptom":"เบรกไม่อยู่",
+                  "repair":{"parts":[{"partName":"ผ้าเบรก","quantity":1.5,"unit":"ชุด","unitPrice":450.0,
+                                      "warrantyMonths":6}],
+                            "grandTotal":675.0,"notes":"-","lastUpdated":"2024-01-03T10:15",
+                            "mechanic":{"id":7,"name":"ช่างเอ"}},
+                  "repairs":[{"symptom":"ยางรั่ว","status":"DONE","parts":[],"grandTotal":0.0,"notes":null,
+                              "lastUpdated":null,"invoiceNo":"INV-0001"}],
+                  "version":3,
+                  "lineUserId":"U123","tags":["vip",1,true,null],"discount":12.50}]
+                """;
+        List<Customer> list = read(json);
+        Customer c = list.get(0);
+        assertEquals("U123", c.getExtras().get("lineUserId").getAsString());
+        assertEquals("INV-0001", c.getRepairs().get(0).getExtras().get("invoiceNo").getAsString());
+
+        // แก้ field ที่รู้จักแล้วบันทึก → field อื่นยังอยู่ครบ
+        c.setStatus("DONE");
+        Path out = dir.resolve("out.json");
+        JsonUtil.writeList(out.toString(), list);
+        JsonElement expected = JsonParser.parseString(json);
+        expected.getAsJsonArray().get(0).getAsJsonObject().addProperty("status", "DONE");
+        assertEquals(expected, JsonParser.parseString(Files.readString(out, StandardCharsets.UTF_8)));
+
+        // สำเนาผ่าน JSON tree (ที่ repository/store ใช้) ก็ต้องไม่ทิ้ง extras
+        Customer copy = JsonUtil.fromJsonTree(JsonUtil.toJsonTree(c), Customer.class);
+        assertEquals(JsonUtil.toJsonTree(c), JsonUtil.toJsonTree(copy));
+        assertEquals(6, copy.getRepair().getParts().get(0).getExtras().get("warrantyMonths").getAsInt());
+    }
+
+    private List<Customer> read(String json) throws IOException {
+        Path file = dir.resolve("customers.json");
+        Files.writeString(file, json, StandardCharsets.UTF_8);
+        return JsonUtil.readList(file.toString(), Customer.class);
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.big_bike_auto.common;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+/** decode ผ่าน window เล็ก ๆ: ตัวอักษรหลาย byte/surrogate pair คร่อมรอยต่อ และผู้อ่านที่ขอทีละ 1 char */
+@Timeout(value = 10, threadMode = Timeout.ThreadMode.SEPARATE_THREAD) // decode วนไม่จบ = fail ไม่ใช่ค้าง
+class MappedUtf8ReaderTest {
+
+    // ASCII, ไทย (3 byte), อักษร 2 byte และ emoji (4 byte = surrogate pair) สลับกัน
+    private static final String TEXT = "[{\"name\":\"ผ้าเบรก é 🏍️ ok\"},\"😀😀a😀\",\"ข𝄞ค\"]";
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void readsWholeTextAcrossEveryWindowSize() throws IOException {
+        Path file = write(TEXT);
+        for (int window = 1; window <= 12; window++) {
+            assertEquals(TEXT, readAll(file, window, 64), "window " + window);
+        }
+    }
+
+    @Test
+    void readsOneCharAtATime() throws IOException {
+        Path file = write(TEXT);
+        for (int window = 1; window <= 12; window++) {
+            assertEquals(TEXT, readAll(file, window, 1), "window " + window);
+        }
+    }
+
+    @Test
+    void readsWithOddBufferSizes() throws IOException {
+        Path file = write(TEXT.repeat(20));
+        for (int len : new int[]{2, 3, 5, 7}) {
+            assertEquals(TEXT.repeat(20), readAll(file, 5, len), "len " + len);
+        }
+    }
+
+    @Test
+    void emptyFileIsEndOfStream() throws IOException {
+        Path file = write("");
+        try (MappedUtf8Reader r = new MappedUtf8Reader(file, 4)) {
+            assertEquals(-1, r.read(new char[1], 0, 1));
+        }
+    }
+
+    @Test
+    void malformedUtf8IsReported() throws IOException {
+        Path file = dir.resolve("bad.json");
+        Files.write(file, new byte[]{'[', '"', (byte) 0xE0, (byte) 0x41, '"', ']'});
+        assertThrows(IOException.class, () -> readAll(file, 4, 16));
+    }
+
+    private Path write(String text) throws IOException {
+        Path file = dir.resolve("data.json");
+        Files.writeString(file, text, StandardCharsets.UTF_8);
+        return file;
+    }
+
+    private static String readAll(Path file, long window, int len) throws IOException {
+        StringBuilder sb = new StringBuilder();
+        char[] buf = new char[len + 3];
+        try (MappedUtf8Reader r = new MappedUtf8Reader(file, window)) {
+            int n;
+            while ((n = r.read(buf, 1, len)) != -1) {
+                assertTrue(n > 0 && n <= len, "read คืน " + n);
+                sb.append(buf, 1, n);
+            }
+        }
+        return sb.toString();
+    }
+}
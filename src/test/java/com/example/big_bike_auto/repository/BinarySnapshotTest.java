@@ -0,0 +1,168 @@
+package com.example.big_bike_auto.repository;
+
+import com.example.big_bike_auto.model.OrderItem;
+import com.example.big_bike_auto.model.Part;
+import com.example.big_bike_auto.model.PurchaseOrder;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+/** binary snapshot: เขียนแล้วอ่านกลับได้ครบ และไฟล์ที่เสีย/เก่า/คนละ schema ต้องไม่ถูกใช้ */
+class BinarySnapshotTest {
+
+    private static final long SIZE = 1234;
+    private static final long MTIME = 1_700_000_000_000L;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void partsRoundTrip() throws Exception {
+        Path file = dir.resolve("parts.json.bin");
+        List<Part> parts = new ArrayList<>();
+        parts.add(part("BRK-001", "ผ้าเบรกหน้า", -3, new BigDecimal("450.25"), "Honda", 7));
+        parts.add(null); // null ถูกข้ามตอนเขียน
+        parts.add(part("BRK-002", null, 0, null, "Honda", 0));
+        parts.add(part("X", "ยาง", Integer.MAX_VALUE, new BigDecimal("123456789012345678901234.5"), null, Long.MAX_VALUE));
+        BinarySnapshot.write(file, SnapshotCodec.PARTS, SIZE, MTIME, parts);
+
+        List<Part> read = new ArrayList<>();
+        assertTrue(BinarySnapshot.read(file, SnapshotCodec.PARTS, SIZE, MTIME, read::add));
+        assertEquals(3, read.size());
+        for (int i = 0, j = 0; i < parts.size(); i++) {
+            if (parts.get(i) == null) continue;
+            assertPartEquals(parts.get(i), read.get(j++));
+        }
+    }
+
+    @Test
+    void purchaseOrdersRoundTrip() throws Exception {
+        Path file = dir.resolve("purchase_orders.json.bin");
+        PurchaseOrder open = new PurchaseOrder("PO-1", "Honda", LocalDate.of(2024, 2, 29));
+        open.addItem(new OrderItem("BRK-001", "ผ้าเบรก", "ชุด", 4, 450.25));
+        open.addItem(new OrderItem("BRK-002", "น้ำมัน", "ลิตร", 1, 0.1));
+        open.setVersion(3);
+        PurchaseOrder received = new PurchaseOrder("PO-2", "Yamaha", null);
+        received.markAsReceived();
+        BinarySnapshot.write(file, SnapshotCodec.PURCHASE_ORDERS, SIZE, MTIME, List.of(open, received));
+
+        List<PurchaseOrder> read = new ArrayList<>();
+        assertTrue(BinarySnapshot.read(file, SnapshotCodec.PURCHASE_ORDERS, SIZE, MTIME, read::add));
+        assertEquals(2, read.size());
+        PurchaseOrder a = read.get(0);
+        assertEquals("PO-1", a.getId());
+        assertEquals("Honda", a.getSupplier());
+        assertEquals(LocalDate.of(2024, 2, 29), a.getOrderDate());
+        assertFalse(a.isReceived());
+        assertEquals(3, a.getVersion());
+        assertEquals(2, a.getItems().size());
+        OrderItem item = a.getItems().get(1);
+        assertEquals("BRK-002", item.getSku());
+        assertEquals("น้ำมัน", item.getName());
+        assertEquals("ลิตร", item.getUnit());
+        assertEquals(1, item.getQuantity());
+        assertEquals(0.1, item.getUnitPrice());
+        PurchaseOrder b = read.get(1);
+        assertNull(b.getOrderDate());
+        assertTrue(b.isReceived());
+        assertTrue(b.getItems().isEmpty());
+    }
+
+    @Test
+    void staleSourceStampIsRejected() throws Exception {
+        Path file = writeParts();
+        assertFalse(BinarySnapshot.read(file, SnapshotCodec.PARTS, SIZE + 1, MTIME, p -> {}));
+        assertFalse(BinarySnapshot.read(file, SnapshotCodec.PARTS, SIZE, MTIME + 1, p -> {}));
+    }
+
+    @Test
+    void otherSchemaVersionIsRejected() throws Exception {
+        Path file = writeParts();
+        SnapshotCodec<Part> newer = new SnapshotCodec<>() {
+            @Override
+            public int schemaVersion() { return SnapshotCodec.PARTS.schemaVersion() + 1; }
+
+            @Override
+            public void write(BinarySnapshot.Out out, Part record) {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public Part read(BinarySnapshot.In in) {
+                throw new UnsupportedOperationException();
+            }
+        };
+        assertFalse(BinarySnapshot.read(file, newer, SIZE, MTIME, p -> {}));
+    }
+
+    @Test
+    void truncatedFileIsRejectedAtEveryLength() throws Exception {
+        byte[] full = Files.readAllBytes(writeParts());
+        Path cut = dir.resolve("cut.bin");
+        for (int len = 0; len < full.length; len++) {
+            Files.write(cut, Arrays.copyOf(full, len));
+            assertFalse(BinarySnapshot.read(cut, SnapshotCodec.PARTS, SIZE, MTIME, p -> {}), "ตัดเหลือ " + len + " byte");
+        }
+    }
+
+    @Test
+    void trailingGarbageIsRejected() throws Exception {
+        Path file = writeParts();
+        byte[] full = Files.readAllBytes(file);
+        byte[] longer = Arrays.copyOf(full, full.length + 1);
+        Files.write(file, longer);
+        assertFalse(BinarySnapshot.read(file, SnapshotCodec.PARTS, SIZE, MTIME, p -> {}));
+    }
+
+    @Test
+    void corruptRecordLengthIsRejected() throws Exception {
+        Path file = writeParts();
+        byte[] bytes = Files.readAllBytes(file);
+        // header = MAGIC, FORMAT, schema (int x3) + size, mtime (long x2) + count (int) → ความยาวของ record แรก
+        int firstLength = 4 * 3 + 8 * 2 + 4;
+        bytes[firstLength + 3]++;
+        Files.write(file, bytes);
+        assertFalse(BinarySnapshot.read(file, SnapshotCodec.PARTS, SIZE, MTIME, p -> {}));
+    }
+
+    @Test
+    void missingFileIsRejected() {
+        assertFalse(BinarySnapshot.read(dir.resolve("none.bin"), SnapshotCodec.PARTS, SIZE, MTIME, p -> {}));
+    }
+
+    private Path writeParts() throws Exception {
+        Path file = dir.resolve("parts.json.bin");
+        BinarySnapshot.write(file, SnapshotCodec.PARTS, SIZE, MTIME, List.of(
+                part("A", "หัวเทียน", 1, new BigDecimal("80"), "NGK", 1),
+                part("B", "หัวเทียน", 2, new BigDecimal("85.5"), "NGK", 2)));
+        return file;
+    }
+
+    private static Part part(String sku, String name, int onHand, BigDecimal cost, String supplier, long version) {
+        Part p = new Part(sku, name, "ชิ้น", onHand, 1, 2, cost, supplier);
+        p.setVersion(version);
+        return p;
+    }
+
+    private static void assertPartEquals(Part expected, Part actual) {
+        assertEquals(expected.getSku(), actual.getSku());
+        assertEquals(expected.getName(), actual.getName());
+        assertEquals(expected.getUnit(), actual.getUnit());
+        assertEquals(expected.getOnHand(), actual.getOnHand());
+        assertEquals(expected.getReserved(), actual.getReserved());
+        assertEquals(expected.getMinStock(), actual.getMinStock());
+        assertEquals(expected.getLastCost(), actual.getLastCost());
+        assertEquals(expected.getSupplier(), actual.getSupplier());
+        assertEquals(expected.getVersion(), actual.getVersion());
+    }
+}
@@ -0,0 +1,98 @@
+package com.example.big_bike_auto.repository;
+
+import com.example.big_bike_auto.model.Part;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.ConcurrentModificationException;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.example.big_bike_auto.repository.RecordJournalTest.part;
+import static org.junit.jupiter.api.Assertions.*;
+
+
+/** เวอร์ชันต่อ record: compareAndPut และ update ที่ชนกับผู้เขียนอื่นแล้ว retry */
+class JsonFileStoreTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void compareAndPutRejectsStaleVersion() {
+        JsonFileStore<Part> store = open(dir);
+        store.put(part("A", 1));
+        long v = store.get("A").getVersion();
+
+        Part first = part("A", 2);
+        assertTrue(store.compareAndPut(first, v));
+        assertEquals(v + 1, store.get("A").getVersion());
+
+        Part stale = part("A", 3);
+        assertFalse(store.compareAndPut(stale, v), "เวอร์ชันเก่าต้องไม่ถูกบันทึก");
+        assertEquals(2, store.get("A").getOnHand());
+    }
+
+    @Test
+    void compareAndPutOnMissingKeyFails() {
+        JsonFileStore<Part> store = open(dir);
+        assertFalse(store.compareAndPut(part("N", 1), 0));
+        assertNull(store.get("N"));
+    }
+
+    @Test
+    void updateRetriesAfterConcurrentWrite() {
+        JsonFileStore<Part> store = open(dir);
+        store.put(part("A", 10));
+        AtomicInteger calls = new AtomicInteger();
+
+        Part result = store.update("A", p -> {
+            if (calls.incrementAndGet() == 1) {
+                // ผู้เขียนอื่นบันทึกแทรกระหว่างที่ mutator ทำงาน → CAS รอบแรกต้องชน
+                Part other = store.get("A");
+                store.put(part("A", other.getOnHand() + 5));
+            }
+            p.setOnHand(p.getOnHand() - 1);
+            return p;
+        });
+
+        assertEquals(2, calls.get());
+        assertEquals(14, result.getOnHand(), "ต้องแก้ต่อจากค่าที่ผู้อื่นบันทึกไว้ (10 + 5 - 1)");
+        assertEquals(14, store.get("A").getOnHand());
+    }
+
+    @Test
+    void updateGivesUpAfterMaxRetries() {
+        JsonFileStore<Part> store = open(dir);
+        store.put(part("A", 0));
+        AtomicInteger calls = new AtomicInteger();
+
+        assertThrows(ConcurrentModificationException.class, () -> store.update("A", p -> {
+            calls.incrementAndGet();
+            store.put(part("A", 99)); // ชนทุกรอบ
+            return p;
+        }));
+        assertEquals(AbstractRecordStore.CAS_RETRIES, calls.get());
+        assertEquals(99, store.get("A").getOnHand());
+    }
+
+    @Test
+    void updateRejectsKeyChange() {
+        JsonFileStore<Part> store = open(dir);
+        store.put(part("A", 1));
+        assertThrows(IllegalArgumentException.class, () -> store.update("A", p -> part("B", 1)));
+        assertNull(store.get("B"));
+    }
+
+    @Test
+    void updateOfMissingKeyReturnsNull() {
+        JsonFileStore<Part> store = open(dir);
+        assertNull(store.update("X", p -> p));
+    }
+
+    private static JsonFileStore<Part> open(Path dir) {
+        return JsonFileStore.of(dir.resolve("parts.json").toString(), Part.class, Part::getSku,
+                VersionAccess.of(Part::getVersion, Part::setVersion), List.of());
+    }
+}
@@ -0,0 +1,166 @@
+package com.example.big_bike_auto.repository;
+
+import com.example.big_bike_auto.common.SearchText;
+import com.example.big_bike_auto.model.Part;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+/** ผลค้นจาก n-gram index ต้องตรงกับการไล่ contains ทุกแถว ทั้งหลังโหลด และหลังเพิ่ม/แก้/ลบ (รวมการสร้าง index ใหม่) */
+class PartSearchIndexTest {
+
+    private static final String[] WORDS = {
+            "ผ้าเบรก", "หน้า", "หลัง", "หัวเทียน", "น้ำมันเครื่อง", "ยางใน", "ยางนอก", "โซ่", "สเตอร์",
+            "brake", "pad", "chain", "oil", "filter", "spark", "plug", "NGK", "Honda", "Yamaha", "10W-40"
+    };
+
+    @Test
+    void matchesBruteForceAfterResetAndUpdates() {
+        Random rnd = new Random(42);
+        Map<String, Part> data = new LinkedHashMap<>();
+        for (int i = 0; i < 300; i++) {
+            Part p = randomPart(rnd, "SKU-" + i);
+            data.put(p.getSku(), p);
+        }
+        PartSearchIndex index = new PartSearchIndex();
+        index.onReset(data);
+        assertMatchesBruteForce(index, data, rnd);
+
+        // เกิน 1024 doc และ doc ตายเกินครึ่ง → index ถูกสร้างใหม่ระหว่างทาง
+        for (int step = 0; step < 3000; step++) {
+            String sku = "SKU-" + rnd.nextInt(400);
+            if (rnd.nextInt(5) == 0) {
+                data.remove(sku);
+                index.onRemove(sku);
+            } else {
+                Part p = randomPart(rnd, sku);
+                data.put(sku, p);
+                index.onPut(sku, p);
+            }
+            if (step % 500 == 0) assertMatchesBruteForce(index, data, rnd);
+        }
+        assertMatchesBruteForce(index, data, rnd);
+    }
+
+    @Test
+    void ranksExactSkuFirst() {
+        Map<String, Part> data = new LinkedHashMap<>();
+        data.put("BRK-10", part("BRK-10", "ผ้าเบรกหน้า"));
+        data.put("BRK-1", part("BRK-1", "ผ้าเบรกหลัง"));
+        data.put("X-1", part("X-1", "brk1 อะไหล่"));
+        PartSearchIndex index = new PartSearchIndex();
+        index.onReset(data);
+
+        List<PartSearchIndex.Hit> hits = index.search("brk-1", 10);
+        assertEquals(List.of("BRK-1", "BRK-10", "X-1"), hits.stream().map(PartSearchIndex.Hit::sku).toList());
+        assertEquals(List.of("BRK-1"), index.search("brk-1", 1).stream().map(PartSearchIndex.Hit::sku).toList());
+    }
+
+    @Test
+    void removedAndRenamedPartsAreNotFound() {
+        Map<String, Part> data = new LinkedHashMap<>();
+        data.put("A", part("A", "หัวเทียน NGK"));
+        PartSearchIndex index = new PartSearchIndex();
+        index.onReset(data);
+
+        index.onPut("A", part("A", "โซ่ Honda"));
+        assertTrue(index.search("หัวเทียน", 10).isEmpty());
+        assertEquals(1, index.search("โซ่", 10).size());
+
+        index.onRemove("A");
+        assertTrue(index.search("โซ่", 10).isEmpty());
+        assertTrue(index.search("a", 10).isEmpty());
+    }
+
+    @Test
+    void duplicateAndBlankSkusFollowStoreKeys() {
+        // store ให้ key ภายใน ("\0" + ลำดับ) กับ sku ซ้ำ/ว่าง
+        Map<String, Part> data = new LinkedHashMap<>();
+        data.put("A", part("A", "หัวเทียน NGK"));
+        data.put("\u00000", part("A", "หัวเทียน Denso"));
+        data.put("\u00001", part("", "หัวเทียน Bosch"));
+        PartSearchIndex index = new PartSearchIndex();
+        index.onReset(data);
+
+        assertEquals(3, index.search("หัวเทียน", 10).size());
+        assertEquals(List.of("A"), skuList(index.search("denso", 10)), "ผลค้นคืน sku จริง ไม่ใช่ key ภายใน");
+
+        // แก้/ลบผ่าน key ของ store ต้องโดน doc ที่ถูกตัว (ไม่เหลือ doc กำพร้า)
+        index.onPut("\u00000", part("A", "โซ่ Denso"));
+        index.onRemove("\u00001");
+        assertEquals(List.of("A"), skuList(index.search("หัวเทียน", 10)));
+        assertEquals(List.of("A"), skuList(index.search("โซ่", 10)));
+        index.onRemove("A");
+        index.onRemove("\u00000");
+        assertTrue(index.search("a", 10).isEmpty());
+        assertTrue(index.search("หัวเทียน", 10).isEmpty());
+    }
+
+    // ---------- helpers ----------
+
+    private static List<String> skuList(List<PartSearchIndex.Hit> hits) {
+        return hits.stream().map(PartSearchIndex.Hit::sku).toList();
+    }
+
+    private static void assertMatchesBruteForce(PartSearchIndex index, Map<String, Part> data, Random rnd) {
+        List<String> queries = new ArrayList<>(List.of("a", "ย", "ยาง", "sku-1", "เบรก หน้า", "oil, chain", "10w", "ngk plug"));
+        List<Part> parts = new ArrayList<>(data.values());
+        for (int i = 0; i < 40 && !parts.isEmpty(); i++) {
+            // ส่วนของชื่อ/sku ที่มีอยู่จริง (ยาว 1-5 ตัว) → ทดสอบทั้งแบบ 1 ตัว, bigram และ trigram
+            Part p = parts.get(rnd.nextInt(parts.size()));
+            String text = rnd.nextBoolean() ? p.getName() : p.getSku();
+            int from = rnd.nextInt(text.length());
+            queries.add(text.substring(from, Math.min(text.length(), from + 1 + rnd.nextInt(5))));
+        }
+        for (String q : queries) {
+            assertEquals(bruteForce(data, q), skus(index.search(q, Integer.MAX_VALUE)), "คำค้น: " + q);
+        }
+    }
+
+    /** แถวที่มีกลุ่มใดที่ทุกคำเป็น substring ของ sku หรือชื่อ (normalize แล้ว) */
+    private static Set<String> bruteForce(Map<String, Part> data, String query) {
+        List<List<String>> groups = SearchText.parseQuery(query);
+        Set<String> out = new TreeSet<>();
+        for (Part p : data.values()) {
+            String code = SearchText.normalize(p.getSku());
+            String name = SearchText.normalize(p.getName());
+            for (List<String> terms : groups) {
+                if (terms.stream().allMatch(t -> code.contains(t) || name.contains(t))) {
+                    out.add(p.getSku());
+                    break;
+                }
+            }
+        }
+        return out;
+    }
+
+    private static Set<String> skus(List<PartSearchIndex.Hit> hits) {
+        Set<String> out = new TreeSet<>();
+        for (PartSearchIndex.Hit h : hits) assertTrue(out.add(h.sku()), "sku ซ้ำในผลค้น: " + h.sku());
+        return out;
+    }
+
+    private static Part randomPart(Random rnd, String sku) {
+        StringBuilder name = new StringBuilder();
+        int words = 1 + rnd.nextInt(3);
+        for (int w = 0; w < words; w++) {
+            if (w > 0 && rnd.nextBoolean()) name.append(' ');
+            name.append(WORDS[rnd.nextInt(WORDS.length)]);
+        }
+        return part(sku, name.toString());
+    }
+
+    private static Part part(String sku, String name) {
+        return new Part(sku, name, "ชิ้น", 1, 0, 0, BigDecimal.ONE, "Supplier");
+    }
+}
@@ -0,0 +1,117 @@
+package com.example.big_bike_auto.repository;
+
+import com.example.big_bike_auto.model.Part;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+/** replay ของ journal: ลำดับ put/del, บรรทัดท้ายที่เขียนค้าง (เครื่องดับระหว่าง append) และบรรทัดเสียกลางไฟล์ */
+class RecordJournalTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void replayAppliesPutsAndDeletesInOrder() throws Exception {
+        RecordJournal<Part> journal = journalIn(dir);
+        journal.appendPut("A", part("A", 1));
+        journal.appendPut("B", part("B", 2));
+        journal.appendPut("A", part("A", 3));
+        journal.appendDelete("B");
+
+        Map<String, Part> map = new LinkedHashMap<>();
+        assertEquals(4, journal.replay(map));
+        assertEquals(1, map.size());
+        assertEquals(3, map.get("A").getOnHand());
+    }
+
+    @Test
+    void tornLastLineIsSkippedAndTruncated() throws Exception {
+        RecordJournal<Part> journal = journalIn(dir);
+        journal.appendPut("A", part("A", 1));
+        journal.appendPut("B", part("B", 2));
+        long goodSize = Files.size(journal.file());
+        // บรรทัดสุดท้ายเขียนไม่ครบ (ไม่มี } และ \n)
+        Files.writeString(journal.file(), "{\"op\":\"put\",\"key\":\"C\",\"rec\":{\"sku\":\"C\"",
+                StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+
+        Map<String, Part> map = new LinkedHashMap<>();
+        assertEquals(2, journal.replay(map));
+        assertEquals(2, map.size());
+        assertFalse(map.containsKey("C"));
+        assertEquals(goodSize, Files.size(journal.file()), "เศษท้ายไฟล์ต้องถูกตัดทิ้ง");
+
+        // append ต่อหลังตัดแล้วต้องเริ่มบรรทัดใหม่ได้ถูกต้อง
+        journal.appendPut("C", part("C", 5));
+        Map<String, Part> again = new LinkedHashMap<>();
+        assertEquals(3, journal.replay(again));
+        assertEquals(5, again.get("C").getOnHand());
+    }
+
+    @Test
+    void corruptMiddleLineIsSkippedAndLaterEntriesKept() throws Exception {
+        RecordJournal<Part> journal = journalIn(dir);
+        journal.appendPut("A", part("A", 1));
+        Files.writeString(journal.file(), "{\"op\":\"put\",\"key\n", StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+        journal.appendPut("B", part("B", 2));
+        journal.appendDelete("A");
+        byte[] before = Files.readAllBytes(journal.file());
+
+        Map<String, Part> map = new LinkedHashMap<>();
+        assertEquals(3, journal.replay(map));
+        assertEquals(List.of("B"), List.copyOf(map.keySet()));
+        assertArrayEquals(before, Files.readAllBytes(journal.file()), "entry ที่ดีหลังบรรทัดเสียต้องไม่ถูกลบจากไฟล์");
+    }
+
+    @Test
+    void corruptMiddleLineAndTornTailOnlyTruncatesTail() throws Exception {
+        RecordJournal<Part> journal = journalIn(dir);
+        Files.writeString(journal.file(), "not json\n", StandardCharsets.UTF_8);
+        journal.appendPut("A", part("A", 1));
+        long goodSize = Files.size(journal.file());
+        Files.writeString(journal.file(), "{\"op\":\"del\"", StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+
+        Map<String, Part> map = new LinkedHashMap<>();
+        assertEquals(1, journal.replay(map));
+        assertTrue(map.containsKey("A"));
+        assertEquals(goodSize, Files.size(journal.file()));
+    }
+
+    @Test
+    void readOnlyReplayLeavesFileUntouched() throws Exception {
+        RecordJournal<Part> journal = journalIn(dir);
+        journal.appendPut("A", part("A", 1));
+        Files.writeString(journal.file(), "{\"op\":", StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+        byte[] before = Files.readAllBytes(journal.file());
+
+        Map<String, Part> map = new LinkedHashMap<>();
+        assertEquals(1, journal.replay(map, false));
+        assertArrayEquals(before, Files.readAllBytes(journal.file()));
+    }
+
+    @Test
+    void missingJournalReplaysNothing() throws Exception {
+        Map<String, Part> map = new LinkedHashMap<>();
+        assertEquals(0, journalIn(dir).replay(map));
+        assertTrue(map.isEmpty());
+    }
+
+    private static RecordJournal<Part> journalIn(Path dir) {
+        return new RecordJournal<>(RecordJournal.pathFor(dir.resolve("parts.json")), Part.class);
+    }
+
+    static Part part(String sku, int onHand) {
+        return new Part(sku, "Part " + sku, "ชิ้น", onHand, 0, 1, new BigDecimal("10.50"), "Supplier");
+    }
+}
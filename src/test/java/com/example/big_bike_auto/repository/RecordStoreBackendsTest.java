@@ -0,0 +1,97 @@
+package com.example.big_bike_auto.repository;
+
+import com.example.big_bike_auto.model.Part;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static com.example.big_bike_auto.repository.RecordJournalTest.part;
+import static org.junit.jupiter.api.Assertions.*;
+
+
+/** backend JSON และ H2 ต้องเก็บข้อมูลชุดเดียวกันได้เท่ากัน (สลับ backend แล้วแถวไม่หาย) */
+class RecordStoreBackendsTest {
+
+    private static String previousUrl;
+
+    @TempDir
+    Path dir;
+
+    @BeforeAll
+    static void useInMemoryDatabase() {
+        previousUrl = System.getProperty("bba.storage.jdbcUrl");
+        System.setProperty("bba.storage.jdbcUrl", "jdbc:h2:mem:backends;DB_CLOSE_DELAY=-1");
+    }
+
+    @AfterAll
+    static void restoreUrl() {
+        if (previousUrl == null) System.clearProperty("bba.storage.jdbcUrl");
+        else System.setProperty("bba.storage.jdbcUrl", previousUrl);
+    }
+
+    @Test
+    void saveAllKeepsDuplicateAndBlankIdsOnBothBackends() {
+        Part blank = part("", 4);
+        Part noSku = part(null, 5);
+        List<Part> items = Arrays.asList(part("A", 1), part("B", 2), part("A", 3), blank, noSku);
+
+        RecordStore<Part> json = jsonStore("dup_parts.json");
+        RecordStore<Part> h2 = h2Store("dup_parts.json");
+        json.saveAll(copies(items));
+        h2.saveAll(copies(items));
+
+        assertEquals(List.of(1, 2, 3, 4, 5), onHands(json.findAll()));
+        assertEquals(onHands(json.findAll()), onHands(h2.findAll()));
+        assertEquals(json.count(Query.where()), h2.count(Query.where()));
+        // id จริงยังชี้ไปที่รายการแรกเหมือนกัน
+        assertEquals(1, json.get("A").getOnHand());
+        assertEquals(1, h2.get("A").getOnHand());
+    }
+
+    @Test
+    void listenersSeeTheSameCountOnBothBackends() {
+        List<Part> items = Arrays.asList(part("X", 1), part("X", 2), part(null, 3));
+        RecordStore<Part> json = jsonStore("dup_counts.json");
+        RecordStore<Part> h2 = h2Store("dup_counts.json");
+        RecordCounter<Part> jsonCount = json.attach(RecordCounter.type(), () -> new RecordCounter<>(Part::getSku, p -> null));
+        RecordCounter<Part> h2Count = h2.attach(RecordCounter.type(), () -> new RecordCounter<>(Part::getSku, p -> null));
+
+        json.saveAll(copies(items));
+        h2.saveAll(copies(items));
+        // เหมือนที่ repository ทำก่อนอ่านตัวนับ: ให้ store โหลด/แจ้ง listener ให้ทันข้อมูล
+        json.findAll();
+        h2.findAll();
+
+        assertEquals(3, jsonCount.total());
+        assertEquals(3, h2Count.total());
+    }
+
+    private RecordStore<Part> jsonStore(String fileName) {
+        return JsonFileStore.of(dir.resolve(fileName).toString(), Part.class, Part::getSku, versions(), List.of());
+    }
+
+    private static RecordStore<Part> h2Store(String fileName) {
+        return JdbcRecordStore.of(fileName, Part.class, Part::getSku, versions(), List.of());
+    }
+
+    private static VersionAccess<Part> versions() {
+        return VersionAccess.of(Part::getVersion, Part::setVersion);
+    }
+
+    /** แต่ละ backend ตั้งเวอร์ชันลงใน record เอง → ให้ instance แยกกัน */
+    private static List<Part> copies(List<Part> items) {
+        List<Part> out = new ArrayList<>();
+        for (Part p : items) out.add(part(p.getSku(), p.getOnHand()));
+        return out;
+    }
+
+    private static List<Integer> onHands(List<Part> parts) {
+        return parts.stream().map(Part::getOnHand).toList();
+    }
+}
@@ -0,0 +1,114 @@
+package com.example.big_bike_auto.service;
+
+import com.example.big_bike_auto.common.DataPaths;
+import com.example.big_bike_auto.common.JsonUtil;
+import com.example.big_bike_auto.model.PurchaseOrder;
+import com.example.big_bike_auto.model.viewmodel.OrderRow;
+import com.example.big_bike_auto.repository.PurchaseOrderRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+/** createOrAppendDraftPO: เลข id ที่ไม่ชนของเดิม และ PO เปิดที่ไม่มี id */
+class OrderServiceTest {
+
+    private static final String SUPPLIER = "Honda";
+
+    @TempDir
+    Path dir;
+
+    private String previousDir;
+    private String today;
+
+    @BeforeEach
+    void useTempDataDir() {
+        previousDir = System.getProperty("bba.data.dir");
+        System.setProperty("bba.data.dir", dir.toString());
+        today = LocalDate.now().format(DateTimeFormatter.ofPattern("yyyyMMdd"));
+    }
+
+    @AfterEach
+    void restoreDataDir() {
+        if (previousDir == null) System.clearProperty("bba.data.dir");
+        else System.setProperty("bba.data.dir", previousDir);
+    }
+
+    @Test
+    void newIdSkipsPastExistingNumbersAfterDelete() {
+        // เคยมี 001-003 วันนี้ แล้ว 002 ถูกลบ → จำนวน = 2 แต่ 003 ยังอยู่
+        seed(received("PO-" + today + "-001"), received("PO-" + today + "-003"));
+
+        new OrderService().createOrAppendDraftPO(SUPPLIER, rows());
+
+        PurchaseOrder created = onlyOpen();
+        assertEquals("PO-" + today + "-004", created.getId());
+        assertEquals(1, created.getItems().size());
+    }
+
+    @Test
+    void newIdSkipsImportedIdsOutOfOrder() {
+        // id ของวันนี้แต่ orderDate เป็นวันอื่น (นำเข้ามา) → ไม่ถูกนับด้วย countByOrderDate
+        PurchaseOrder imported = new PurchaseOrder("PO-" + today + "-001", "Yamaha", LocalDate.of(2020, 1, 1));
+        imported.markAsReceived();
+        seed(imported);
+
+        new OrderService().createOrAppendDraftPO(SUPPLIER, rows());
+
+        assertEquals("PO-" + today + "-002", onlyOpen().getId());
+    }
+
+    @Test
+    void openPoWithoutIdFallsThroughToNewPo() {
+        PurchaseOrder legacy = new PurchaseOrder(null, SUPPLIER, LocalDate.of(2023, 5, 1));
+        seed(legacy);
+
+        assertDoesNotThrow(() -> new OrderService().createOrAppendDraftPO(SUPPLIER, rows()));
+
+        List<PurchaseOrder> open = new PurchaseOrderRepository().findOpenBySupplier(SUPPLIER);
+        assertEquals(2, open.size());
+        assertTrue(open.stream().anyMatch(po -> ("PO-" + today + "-001").equals(po.getId()) && po.getItems().size() == 1));
+        assertTrue(open.stream().anyMatch(po -> po.getId() == null && po.getItems().isEmpty()), "ใบเดิมต้องไม่ถูกแตะ");
+    }
+
+    @Test
+    void appendsToExistingOpenPo() {
+        seed(new PurchaseOrder("PO-20240101-001", SUPPLIER, LocalDate.of(2024, 1, 1)));
+        OrderService service = new OrderService();
+
+        service.createOrAppendDraftPO(SUPPLIER, rows());
+        service.createOrAppendDraftPO(SUPPLIER, rows());
+
+        PurchaseOrder po = onlyOpen();
+        assertEquals("PO-20240101-001", po.getId());
+        assertEquals(2, po.getItems().size());
+    }
+
+    private void seed(PurchaseOrder... orders) {
+        JsonUtil.writeList(DataPaths.file(DataPaths.PURCHASE_ORDERS).toString(), List.of(orders));
+    }
+
+    private static PurchaseOrder received(String id) {
+        PurchaseOrder po = new PurchaseOrder(id, "Yamaha", LocalDate.now());
+        po.markAsReceived();
+        return po;
+    }
+
+    private static List<OrderRow> rows() {
+        return List.of(new OrderRow(SUPPLIER, "BRK-001", "ผ้าเบรก", 2, 2));
+    }
+
+    private static PurchaseOrder onlyOpen() {
+        List<PurchaseOrder> open = new PurchaseOrderRepository().findOpenBySupplier(SUPPLIER);
+        assertEquals(1, open.size());
+        return open.get(0);
+    }
+}